@@ -7,8 +7,11 @@ import io.vertx.core.json.JsonObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 /**
  * Calculates loyalty points for a given booking request.
@@ -22,7 +25,9 @@ import java.nio.charset.StandardCharsets;
  *     -Apply promo bonus
  *     -Apply maximum cap
  *
- *
+ * Configuration is read from the file given as first argument, or from
+ * config.json on the classpath. When read from a file, changes to that
+ * file are applied at runtime unless "reload.path" says otherwise.
  */
 public class LoyaltyApplication {
 
@@ -34,25 +39,23 @@ public class LoyaltyApplication {
         Vertx vertx = Vertx.vertx();
 
         try {
-            InputStream inputStream =
-                    LoyaltyApplication.class.getClassLoader()
-                            .getResourceAsStream("config.json");
-
-            if (inputStream == null) {
-                throw new IllegalStateException("config.json not found in resources");
-            }
+            JsonObject config = args.length > 0 ? readFile(Path.of(args[0])) : readResource();
 
-            String configContent =
-                    new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            int instances = config.getJsonObject("http", new JsonObject())
+                    .getInteger("instances", 0);
 
-            JsonObject config = new JsonObject(configContent);
+            if (instances <= 0) {
+                instances = Runtime.getRuntime().availableProcessors();
+            }
 
             DeploymentOptions options = new DeploymentOptions()
-                    .setConfig(config);
+                    .setConfig(config)
+                    .setInstances(instances);
 
-            vertx.deployVerticle(new PointsQuoteVerticle(), options, ar -> {
+            vertx.deployVerticle(PointsQuoteVerticle::new, options, ar -> {
                 if (ar.succeeded()) {
-                    logger.info("PointsQuoteVerticle deployed successfully");
+                    logger.info("PointsQuoteVerticle deployed successfully | instances={}",
+                            options.getInstances());
                 } else {
                     logger.error("Failed to deploy PointsQuoteVerticle", ar.cause());
                     vertx.close();
@@ -64,4 +67,37 @@ public class LoyaltyApplication {
             vertx.close();
         }
     }
+
+    /**
+     * Reads the configuration file and watches it for changes
+     * unless another reload path is configured.
+     */
+    private static JsonObject readFile(Path path) throws IOException {
+
+        JsonObject config = new JsonObject(Files.readString(path, StandardCharsets.UTF_8));
+        JsonObject reload = config.getJsonObject("reload", new JsonObject());
+
+        if (reload.getString("path", "").isBlank()) {
+            config.put("reload", reload.copy().put("path", path.toString()));
+        }
+
+        logger.info("Configuration read from {}", path);
+        return config;
+    }
+
+    private static JsonObject readResource() throws IOException {
+
+        InputStream inputStream =
+                LoyaltyApplication.class.getClassLoader()
+                        .getResourceAsStream("config.json");
+
+        if (inputStream == null) {
+            throw new IllegalStateException("config.json not found in resources");
+        }
+
+        String configContent =
+                new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+
+        return new JsonObject(configContent);
+    }
 }
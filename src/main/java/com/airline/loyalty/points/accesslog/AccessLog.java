@@ -0,0 +1,365 @@
+package com.airline.loyalty.points.accesslog;
+
+import com.airline.loyalty.points.model.CabinClass;
+import com.airline.loyalty.points.model.QuoteRequest;
+import com.airline.loyalty.points.model.Tier;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Asynchronous access log of quote requests.
+ *
+ * Request threads only copy a fixed set of fields into a preallocated
+ * ring buffer; a background thread drains the buffer in batches and
+ * appends them to the log file, so event loops never format, lock or
+ * perform I/O.
+ *
+ * This log:
+ * - Claims ring slots with a CAS on a shared sequence and publishes each
+ *   slot with a volatile write, so any number of event loops may record
+ *   concurrently without locking or allocating
+ * - Drops records (and counts them) when the writer falls a whole ring
+ *   behind, rather than blocking the caller
+ * - Always records errors (status 400 and above) and slow requests;
+ *   successful requests are sampled
+ * - Writes the remaining records and stops its writer thread on
+ *   {@link #close()}
+ *
+ * Line format (one request per line, fields separated by spaces):
+ * ts=2026-01-31T10:15:30.123Z status=200 latencyMs=1.234 currency=USD cabin=ECONOMY tier=GOLD promo=true
+ *
+ * Fields of a request that was rejected before its body was decoded
+ * are written as "-". The currency is copied as sent, before
+ * validation, so spaces, backslashes and non-printable characters in it
+ * are written as a backslash, "u" and four hex digits: a request can
+ * never split or forge a line or a field.
+ *
+ * Read from the "accessLog" configuration block:
+ * {
+ *   "path": "/var/log/loyalty/access.log",
+ *   "capacity": 8192,
+ *   "flushIntervalMs": 200,
+ *   "successSampleRate": 0.01,
+ *   "slowThresholdMs": 250
+ * }
+ *
+ * Without a path nothing is recorded.
+ */
+public final class AccessLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccessLog.class);
+
+    private static final AccessLog DISABLED = new AccessLog();
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Path path;
+    private final double successSampleRate;
+    private final long slowThresholdNanos;
+    private final long flushIntervalNanos;
+
+    // Ring buffer, one array per field
+    private final int mask;
+    private final AtomicLongArray published;
+    private final long[] timestamps;
+    private final long[] latencies;
+    private final int[] statuses;
+    private final String[] currencies;
+    private final CabinClass[] cabins;
+    private final Tier[] tiers;
+    private final boolean[] promos;
+
+    private final AtomicLong claimed = new AtomicLong();
+    private volatile long drained;
+
+    private volatile Thread writer;
+    private volatile boolean closed;
+
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    private AccessLog() {
+        this.path = null;
+        this.successSampleRate = 0;
+        this.slowThresholdNanos = Long.MAX_VALUE;
+        this.flushIntervalNanos = 0;
+        this.mask = 0;
+        this.published = null;
+        this.timestamps = null;
+        this.latencies = null;
+        this.statuses = null;
+        this.currencies = null;
+        this.cabins = null;
+        this.tiers = null;
+        this.promos = null;
+    }
+
+    /**
+     * Creates a log writing to the given file.
+     * Nothing is written until {@link #start()} is called.
+     *
+     * @param path log file, appended to
+     * @param capacity ring buffer size, rounded up to a power of two
+     * @param flushIntervalMs pause between two drains of the ring buffer
+     * @param successSampleRate fraction of successful, fast requests recorded, from 0 to 1
+     * @param slowThresholdMs requests at least this slow are always recorded
+     */
+    public AccessLog(Path path, int capacity, long flushIntervalMs,
+                     double successSampleRate, long slowThresholdMs) {
+
+        int size = Integer.highestOneBit(Math.max(2, capacity) * 2 - 1);
+
+        this.path = path;
+        this.successSampleRate = Math.max(0, Math.min(1, successSampleRate));
+        this.slowThresholdNanos = TimeUnit.MILLISECONDS.toNanos(slowThresholdMs);
+        this.flushIntervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, flushIntervalMs));
+
+        this.mask = size - 1;
+        this.published = new AtomicLongArray(size);
+        this.timestamps = new long[size];
+        this.latencies = new long[size];
+        this.statuses = new int[size];
+        this.currencies = new String[size];
+        this.cabins = new CabinClass[size];
+        this.tiers = new Tier[size];
+        this.promos = new boolean[size];
+
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+    }
+
+    /**
+     * Creates the log from the "accessLog" configuration block and
+     * starts its writer thread.
+     *
+     * @param accessLogConfig the "accessLog" configuration object (may be null)
+     * @return the log, or a log that records nothing if no path is configured
+     */
+    public static AccessLog fromJson(JsonObject accessLogConfig) {
+        JsonObject config = accessLogConfig == null ? new JsonObject() : accessLogConfig;
+
+        String file = config.getString("path");
+
+        if (file == null || file.isBlank()) {
+            return DISABLED;
+        }
+
+        AccessLog log = new AccessLog(Path.of(file),
+                config.getInteger("capacity", 8_192),
+                config.getLong("flushIntervalMs", 200L),
+                config.getDouble("successSampleRate", 0.01),
+                config.getLong("slowThresholdMs", 250L));
+
+        log.start();
+        return log;
+    }
+
+    /**
+     * Starts the daemon thread draining the ring buffer to the log file.
+     */
+    public void start() {
+        Thread thread = new Thread(this::run, "access-log-writer");
+        thread.setDaemon(true);
+        writer = thread;
+        thread.start();
+
+        logger.info("Access log started | path={} | capacity={} | successSampleRate={} | slowThresholdMs={}",
+                path, mask + 1, successSampleRate, TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos));
+    }
+
+    /**
+     * Stops the writer thread once it has written every record published
+     * so far. Records made afterwards are dropped.
+     * Blocking; must not be called on an event loop.
+     */
+    public void close() {
+
+        Thread thread = writer;
+
+        if (thread == null) {
+            return;
+        }
+
+        closed = true;
+        LockSupport.unpark(thread);
+
+        try {
+            thread.join(5_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        writer = null;
+        logger.info("Access log closed | path={} | written={} | dropped={}", path, written(), dropped());
+    }
+
+    /**
+     * @return true if requests are recorded
+     */
+    public boolean enabled() {
+        return path != null;
+    }
+
+    /**
+     * Records one request, subject to sampling. Never blocks.
+     *
+     * @param status HTTP status code of the response
+     * @param latencyNanos time from admission to the end of the response
+     * @param request the decoded request, or null if it was not decoded
+     */
+    public void record(int status, long latencyNanos, QuoteRequest request) {
+
+        if (path == null) {
+            return;
+        }
+
+        if (status < 400 && latencyNanos < slowThresholdNanos
+                && ThreadLocalRandom.current().nextDouble() >= successSampleRate) {
+            return;
+        }
+
+        if (closed) {
+            dropped.increment();
+            return;
+        }
+
+        long sequence;
+
+        do {
+            sequence = claimed.get();
+            if (sequence - drained > mask) {
+                dropped.increment();
+                return;
+            }
+        } while (!claimed.compareAndSet(sequence, sequence + 1));
+
+        int slot = (int) (sequence & mask);
+
+        timestamps[slot] = System.currentTimeMillis();
+        latencies[slot] = latencyNanos;
+        statuses[slot] = status;
+        currencies[slot] = request == null ? null : request.currency();
+        cabins[slot] = request == null ? null : request.cabinClass();
+        tiers[slot] = request == null ? null : request.customerTier();
+        promos[slot] = request != null && request.promoCode() != null && !request.promoCode().isBlank();
+
+        published.set(slot, sequence);
+    }
+
+    /**
+     * @return number of records written to the log file
+     */
+    public long written() {
+        return written.sum();
+    }
+
+    /**
+     * @return number of records dropped because the ring buffer was full
+     */
+    public long dropped() {
+        return dropped.sum();
+    }
+
+    private void run() {
+
+        StringBuilder line = new StringBuilder(160);
+
+        try (Writer out = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+
+            while (!closed) {
+                if (drain(out, line) > 0) {
+                    out.flush();
+                }
+                LockSupport.parkNanos(flushIntervalNanos);
+            }
+
+            drain(out, line);
+
+        } catch (IOException e) {
+            logger.error("Access log writer stopped: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Writes every published record in order, releasing their slots.
+     *
+     * @return number of records written
+     */
+    private int drain(Writer out, StringBuilder line) throws IOException {
+
+        long next = drained;
+        int count = 0;
+
+        while (published.get((int) (next & mask)) == next) {
+
+            int slot = (int) (next & mask);
+
+            line.setLength(0);
+            line.append("ts=").append(Instant.ofEpochMilli(timestamps[slot]))
+                    .append(" status=").append(statuses[slot])
+                    .append(" latencyMs=").append(latencies[slot] / 1_000 / 1_000d)
+                    .append(" currency=");
+
+            appendEscaped(line, currencies[slot]);
+
+            line.append(" cabin=").append(orDash(cabins[slot]))
+                    .append(" tier=").append(orDash(tiers[slot]))
+                    .append(" promo=").append(promos[slot])
+                    .append('\n');
+
+            out.append(line);
+
+            next++;
+            count++;
+            drained = next;
+        }
+
+        written.add(count);
+        return count;
+    }
+
+    /**
+     * Appends a client-supplied value, escaping every character that is
+     * not printable ASCII, as well as spaces and backslashes.
+     */
+    static void appendEscaped(StringBuilder line, String value) {
+
+        if (value == null) {
+            line.append('-');
+            return;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+
+            if (c > ' ' && c < 0x7f && c != '\\') {
+                line.append(c);
+            } else {
+                line.append("\\u")
+                        .append(HEX[(c >> 12) & 0xf]).append(HEX[(c >> 8) & 0xf])
+                        .append(HEX[(c >> 4) & 0xf]).append(HEX[c & 0xf]);
+            }
+        }
+    }
+
+    private static Object orDash(Object value) {
+        return value == null ? "-" : value;
+    }
+}
@@ -0,0 +1,241 @@
+package com.airline.loyalty.points.api;
+
+import com.airline.loyalty.points.model.QuoteRequest;
+import com.airline.loyalty.points.service.PointsCalculator;
+import com.airline.loyalty.points.validation.RequestValidator;
+import com.airline.loyalty.points.validation.ValidationError;
+import io.vertx.core.Future;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.parsetools.RecordParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayDeque;
+
+/**
+ * Streams newline-delimited quote requests through the calculator
+ * and writes newline-delimited results back as they complete.
+ *
+ * One instance handles exactly one HTTP request.
+ *
+ * Each input line is a QuoteRequest JSON object. Each output line is
+ * either a QuoteResponse JSON object or an error object:
+ * {
+ *   "line": <1-based input line number>,
+ *   "status": <code>,
+ *   "error": "<message>"
+ * }
+ *
+ * Lines failing validation also list every violated rule in
+ * "errors": [ "<message>", ... ].
+ *
+ * Output lines are written in input order as soon as the result at the
+ * head of the queue completes.
+ *
+ * Memory stays flat regardless of input size:
+ * - The request is paused while maxInFlight quotes are pending
+ * - The request is paused while the response write queue is full,
+ *   and resumed from the response drain handler
+ * - Individual lines are bounded by maxLineBytes
+ */
+class NdjsonQuoteStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(NdjsonQuoteStream.class);
+
+    private static final Buffer NEWLINE = Buffer.buffer("\n");
+
+    private final HttpServerRequest request;
+    private final HttpServerResponse response;
+    private final RequestValidator validator;
+    private final PointsCalculator calculator;
+    private final int maxInFlight;
+    private final RecordParser parser;
+
+    private final ArrayDeque<Future<Buffer>> pending = new ArrayDeque<>();
+
+    private long lineNumber;
+    private long quoted;
+    private boolean paused;
+    private boolean inputEnded;
+    private boolean finished;
+
+    /**
+     * Creates a stream for the given request.
+     *
+     * @param request incoming request carrying NDJSON quote requests
+     * @param validator validator applied to every line of the stream
+     * @param calculator points calculation service
+     * @param maxInFlight maximum number of quotes pending at once
+     * @param maxLineBytes maximum size of a single input line
+     */
+    NdjsonQuoteStream(HttpServerRequest request,
+                      RequestValidator validator,
+                      PointsCalculator calculator,
+                      int maxInFlight,
+                      int maxLineBytes) {
+        this.request = request;
+        this.response = request.response();
+        this.validator = validator;
+        this.calculator = calculator;
+        this.maxInFlight = maxInFlight;
+        this.parser = RecordParser.newDelimited("\n", request)
+                .maxRecordSize(maxLineBytes);
+    }
+
+    /**
+     * Starts consuming the request and writing the response.
+     */
+    void start() {
+
+        response.setStatusCode(200)
+                .setChunked(true)
+                .putHeader("Content-Type", "application/x-ndjson");
+
+        response.drainHandler(v -> updateFlow());
+        response.closeHandler(v -> finished = true);
+
+        parser.handler(this::handleLine);
+        parser.exceptionHandler(this::fail);
+        parser.endHandler(v -> {
+            inputEnded = true;
+            flush();
+        });
+
+        parser.resume();
+    }
+
+    /**
+     * Parses, validates and submits one input line.
+     *
+     * @param line raw line without the delimiter
+     */
+    private void handleLine(Buffer line) {
+
+        lineNumber++;
+
+        if (finished || isBlank(line)) {
+            return;
+        }
+
+        long number = lineNumber;
+        Future<Buffer> result;
+
+        try {
+            QuoteRequest req = QuoteCodec.decodeRequest(line, validator);
+            int violations = validator.check(req);
+
+            if (violations != 0) {
+                result = Future.succeededFuture(validationErrorLine(number, violations));
+            } else {
+                result = calculator.calculate(req)
+                        .map(QuoteCodec::encodeResponse)
+                        .otherwise(err -> err instanceof ArithmeticException
+                                ? errorLine(number, 422, PointsQuoteVerticle.OUT_OF_RANGE)
+                                : errorLine(number, 503, "Service temporarily unavailable"));
+            }
+
+        } catch (IllegalArgumentException e) {
+            result = Future.succeededFuture(errorLine(number, 400, e.getMessage()));
+
+        } catch (RuntimeException e) {
+            result = Future.succeededFuture(errorLine(number, 400, "Invalid JSON"));
+        }
+
+        pending.add(result);
+        result.onComplete(ar -> flush());
+
+        updateFlow();
+    }
+
+    /**
+     * Writes every completed result at the head of the queue and
+     * ends the response once the input is exhausted.
+     */
+    private void flush() {
+
+        while (!finished && !pending.isEmpty() && pending.peek().isComplete()) {
+            response.write(pending.poll().result().appendBuffer(NEWLINE));
+            quoted++;
+        }
+
+        if (!finished && inputEnded && pending.isEmpty()) {
+            finished = true;
+            logger.debug("Quote stream completed | lines={} | results={}", lineNumber, quoted);
+            response.end();
+            return;
+        }
+
+        updateFlow();
+    }
+
+    /**
+     * Pauses the request while too many quotes are pending or the
+     * response cannot keep up, and resumes it otherwise.
+     */
+    private void updateFlow() {
+
+        if (finished) {
+            return;
+        }
+
+        boolean saturated = pending.size() >= maxInFlight || response.writeQueueFull();
+
+        if (saturated && !paused) {
+            paused = true;
+            parser.pause();
+        } else if (!saturated && paused && !inputEnded) {
+            paused = false;
+            parser.resume();
+        }
+    }
+
+    /**
+     * Terminates the stream after an unrecoverable input error.
+     *
+     * @param err the parsing or transport error
+     */
+    private void fail(Throwable err) {
+
+        if (finished) {
+            return;
+        }
+
+        logger.warn("Quote stream failed at line {}: {}", lineNumber + 1, err.getMessage());
+
+        finished = true;
+        pending.clear();
+
+        response.end(errorLine(lineNumber + 1, 400, "Invalid input stream").appendBuffer(NEWLINE));
+    }
+
+    private static Buffer errorLine(long line, int status, String message) {
+        return new JsonObject()
+                .put("line", line)
+                .put("status", status)
+                .put("error", message)
+                .toBuffer();
+    }
+
+    private static Buffer validationErrorLine(long line, int violations) {
+        return new JsonObject()
+                .put("line", line)
+                .put("status", 400)
+                .put("error", ValidationError.first(violations).message())
+                .put("errors", new JsonArray(ValidationError.messages(violations)))
+                .toBuffer();
+    }
+
+    private static boolean isBlank(Buffer line) {
+        for (int i = 0; i < line.length(); i++) {
+            byte b = line.getByte(i);
+            if (b != ' ' && b != '\t' && b != '\r') {
+                return false;
+            }
+        }
+        return true;
+    }
+}
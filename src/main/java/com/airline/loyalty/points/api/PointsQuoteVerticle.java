@@ -1,34 +1,47 @@
 package com.airline.loyalty.points.api;
 
+import com.airline.loyalty.points.accesslog.AccessLog;
+import com.airline.loyalty.points.jfr.QuoteEvent;
+import com.airline.loyalty.points.metrics.MetricsRegistry;
+import com.airline.loyalty.points.metrics.QuoteStageMetrics;
 import com.airline.loyalty.points.model.QuoteRequest;
-import com.airline.loyalty.points.service.FxRateClient;
+import com.airline.loyalty.points.model.QuoteResponse;
+import com.airline.loyalty.points.resilience.AdaptiveConcurrencyLimiter;
+import com.airline.loyalty.points.resilience.CircuitOpenException;
+import com.airline.loyalty.points.service.Deadline;
+import com.airline.loyalty.points.service.DeadlineExceededException;
 import com.airline.loyalty.points.service.PointsCalculator;
-import com.airline.loyalty.points.service.PromoClient;
+import com.airline.loyalty.points.service.QuoteTimings;
 import com.airline.loyalty.points.validation.RequestValidator;
+import com.airline.loyalty.points.validation.ValidationError;
 import io.vertx.core.AbstractVerticle;
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Promise;
+import io.vertx.core.buffer.Buffer;
 import io.vertx.core.http.HttpMethod;
-import io.vertx.core.json.Json;
+import io.vertx.core.json.DecodeException;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.Router;
 import io.vertx.ext.web.RoutingContext;
-import io.vertx.ext.web.client.WebClient;
-import io.vertx.ext.web.client.WebClientOptions;
 import io.vertx.ext.web.handler.BodyHandler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * REST API verticle responsible for handling loyalty points quote requests.
  *
  * Exposes:
- *   POST /v1/points/quote  - Calculates loyalty points
- *   GET  /health           - Health check endpoint
+ *   POST /v1/points/quote        - Calculates loyalty points
+ *   POST /v1/points/quote:batch  - Calculates loyalty points for many itineraries
+ *   POST /v1/points/quote:stream - Streams NDJSON quote requests and results
+ *   GET  /health           - Health check endpoint (503 WARMING_UP until warm-up ends)
  *
  * This verticle:
- * - Initializes external service clients (FX and Promo)
+ * - Uses external service clients (FX and Promo) shared across instances
  * - Validates incoming requests
  * - Applies business calculation logic
  * - Returns structured JSON responses with proper HTTP status codes
@@ -38,93 +51,182 @@ public class PointsQuoteVerticle extends AbstractVerticle {
     private static final Logger logger =
             LoggerFactory.getLogger(PointsQuoteVerticle.class);
 
+    private static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+    private static final String DEADLINE_HEADER = "X-Request-Deadline";
+
+    // Routing context key of the decoded quote request, read by the access log
+    private static final String REQUEST_KEY = "quote.request";
+
+    // Error of a quote whose points do not fit in the response
+    static final String OUT_OF_RANGE = "Quote exceeds the supported points range";
+
+    private QuoteServices services;
 
     /**
      * Initializes configuration, sets up routing, and starts the HTTP server.
      *
-     * Reads configuration for FX and Promo services,
-     * creates required WebClient instances,
-     * configures routes and error handling,
-     * and deploys the HTTP server on a dynamic port.
+     * Obtains the FX and Promo services shared by all instances on a
+     * worker thread (the first instance creates them, which loads the
+     * warm-start snapshot), then configures routes and error handling,
+     * and starts the HTTP server on the configured port.
+     *
+     * When several instances are deployed they listen on the same
+     * port and Vert.x balances connections across their event loops.
+     * Port 0 picks a random port per instance; use a negative value
+     * to share one random port between instances.
      *
      * @param startPromise promise used to signal deployment success or failure
      */
     @Override
     public void start(Promise<Void> startPromise) {
 
-        try {
+        // Shared Services (one set per Vert.x instance, reused by all verticle instances)
+        vertx.executeBlocking(() -> QuoteServices.shared(vertx, config()), false)
+                .onSuccess(shared -> {
+                    Promise<Void> listening = Promise.promise();
+                    listen(shared, listening);
+
+                    listening.future()
+                            .onSuccess(v -> services = shared)
+                            .onFailure(err -> shared.release())
+                            .onComplete(startPromise);
+                })
+                .onFailure(err -> {
+                    logger.error("Failed to initialize PointsQuoteVerticle", err);
+                    startPromise.fail(err);
+                });
+    }
 
-            // Read Structured Configuration
-            JsonObject fxConfig = config().getJsonObject("fx", new JsonObject());
-            JsonObject promoConfig = config().getJsonObject("promo", new JsonObject());
+    /**
+     * Releases the shared services; the last instance to stop closes them.
+     *
+     * @param stopPromise promise completed once the services are released
+     */
+    @Override
+    public void stop(Promise<Void> stopPromise) {
+
+        if (services == null) {
+            stopPromise.complete();
+            return;
+        }
 
-            String fxBaseUrl = fxConfig.getString("baseUrl", "http://localhost:8081");
-            int fxMaxRetries = fxConfig.getInteger("maxRetries", 2);
-            String fxPath = fxConfig.getString("path", "/fx");
+        services.release().onComplete(stopPromise);
+    }
 
-            String promoBaseUrl = promoConfig.getString("baseUrl", "http://localhost:8082");
-            int promoTimeoutMs = promoConfig.getInteger("timeoutMs", 500);
-            int promoExpiryWarningDays = promoConfig.getInteger("expiryWarningDays", 3);
+    /**
+     * Configures routes and starts the HTTP server.
+     *
+     * @param services the shared services
+     * @param startPromise promise used to signal deployment success or failure
+     */
+    private void listen(QuoteServices services, Promise<Void> startPromise) {
 
+        try {
 
+            PointsCalculator calculator = services.calculator();
+            AdaptiveConcurrencyLimiter limiter = services.limiter();
+            QuoteStageMetrics stages = services.stageMetrics();
+            MetricsRegistry metrics = services.metrics();
+            AccessLog accessLog = services.accessLog();
+            WarmUp warmUp = services.warmUp();
+            ServerTiming serverTiming = ServerTiming.fromJson(config().getJsonObject("serverTiming"));
 
-            logger.info("FX Config | baseUrl={} | maxRetries={}", fxBaseUrl, fxMaxRetries);
-            logger.info("Promo Config | baseUrl={} | timeoutMs={} | expiryWarningDays={}",
-                    promoBaseUrl, promoTimeoutMs, promoExpiryWarningDays);
+            // Read Structured Configuration
+            JsonObject httpConfig = config().getJsonObject("http", new JsonObject());
+            JsonObject batchConfig = config().getJsonObject("batch", new JsonObject());
+            JsonObject streamConfig = config().getJsonObject("stream", new JsonObject());
 
+            int httpPort = httpConfig.getInteger("port", 0);
+            long httpMaxBodyBytes = httpConfig.getLong("maxBodyBytes", 16_384L);
 
-            // Create WebClients Safely
-            WebClient fxClient = createWebClient(fxBaseUrl);
-            WebClient promoClient = createWebClient(promoBaseUrl);
+            int batchMaxItems = batchConfig.getInteger("maxItems", 500);
+            long batchMaxBodyBytes = batchConfig.getLong("maxBodyBytes", 1_048_576L);
 
-            // Initialize Services
-            PointsCalculator calculator =
-                    new PointsCalculator(
-                            new FxRateClient(fxClient,fxPath, fxMaxRetries),
-                            new PromoClient(promoClient, promoTimeoutMs, promoExpiryWarningDays)
-                    );
+            int streamMaxInFlight = streamConfig.getInteger("maxInFlight", 64);
+            int streamMaxLineBytes = streamConfig.getInteger("maxLineBytes", 8192);
 
 
             // Router Setup
             Router router = Router.router(vertx);
-            router.route().handler(BodyHandler.create());
+
+            // Streaming Endpoint (registered before any BodyHandler so the body is never buffered)
+            router.postWithRegex("/v1/points/quote:stream")
+                    .handler(ctx -> {
+                        String contentType = ctx.request().getHeader("Content-Type");
+
+                        if (contentType == null || !contentType.contains("application/x-ndjson")) {
+                            sendError(ctx, 415, "Unsupported Media Type");
+                            return;
+                        }
+
+                        new NdjsonQuoteStream(ctx.request(), services.validator(), calculator,
+                                streamMaxInFlight, streamMaxLineBytes).start();
+                    });
+
+            // Batch Endpoint (own body limit, sized for maxItems requests)
+            router.postWithRegex("/v1/points/quote:batch")
+                    .handler(BodyHandler.create().setBodyLimit(batchMaxBodyBytes))
+                    .handler(ctx -> {
+                        if (!isJsonRequest(ctx)) {
+                            sendError(ctx, 415, "Unsupported Media Type");
+                            return;
+                        }
+
+                        handleBatchQuoteRequest(ctx, services.validator(), calculator, batchMaxItems);
+                    });
+
+            // Load Shedding (before the body is buffered, so rejections are cheap)
+            router.post("/v1/points/quote")
+                    .handler(ctx -> admit(ctx, limiter, stages, accessLog));
 
             // Global Body Handler
-            router.route().handler(BodyHandler.create());
+            router.route().handler(BodyHandler.create().setBodyLimit(httpMaxBodyBytes));
+
+            // Health Endpoint (not ready while the quote path is warming up)
+            router.get("/health").handler(ctx -> {
+                boolean ready = warmUp.ready();
+
+                ctx.response()
+                        .setStatusCode(ready ? 200 : 503)
+                        .putHeader("Content-Type", "application/json")
+                        .end(new JsonObject().put("status", ready ? "UP" : "WARMING_UP").encode());
+            });
 
-            // Health Endpoint
-            router.get("/health").handler(ctx ->
+            // Metrics Endpoint (Prometheus text format)
+            router.get("/metrics").handler(ctx ->
                     ctx.response()
                             .setStatusCode(200)
-                            .putHeader("Content-Type", "application/json")
-                            .end(new JsonObject().put("status", "UP").encode())
+                            .putHeader("Content-Type", "text/plain; version=0.0.4; charset=utf-8")
+                            .end(metrics.scrape())
             );
 
 
             // Content-Type Enforcement
-            router.route("/v1/points/quote")
-                    .method(HttpMethod.POST)
-                    .handler(BodyHandler.create())
+            router.post("/v1/points/quote")
                     .handler(ctx -> {
-                        if (!ctx.request().isExpectMultipart() &&
-                                (ctx.parsedHeaders().contentType() == null ||
-                                        !ctx.parsedHeaders().contentType().value().contains("application/json"))) {
-
+                        if (!isJsonRequest(ctx)) {
                             sendError(ctx, 415, "Unsupported Media Type");
                             return;
                         }
 
-                        handleQuoteRequest(ctx, calculator);
+                        handleQuoteRequest(ctx, services.validator(), calculator, stages, serverTiming, accessLog);
                     });
 
-            // POST Endpoint
-            router.post("/v1/points/quote")
-                    .handler(ctx -> handleQuoteRequest(ctx, calculator));
-
             // Method Not Allowed
             router.route("/v1/points/quote")
                     .handler(ctx -> sendError(ctx, 405, "Method Not Allowed"));
 
+            router.routeWithRegex("/v1/points/quote:batch")
+                    .handler(ctx -> sendError(ctx, 405, "Method Not Allowed"));
+
+            router.routeWithRegex("/v1/points/quote:stream")
+                    .handler(ctx -> sendError(ctx, 405, "Method Not Allowed"));
+
+
+            // Payload Too Large (raised by BodyHandler)
+            router.errorHandler(413, ctx ->
+                    sendError(ctx, 413, "Request body too large")
+            );
 
             // Not Found (Fallback)
             router.route().last().handler(ctx ->
@@ -134,7 +236,7 @@ public class PointsQuoteVerticle extends AbstractVerticle {
             // Start HTTP Server
             vertx.createHttpServer()
                     .requestHandler(router)
-                    .listen(0, ar -> {
+                    .listen(httpPort, ar -> {
                         if (ar.succeeded()) {
                             int port = ar.result().actualPort();
                             logger.info("Points Quote API started on port {}", port);
@@ -160,53 +262,144 @@ public class PointsQuoteVerticle extends AbstractVerticle {
     /**
      * Processes a loyalty points quote request.
      *
-     * Validates the incoming JSON payload,
+     * Decodes and validates the incoming JSON payload,
      * delegates calculation to PointsCalculator,
-     * and returns a JSON response.
+     * and returns a JSON response. Decoding and encoding
+     * go through {@link QuoteCodec} without intermediate
+     * JsonObject trees.
+     *
+     * The caller may bound the request with an X-Request-Timeout-Ms
+     * (relative, in milliseconds) or X-Request-Deadline (absolute, epoch
+     * milliseconds) header; the earliest wins. The resulting deadline is
+     * propagated to every FX and promo call.
+     *
+     * Every request emits a {@link QuoteEvent} to JDK Flight Recorder
+     * when the event is enabled in the running recording. Sampled
+     * requests also carry a {@link ServerTiming} header with the
+     * duration of each stage.
+     *
+     * Validation errors list every violated rule in "errors"; "error"
+     * holds the first one.
      *
      * Returns:
      * 200 - Successful calculation
-     * 400 - Validation error
-     * 503 - External service failure
+     * 400 - Validation error or invalid deadline header
+     * 413 - Request body too large
+     * 422 - Points of the quote exceed the supported range
+     * 503 - External service failure, open FX circuit, or overload (with Retry-After)
+     * 504 - Request deadline reached before the quote was calculated
      * 500 - Unexpected internal error
      *
      * @param ctx routing context
+     * @param validator validator of the current configuration
      * @param calculator points calculation service
+     * @param stages pipeline stage histograms
+     * @param serverTiming sampler of the Server-Timing header
+     * @param accessLog access log the decoded request is recorded in
      */
     // Request Handler
     private void handleQuoteRequest(RoutingContext ctx,
-                                    PointsCalculator calculator) {
+                                    RequestValidator validator,
+                                    PointsCalculator calculator,
+                                    QuoteStageMetrics stages,
+                                    ServerTiming serverTiming,
+                                    AccessLog accessLog) {
+
+        QuoteEvent event = new QuoteEvent();
+        event.begin();
+
+        boolean recordEvent = event.isEnabled();
+        boolean timed = serverTiming.sample();
+
+        QuoteTimings timings = recordEvent || timed ? new QuoteTimings() : null;
+
+        if (recordEvent) {
+            ctx.addEndHandler(ar -> commitQuoteEvent(event, timings, ctx.response().getStatusCode()));
+        }
 
         try {
-            String contentType = ctx.request().getHeader("Content-Type");
-            JsonObject body = ctx.body().asJsonObject();
+            Deadline deadline = requestDeadline(ctx);
+
+            long parseStart = System.nanoTime();
+            QuoteRequest request = QuoteCodec.decodeRequest(ctx.body().buffer(), validator);
+            stages.parse().recordSince(parseStart);
 
-            if (body == null) {
+            if (request == null) {
                 sendError(ctx, 400, "Request body is required");
                 return;
             }
 
-            QuoteRequest request = body.mapTo(QuoteRequest.class);
-            RequestValidator.validate(request);
+            if (accessLog.enabled()) {
+                ctx.put(REQUEST_KEY, request);
+            }
+
+            if (recordEvent) {
+                event.currency = request.currency();
+                event.tier = String.valueOf(request.customerTier());
+                event.cabin = String.valueOf(request.cabinClass());
+                event.promoPresent = request.promoCode() != null && !request.promoCode().isBlank();
+            }
+
+            long validateStart = System.nanoTime();
+            int violations = validator.check(request);
+            long validateNanos = System.nanoTime() - validateStart;
+            stages.validate().record(validateNanos);
+
+            if (violations != 0) {
+                logger.debug("Validation errors: {}", ValidationError.messages(violations));
+                sendValidationError(ctx, violations);
+                return;
+            }
+
+            if (deadline.isExpired()) {
+                sendError(ctx, 504, "Request deadline exceeded");
+                return;
+            }
+
+            long calculateStart = System.nanoTime();
 
-            calculator.calculate(request)
+            calculator.calculate(request, deadline, timings)
+                    .onComplete(ar -> stages.calculate().recordSince(calculateStart))
                     .onSuccess(res -> {
-                        logger.info(
-                                "Points calculated | fare={} {} | cabin={} | tier={} | totalPoints={} | warnings={}",
-                                request.fareAmount(),
-                                request.currency(),
-                                request.cabinClass(),
-                                request.customerTier(),
-                                res.totalPoints(),
-                                res.warnings()
-                        );
+                        long encodeStart = System.nanoTime();
+                        Buffer encoded = QuoteCodec.encodeResponse(res);
+                        long encodeNanos = System.nanoTime() - encodeStart;
+                        stages.encode().record(encodeNanos);
+
+                        if (timed) {
+                            ctx.response().putHeader(ServerTiming.HEADER,
+                                    ServerTiming.format(validateNanos, timings, encodeNanos));
+                        }
 
                         ctx.response()
                                 .setStatusCode(200)
                                 .putHeader("Content-Type", "application/json")
-                                .end(Json.encode(res));
+                                .end(encoded);
                     })
                     .onFailure(err -> {
+                        if (timed) {
+                            ctx.response().putHeader(ServerTiming.HEADER,
+                                    ServerTiming.format(validateNanos, timings, -1));
+                        }
+
+                        if (err instanceof CircuitOpenException) {
+                            logger.warn("Calculation rejected: {}", err.getMessage());
+                            sendError(ctx, 503, "Service temporarily unavailable");
+                            return;
+                        }
+
+                        if (err instanceof DeadlineExceededException) {
+                            logger.warn("Calculation abandoned: {}", err.getMessage());
+                            sendError(ctx, 504, "Request deadline exceeded");
+                            return;
+                        }
+
+                        if (err instanceof ArithmeticException) {
+                            logger.warn("Quote out of range: {}", err.getMessage());
+                            sendError(ctx, 422, OUT_OF_RANGE);
+                            return;
+                        }
+
                         logger.error("Calculation failed", err);
 
                         if (err instanceof IllegalArgumentException) {
@@ -217,7 +410,7 @@ public class PointsQuoteVerticle extends AbstractVerticle {
                     });
 
         } catch (IllegalArgumentException e) {
-            logger.warn("Validation error: {}", e.getMessage());
+            logger.warn("Invalid request: {}", e.getMessage());
             sendError(ctx, 400, e.getMessage());
 
         } catch (Exception e) {
@@ -228,37 +421,296 @@ public class PointsQuoteVerticle extends AbstractVerticle {
 
 
     /**
-     * Creates a WebClient instance from a base URL.
+     * Completes and commits the flight recorder event of a quote request
+     * if the recording accepts it.
+     *
+     * @param event the request's event
+     * @param timings downstream lookup durations of the request
+     * @param status HTTP status code of the response
+     */
+    private static void commitQuoteEvent(QuoteEvent event, QuoteTimings timings, int status) {
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.status = status;
+            event.outcome = QuoteEvent.outcomeOf(status);
+            event.fxDuration = timings.fxNanos();
+            event.promoDuration = timings.promoNanos();
+            event.commit();
+        }
+    }
+
+    /**
+     * Admits a quote request through the adaptive concurrency limiter.
+     *
+     * Rejected requests receive 503 with a Retry-After header immediately.
+     * Admitted requests release their slot when the response ends, feeding
+     * the observed latency and outcome back into the limiter. Client
+     * errors (4xx) and expired request deadlines (504) are not a load
+     * signal and release the slot without adjusting the limit.
      *
-     * Validates the URI,
-     * extracts host and port,
-     * applies default ports if missing,
-     * and enables SSL for HTTPS.
+     * The total request latency is recorded for every admitted request,
+     * and every request is offered to the access log.
      *
-     * @param baseUrl service base URL
-     * @return configured WebClient
+     * @param ctx routing context
+     * @param limiter shared concurrency limiter
+     * @param stages pipeline stage histograms
+     * @param accessLog access log of the quote endpoint
      */
-    // Safe WebClient Creator
-    private WebClient createWebClient(String baseUrl) {
+    private void admit(RoutingContext ctx, AdaptiveConcurrencyLimiter limiter, QuoteStageMetrics stages,
+                       AccessLog accessLog) {
+
+        if (!limiter.tryAcquire()) {
+            ctx.response().putHeader("Retry-After", String.valueOf(limiter.retryAfterSeconds()));
+            sendError(ctx, 503, "Service overloaded, retry later");
+            accessLog.record(503, 0, null);
+            return;
+        }
+
+        long startNanos = System.nanoTime();
 
-        URI uri = URI.create(baseUrl);
+        ctx.addEndHandler(ar -> {
+            long latencyNanos = System.nanoTime() - startNanos;
+            int status = ctx.response().getStatusCode();
+            stages.total().record(latencyNanos);
+            if (ar.succeeded() && (status == 504 || status >= 400 && status < 500)) {
+                limiter.releaseIgnored();
+            } else {
+                limiter.release(latencyNanos, ar.succeeded() && status < 500);
+            }
+            accessLog.record(status, latencyNanos, ctx.get(REQUEST_KEY));
+        });
+
+        ctx.next();
+    }
 
-        if (uri.getHost() == null) {
-            throw new IllegalArgumentException("Invalid service URL: " + baseUrl);
+    /**
+     * Processes a batch of loyalty points quote requests.
+     *
+     * The body must be a JSON array of quote requests. Each item is
+     * validated independently; valid items are calculated together
+     * so that every distinct currency and promo code is looked up
+     * only once.
+     *
+     * Response format (same order as the request):
+     * {
+     *   "results": [
+     *     { "status": 200, "quote": { ... } },
+     *     { "status": 400, "error": "<message>", "errors": [ "<message>", ... ] }
+     *   ]
+     * }
+     *
+     * The deadline headers accepted by the single quote endpoint apply
+     * to the batch as a whole.
+     *
+     * Returns:
+     * 200 - Batch processed (per-item status in the body)
+     * 400 - Body is not a non-empty array within the size limit,
+     *       or invalid deadline header
+     * 504 - Request deadline reached before the batch was calculated
+     * 500 - Unexpected internal error
+     *
+     * @param ctx routing context
+     * @param validator validator of the current configuration, shared by every item
+     * @param calculator points calculation service
+     * @param maxItems maximum number of requests accepted in one batch
+     */
+    private void handleBatchQuoteRequest(RoutingContext ctx,
+                                         RequestValidator validator,
+                                         PointsCalculator calculator,
+                                         int maxItems) {
+
+        try {
+            Deadline deadline;
+
+            try {
+                deadline = requestDeadline(ctx);
+            } catch (IllegalArgumentException e) {
+                sendError(ctx, 400, e.getMessage());
+                return;
+            }
+
+            JsonArray body;
+
+            try {
+                body = ctx.body().asJsonArray();
+            } catch (DecodeException | ClassCastException e) {
+                sendError(ctx, 400, "Request body must be a JSON array");
+                return;
+            }
+
+            if (body == null || body.isEmpty()) {
+                sendError(ctx, 400, "Batch must contain at least one request");
+                return;
+            }
+
+            if (body.size() > maxItems) {
+                sendError(ctx, 400, "Batch size exceeds maximum allowed");
+                return;
+            }
+
+            JsonObject[] items = new JsonObject[body.size()];
+            List<QuoteRequest> valid = new ArrayList<>(body.size());
+            List<Integer> validIndexes = new ArrayList<>(body.size());
+
+            for (int i = 0; i < body.size(); i++) {
+                try {
+                    if (!(body.getValue(i) instanceof JsonObject item)) {
+                        items[i] = batchError(400, "Request must be a JSON object");
+                        continue;
+                    }
+
+                    QuoteRequest request = item.mapTo(QuoteRequest.class);
+                    int violations = validator.check(request);
+
+                    if (violations != 0) {
+                        items[i] = batchError(400, ValidationError.first(violations).message())
+                                .put("errors", new JsonArray(ValidationError.messages(violations)));
+                        continue;
+                    }
+
+                    valid.add(request);
+                    validIndexes.add(i);
+
+                } catch (IllegalArgumentException e) {
+                    items[i] = batchError(400, e.getMessage());
+                }
+            }
+
+            if (deadline.isExpired()) {
+                sendError(ctx, 504, "Request deadline exceeded");
+                return;
+            }
+
+            calculator.calculateBatch(valid, deadline)
+                    .onSuccess(results -> {
+                        for (int i = 0; i < results.size(); i++) {
+                            AsyncResult<QuoteResponse> result = results.get(i);
+
+                            if (result.succeeded()) {
+                                items[validIndexes.get(i)] = new JsonObject()
+                                        .put("status", 200)
+                                        .put("quote", JsonObject.mapFrom(result.result()));
+                            } else if (result.cause() instanceof DeadlineExceededException) {
+                                items[validIndexes.get(i)] = batchError(504, "Request deadline exceeded");
+                            } else if (result.cause() instanceof ArithmeticException) {
+                                items[validIndexes.get(i)] = batchError(422, OUT_OF_RANGE);
+                            } else {
+                                items[validIndexes.get(i)] = batchError(503, "Service temporarily unavailable");
+                            }
+                        }
+
+                        logger.debug("Batch calculated | items={} | valid={}", items.length, valid.size());
+
+                        ctx.response()
+                                .setStatusCode(200)
+                                .putHeader("Content-Type", "application/json")
+                                .end(new JsonObject()
+                                        .put("results", new JsonArray(List.of(items)))
+                                        .encode());
+                    })
+                    .onFailure(err -> {
+                        logger.error("Batch calculation failed", err);
+                        sendError(ctx, 500, "Internal server error");
+                    });
+
+        } catch (Exception e) {
+            logger.error("Unexpected error while processing batch request", e);
+            sendError(ctx, 500, "Internal server error");
         }
+    }
+
+    /**
+     * Resolves the deadline of a request from its headers.
+     *
+     * - X-Request-Timeout-Ms: time budget in milliseconds from now
+     * - X-Request-Deadline: absolute deadline in epoch milliseconds
+     *
+     * When both are present the earliest applies; when neither is
+     * present the request has no deadline.
+     *
+     * @param ctx routing context
+     * @return the request deadline
+     * @throws IllegalArgumentException if a header is not a valid number
+     */
+    private Deadline requestDeadline(RoutingContext ctx) {
+
+        Deadline deadline = Deadline.NONE;
 
-        int port = uri.getPort();
+        String timeout = ctx.request().getHeader(TIMEOUT_HEADER);
+        if (timeout != null) {
+            long budgetMs = parseHeader(timeout, TIMEOUT_HEADER);
+            if (budgetMs < 0) {
+                throw new IllegalArgumentException("Invalid " + TIMEOUT_HEADER + " header");
+            }
+            deadline = Deadline.after(budgetMs);
+        }
 
-        if (port == -1) {
-            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        String absolute = ctx.request().getHeader(DEADLINE_HEADER);
+        if (absolute != null) {
+            deadline = deadline.earliest(Deadline.at(parseHeader(absolute, DEADLINE_HEADER)));
         }
 
-        WebClientOptions options = new WebClientOptions()
-                .setDefaultHost(uri.getHost())
-                .setDefaultPort(port)
-                .setSsl("https".equalsIgnoreCase(uri.getScheme()));
+        return deadline;
+    }
+
+    private static long parseHeader(String value, String name) {
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid " + name + " header");
+        }
+    }
 
-        return WebClient.create(vertx, options);
+    /**
+     * Builds a per-item error entry for a batch response.
+     *
+     * @param status HTTP status code describing the item outcome
+     * @param message error message
+     * @return the batch item JSON
+     */
+    private JsonObject batchError(int status, String message) {
+        return new JsonObject()
+                .put("status", status)
+                .put("error", message);
+    }
+
+    /**
+     * Sends a 400 response listing every rule the request violates.
+     *
+     * Response format:
+     * {
+     *   "status": 400,
+     *   "error": "<first message>",
+     *   "errors": [ "<message>", ... ]
+     * }
+     *
+     * @param ctx routing context
+     * @param violations non-zero violation mask of the request
+     */
+    private void sendValidationError(RoutingContext ctx, int violations) {
+
+        JsonObject error = new JsonObject()
+                .put("status", 400)
+                .put("error", ValidationError.first(violations).message())
+                .put("errors", new JsonArray(ValidationError.messages(violations)));
+
+        ctx.response()
+                .setStatusCode(400)
+                .putHeader("Content-Type", "application/json")
+                .end(error.encode());
+    }
+
+    /**
+     * Checks that the request declares a JSON Content-Type.
+     *
+     * @param ctx routing context
+     * @return true if the request may be parsed as JSON
+     */
+    private boolean isJsonRequest(RoutingContext ctx) {
+        return ctx.request().isExpectMultipart() ||
+                (ctx.parsedHeaders().contentType() != null &&
+                        ctx.parsedHeaders().contentType().value().contains("application/json"));
     }
 
     /**
@@ -0,0 +1,453 @@
+package com.airline.loyalty.points.api;
+
+import com.airline.loyalty.points.model.CabinClass;
+import com.airline.loyalty.points.model.QuoteRequest;
+import com.airline.loyalty.points.model.QuoteResponse;
+import com.airline.loyalty.points.model.Tier;
+import com.airline.loyalty.points.validation.RequestValidator;
+import com.airline.loyalty.points.validation.ValidationError;
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import io.vertx.core.buffer.Buffer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Dedicated JSON codec for the quote hot path.
+ *
+ * Replaces the generic Buffer → JsonObject → mapTo(QuoteRequest) → Json.encode
+ * chain, which builds three object graphs per request, with:
+ * - A streaming parse of QuoteRequest directly from the request Buffer
+ * - A streaming write of QuoteResponse directly into an output Buffer
+ *
+ * The JsonFactory is shared; Jackson recycles its parse and generate
+ * buffers per thread, so each call only allocates thin parser/generator
+ * shells. Field names are written from pre-encoded UTF-8 constants and
+ * known warnings from interned, pre-encoded strings. Enum values are
+ * matched against constant tables, and currencies against the supported
+ * codes of the current {@link RequestValidator}, without creating Strings.
+ *
+ * Decoding rules mirror the previous Jackson data binding:
+ * - Unknown fields are rejected
+ * - Missing or null fareAmount defaults to 0 (rejected later by validation)
+ * - Numeric strings are accepted for fareAmount
+ *
+ * Invalid values do not throw: a fareAmount that is not a number decodes
+ * to NaN, an unknown cabin class or customer tier to null, and an unknown
+ * field sets {@link ValidationError#UNRECOGNIZED_FIELD} in
+ * {@link QuoteRequest#decodeErrors()}, so {@link RequestValidator#check}
+ * reports them together with every other violation. Only bodies that are
+ * not a JSON object are reported as IllegalArgumentException, which the
+ * HTTP layer maps to 400.
+ */
+public final class QuoteCodec {
+
+    private static final JsonFactory FACTORY = new JsonFactory();
+
+    private static final SerializableString BASE_POINTS = new SerializedString("basePoints");
+    private static final SerializableString TIER_BONUS = new SerializedString("tierBonus");
+    private static final SerializableString PROMO_BONUS = new SerializedString("promoBonus");
+    private static final SerializableString TOTAL_POINTS = new SerializedString("totalPoints");
+    private static final SerializableString EFFECTIVE_FX_RATE = new SerializedString("effectiveFxRate");
+    private static final SerializableString WARNINGS = new SerializedString("warnings");
+
+    private static final String[] KNOWN_WARNINGS = {
+            "PROMO_EXPIRES_SOON",
+            "PROMO_EXPIRED"
+    };
+
+    private static final SerializableString[] ENCODED_WARNINGS = encodeAll(KNOWN_WARNINGS);
+
+    private static final CabinClass[] CABIN_CLASSES = CabinClass.values();
+    private static final String[] CABIN_NAMES = namesOf(CABIN_CLASSES);
+
+    private static final Tier[] TIERS = Tier.values();
+    private static final String[] TIER_NAMES = namesOf(TIERS);
+
+    private static final int RESPONSE_SIZE_HINT = 160;
+
+    private QuoteCodec() {
+    }
+
+    /**
+     * Parses a QuoteRequest directly from a request body.
+     *
+     * @param body the raw request body (may be null)
+     * @param validator validator of the current configuration; a
+     *                  supported currency is returned as its shared instance
+     * @return the parsed request, or null if the body is empty
+     * @throws IllegalArgumentException if the body is not a JSON object
+     */
+    public static QuoteRequest decodeRequest(Buffer body, RequestValidator validator) {
+
+        if (body == null || body.length() == 0) {
+            return null;
+        }
+
+        try (JsonParser parser = FACTORY.createParser(new BufferInputStream(body))) {
+
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IllegalArgumentException("Request body must be a JSON object");
+            }
+
+            double fareAmount = 0;
+            String currency = null;
+            CabinClass cabinClass = null;
+            Tier customerTier = null;
+            String promoCode = null;
+            int decodeErrors = 0;
+
+            JsonToken token;
+
+            while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                switch (field) {
+                    case "fareAmount" -> fareAmount = readDouble(parser, value);
+                    case "currency" -> currency = readCurrency(parser, value, validator);
+                    case "cabinClass" -> cabinClass = readEnum(parser, value, CABIN_NAMES, CABIN_CLASSES);
+                    case "customerTier" -> customerTier = readEnum(parser, value, TIER_NAMES, TIERS);
+                    case "promoCode" -> promoCode = readText(parser, value);
+                    default -> {
+                        parser.skipChildren();
+                        decodeErrors |= ValidationError.UNRECOGNIZED_FIELD.bit();
+                    }
+                }
+            }
+
+            if (token != JsonToken.END_OBJECT || parser.nextToken() != null) {
+                throw new IllegalArgumentException("Invalid JSON body");
+            }
+
+            return new QuoteRequest(fareAmount, currency, cabinClass, customerTier, promoCode, decodeErrors);
+
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid JSON body");
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a QuoteResponse directly into a new Buffer.
+     * The output is identical to Json.encode(response).
+     *
+     * @param response the calculated quote
+     * @return a Buffer containing the JSON encoded response
+     */
+    public static Buffer encodeResponse(QuoteResponse response) {
+
+        Buffer out = Buffer.buffer(RESPONSE_SIZE_HINT);
+
+        try (JsonGenerator gen = FACTORY.createGenerator(new BufferOutputStream(out), JsonEncoding.UTF8)) {
+
+            gen.writeStartObject();
+
+            gen.writeFieldName(BASE_POINTS);
+            gen.writeNumber(response.basePoints());
+            gen.writeFieldName(TIER_BONUS);
+            gen.writeNumber(response.tierBonus());
+            gen.writeFieldName(PROMO_BONUS);
+            gen.writeNumber(response.promoBonus());
+            gen.writeFieldName(TOTAL_POINTS);
+            gen.writeNumber(response.totalPoints());
+            gen.writeFieldName(EFFECTIVE_FX_RATE);
+            gen.writeNumber(response.effectiveFxRate());
+
+            gen.writeFieldName(WARNINGS);
+            writeWarnings(gen, response.warnings());
+
+            gen.writeEndObject();
+
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return out;
+    }
+
+    private static void writeWarnings(JsonGenerator gen, List<String> warnings) throws IOException {
+
+        if (warnings == null) {
+            gen.writeNull();
+            return;
+        }
+
+        gen.writeStartArray();
+
+        for (int i = 0; i < warnings.size(); i++) {
+            String warning = warnings.get(i);
+            int known = indexOf(KNOWN_WARNINGS, warning);
+
+            if (known >= 0) {
+                gen.writeString(ENCODED_WARNINGS[known]);
+            } else {
+                gen.writeString(warning);
+            }
+        }
+
+        gen.writeEndArray();
+    }
+
+    /**
+     * @return the fare amount, 0 if null, or NaN if it is not a number
+     */
+    private static double readDouble(JsonParser parser, JsonToken value) throws IOException {
+
+        if (value == JsonToken.VALUE_NUMBER_INT || value == JsonToken.VALUE_NUMBER_FLOAT) {
+            return parser.getDoubleValue();
+        }
+
+        if (value == JsonToken.VALUE_NULL) {
+            return 0;
+        }
+
+        if (value == JsonToken.VALUE_STRING && isNumber(parser)) {
+            return Double.parseDouble(parser.getText().trim());
+        }
+
+        parser.skipChildren();
+        return Double.NaN;
+    }
+
+    /**
+     * Checks that the current string token is a plain decimal number,
+     * optionally signed, with a fraction and an exponent, so that parsing
+     * it cannot fail.
+     */
+    private static boolean isNumber(JsonParser parser) throws IOException {
+
+        char[] chars = parser.getTextCharacters();
+        int i = parser.getTextOffset();
+        int end = i + parser.getTextLength();
+
+        while (i < end && chars[i] <= ' ') {
+            i++;
+        }
+        while (end > i && chars[end - 1] <= ' ') {
+            end--;
+        }
+
+        if (i < end && (chars[i] == '+' || chars[i] == '-')) {
+            i++;
+        }
+
+        int digits = 0;
+        while (i < end && isDigit(chars[i])) {
+            i++;
+            digits++;
+        }
+
+        if (i < end && chars[i] == '.') {
+            i++;
+            while (i < end && isDigit(chars[i])) {
+                i++;
+                digits++;
+            }
+        }
+
+        if (digits == 0) {
+            return false;
+        }
+
+        if (i < end && (chars[i] == 'e' || chars[i] == 'E')) {
+            i++;
+            if (i < end && (chars[i] == '+' || chars[i] == '-')) {
+                i++;
+            }
+            int exponentDigits = 0;
+            while (i < end && isDigit(chars[i])) {
+                i++;
+                exponentDigits++;
+            }
+            if (exponentDigits == 0) {
+                return false;
+            }
+        }
+
+        return i == end;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static String readText(JsonParser parser, JsonToken value) throws IOException {
+
+        if (value == JsonToken.VALUE_NULL) {
+            return null;
+        }
+
+        if (value == JsonToken.VALUE_STRING) {
+            return parser.getText();
+        }
+
+        if (value.isScalarValue()) {
+            return parser.getValueAsString();
+        }
+
+        throw new IllegalArgumentException("Invalid JSON body");
+    }
+
+    /**
+     * Reads a currency value, returning the validator's shared instance
+     * when it is a supported code.
+     */
+    private static String readCurrency(JsonParser parser, JsonToken value,
+                                       RequestValidator validator) throws IOException {
+
+        if (value == JsonToken.VALUE_STRING) {
+            String code = validator.supportedCurrency(
+                    parser.getTextCharacters(), parser.getTextOffset(), parser.getTextLength());
+
+            if (code != null) {
+                return code;
+            }
+        }
+
+        return readText(parser, value);
+    }
+
+    /**
+     * @return the matching constant, or null if the value is null or
+     *         not one of the names, which validation then reports
+     */
+    private static <E extends Enum<E>> E readEnum(JsonParser parser, JsonToken value,
+                                                  String[] names, E[] constants) throws IOException {
+
+        if (value == JsonToken.VALUE_STRING) {
+            int index = match(parser, names);
+            return index >= 0 ? constants[index] : null;
+        }
+
+        parser.skipChildren();
+        return null;
+    }
+
+    /**
+     * Matches the current string token against candidate values
+     * using the parser's character buffer, without creating a String.
+     *
+     * @return index of the matching candidate, or -1
+     */
+    private static int match(JsonParser parser, String[] candidates) throws IOException {
+
+        char[] chars = parser.getTextCharacters();
+        int offset = parser.getTextOffset();
+        int length = parser.getTextLength();
+
+        for (int c = 0; c < candidates.length; c++) {
+            String candidate = candidates[c];
+
+            if (candidate.length() != length) {
+                continue;
+            }
+
+            int i = 0;
+            while (i < length && chars[offset + i] == candidate.charAt(i)) {
+                i++;
+            }
+
+            if (i == length) {
+                return c;
+            }
+        }
+
+        return -1;
+    }
+
+    private static int indexOf(String[] values, String value) {
+        for (int i = 0; i < values.length; i++) {
+            if (values[i].equals(value)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static SerializableString[] encodeAll(String[] values) {
+        SerializableString[] encoded = new SerializableString[values.length];
+        for (int i = 0; i < values.length; i++) {
+            encoded[i] = new SerializedString(values[i]);
+            encoded[i].asQuotedUTF8();
+        }
+        return encoded;
+    }
+
+    private static String[] namesOf(Enum<?>[] constants) {
+        String[] names = new String[constants.length];
+        for (int i = 0; i < constants.length; i++) {
+            names[i] = constants[i].name();
+        }
+        return names;
+    }
+
+    /**
+     * Exposes a Vert.x Buffer to Jackson without copying it into
+     * an intermediate byte array.
+     */
+    private static final class BufferInputStream extends InputStream {
+
+        private final Buffer buffer;
+        private int position;
+
+        private BufferInputStream(Buffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return position < buffer.length() ? buffer.getByte(position++) & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] dst, int off, int len) {
+
+            int remaining = buffer.length() - position;
+
+            if (remaining <= 0) {
+                return -1;
+            }
+
+            int count = Math.min(len, remaining);
+            buffer.getBytes(position, position + count, dst, off);
+            position += count;
+
+            return count;
+        }
+    }
+
+    /**
+     * Lets Jackson write straight into a Vert.x Buffer.
+     */
+    private static final class BufferOutputStream extends OutputStream {
+
+        private final Buffer buffer;
+
+        private BufferOutputStream(Buffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public void write(int b) {
+            buffer.appendByte((byte) b);
+        }
+
+        @Override
+        public void write(byte[] src, int off, int len) {
+            buffer.appendBytes(src, off, len);
+        }
+    }
+}
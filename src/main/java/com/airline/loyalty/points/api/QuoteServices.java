@@ -0,0 +1,568 @@
+package com.airline.loyalty.points.api;
+
+import com.airline.loyalty.points.accesslog.AccessLog;
+import com.airline.loyalty.points.config.ConfigWatcher;
+import com.airline.loyalty.points.config.ServiceConfig;
+import com.airline.loyalty.points.metrics.MetricsRegistry;
+import com.airline.loyalty.points.metrics.QuoteStageMetrics;
+import com.airline.loyalty.points.resilience.AdaptiveConcurrencyLimiter;
+import com.airline.loyalty.points.resilience.CircuitBreaker;
+import com.airline.loyalty.points.service.FxRateClient;
+import com.airline.loyalty.points.service.FxRateSnapshotRefresher;
+import com.airline.loyalty.points.service.FxRateSource;
+import com.airline.loyalty.points.service.MappedFxRateTable;
+import com.airline.loyalty.points.service.PointsCalculator;
+import com.airline.loyalty.points.service.PromoCatalog;
+import com.airline.loyalty.points.service.PromoCodeFilter;
+import com.airline.loyalty.points.service.WarmStartSnapshot;
+import com.airline.loyalty.points.validation.RequestValidator;
+import com.airline.loyalty.points.service.PromoClient;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import io.vertx.core.shareddata.LocalMap;
+import io.vertx.core.shareddata.Shareable;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.net.URI;
+import java.util.Set;
+
+/**
+ * Holds the service objects shared by every PointsQuoteVerticle instance
+ * deployed in the same Vert.x instance.
+ *
+ * When the verticle is deployed with several instances (one per event loop),
+ * each instance handles requests on its own event loop but they all use:
+ * - The same FX rate source: either the FX WebClient with its rate cache
+ *   and in-flight request coalescing, or the memory-mapped rate table
+ * - The same Promo WebClient (and its connection pool)
+ * - The same promo catalog, promo code filter and promo cache
+ * - The same PointsCalculator
+ * - The same adaptive concurrency limiter, so the in-flight limit
+ *   applies to the whole process rather than per event loop
+ * - The same metrics registry and pipeline stage histograms
+ * - The same access log and its writer thread
+ * - The same warm-up, so the synthetic quote mix is replayed once per process
+ *
+ * The first instance to start creates the services from its configuration,
+ * seeding the caches from the warm-start snapshot if one is configured;
+ * the others reuse them through a Vert.x local shared map. The last
+ * instance to stop closes them: the warm-start snapshot is written one
+ * last time and its timer cancelled, the config watcher, FX snapshot
+ * refresher and file reload timers stop, and the access log writer stops.
+ *
+ * When the "reload" block names the configuration file, changes to it
+ * are applied without a restart (see {@link ServiceConfig} for the
+ * settings concerned). Each component swaps in an immutable snapshot of
+ * its new settings with one volatile write, so a request sees either
+ * the old or the new settings of a component, never a mix. A WebClient
+ * (and its connection pool) is only replaced when its base URL changes.
+ *
+ * All shared objects are thread-safe.
+ */
+public final class QuoteServices implements Shareable {
+
+    private static final Logger logger = LoggerFactory.getLogger(QuoteServices.class);
+
+    private static final String SHARED_MAP = "loyalty.services";
+    private static final String KEY = "quote-services";
+
+    // Delay before closing a replaced WebClient, so in-flight calls can complete
+    private static final long CLIENT_CLOSE_DELAY_MS = 30_000;
+
+    private final Vertx vertx;
+    private final FxRateSource fxRateSource;
+    private final PromoClient promoClient;
+    private final PointsCalculator calculator;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final AccessLog accessLog;
+    private final WarmUp warmUp;
+    private final WarmStartSnapshot warmStart;
+    private final QuoteStageMetrics stageMetrics = new QuoteStageMetrics();
+    private final MetricsRegistry metrics = new MetricsRegistry();
+
+    private volatile ServiceConfig config;
+    private volatile ConfigWatcher configWatcher;
+
+    // Verticle instances using these services, guarded by the shared map
+    private int users;
+
+    private QuoteServices(Vertx vertx,
+                          ServiceConfig config,
+                          FxRateSource fxRateSource,
+                          PromoClient promoClient,
+                          PointsCalculator calculator,
+                          AdaptiveConcurrencyLimiter limiter,
+                          AccessLog accessLog,
+                          WarmUp warmUp,
+                          WarmStartSnapshot warmStart) {
+        this.vertx = vertx;
+        this.config = config;
+        this.fxRateSource = fxRateSource;
+        this.promoClient = promoClient;
+        this.calculator = calculator;
+        this.limiter = limiter;
+        this.accessLog = accessLog;
+        this.warmUp = warmUp;
+        this.warmStart = warmStart;
+        registerMetrics();
+    }
+
+    /**
+     * Returns the services shared by all verticle instances of the given
+     * Vert.x instance, creating them on first use. Every call must be
+     * matched by a call to {@link #release()}.
+     *
+     * Creating the services reads the warm-start snapshot and other
+     * local files. Blocking; must not be called on an event loop.
+     *
+     * @param vertx the Vert.x instance
+     * @param config the service configuration
+     * @return the shared services
+     */
+    public static QuoteServices shared(Vertx vertx, JsonObject config) {
+        LocalMap<String, QuoteServices> map = vertx.sharedData().getLocalMap(SHARED_MAP);
+
+        synchronized (map) {
+            QuoteServices services = map.computeIfAbsent(KEY, key -> create(vertx, config));
+            services.users++;
+            return services;
+        }
+    }
+
+    /**
+     * Releases services obtained from {@link #shared}; the last release
+     * closes them on a worker thread.
+     *
+     * @return a Future completed once the services are released or closed
+     */
+    public Future<Void> release() {
+        LocalMap<String, QuoteServices> map = vertx.sharedData().getLocalMap(SHARED_MAP);
+
+        synchronized (map) {
+            if (--users > 0) {
+                return Future.succeededFuture();
+            }
+            map.remove(KEY);
+        }
+
+        return vertx.executeBlocking(() -> {
+            close();
+            return null;
+        }, false);
+    }
+
+    /**
+     * Stops the config watcher, the FX snapshot refresher and the file
+     * reload timers, writes the last warm-start snapshot, cancelling its
+     * timer, and stops the access log writer. Blocking.
+     */
+    private void close() {
+
+        ConfigWatcher watcher = configWatcher;
+
+        if (watcher != null) {
+            watcher.close(vertx);
+        }
+
+        if (fxRateSource instanceof FxRateSnapshotRefresher refresher) {
+            refresher.close();
+        }
+
+        if (fxRateSource instanceof MappedFxRateTable table) {
+            table.close(vertx);
+        }
+
+        promoClient.catalog().close(vertx);
+        promoClient.codeFilter().close(vertx);
+
+        if (warmStart != null) {
+            warmStart.close(vertx);
+        }
+
+        accessLog.close();
+
+        logger.info("Quote services closed");
+    }
+
+    /**
+     * Reads configuration for FX and Promo services
+     * and creates the clients and calculator.
+     *
+     * @param vertx the Vert.x instance
+     * @param json the service configuration
+     * @return newly created services
+     */
+    private static QuoteServices create(Vertx vertx, JsonObject json) {
+
+        // Read Structured Configuration
+        ServiceConfig config = ServiceConfig.fromJson(json);
+        ServiceConfig.PromoSettings promoSettings = config.promo();
+        JsonObject promoConfig = json.getJsonObject("promo", new JsonObject());
+
+        PromoCatalog promoCatalog = PromoCatalog.fromJson(vertx, promoConfig.getJsonObject("catalog"));
+        PromoCodeFilter promoCodeFilter = PromoCodeFilter.fromJson(vertx, promoConfig.getJsonObject("filter"));
+
+        logger.info("Promo Config | baseUrl={} | timeoutMs={} | expiryWarningDays={} | cache={}",
+                promoSettings.baseUrl(), promoSettings.timeoutMs(), promoSettings.expiryWarningDays(),
+                promoSettings.cachePolicy());
+
+        // Create WebClients Safely
+        WebClient promoClient = createWebClient(vertx, promoSettings.baseUrl());
+
+        // Initialize Services
+        FxRateSource fxRateSource = createFxRateSource(vertx, config);
+        PromoClient promo = new PromoClient(vertx, promoClient, promoSettings.timeoutMs(),
+                promoSettings.expiryWarningDays(), promoCatalog, promoCodeFilter, promoSettings.cachePolicy());
+
+        WarmStartSnapshot warmStart =
+                WarmStartSnapshot.start(vertx, fxRateClientOf(fxRateSource), promo, json.getJsonObject("warmStart"));
+
+        AdaptiveConcurrencyLimiter limiter =
+                AdaptiveConcurrencyLimiter.fromJson(json.getJsonObject("limiter"));
+
+        AccessLog accessLog = AccessLog.fromJson(json.getJsonObject("accessLog"));
+
+        PointsCalculator calculator = new PointsCalculator(fxRateSource, promo, config.earningTable());
+
+        WarmUp warmUp = WarmUp.fromJson(json.getJsonObject("warmUp"));
+
+        QuoteServices services =
+                new QuoteServices(vertx, config, fxRateSource, promo, calculator, limiter, accessLog, warmUp, warmStart);
+
+        warmUp.start(vertx, config, fxRateClientOf(fxRateSource), promo);
+
+        ConfigWatcher watcher = ConfigWatcher.fromJson(vertx, json.getJsonObject("reload"), services::reconfigure);
+
+        if (watcher != null) {
+            services.registerMetrics(watcher);
+        }
+
+        services.configWatcher = watcher;
+
+        return services;
+    }
+
+    /**
+     * Creates the FX rate source selected by "fx.source":
+     * - "http" (default): {@link FxRateClient} calling the FX service,
+     *   wrapped in an {@link FxRateSnapshotRefresher} when "fx.refresh"
+     *   is enabled
+     * - "mapped": {@link MappedFxRateTable} reading the treasury rate file
+     *
+     * @param vertx the Vert.x instance
+     * @param config the service configuration
+     * @return the FX rate source
+     */
+    private static FxRateSource createFxRateSource(Vertx vertx, ServiceConfig config) {
+
+        JsonObject fxConfig = config.json().getJsonObject("fx", new JsonObject());
+        String source = fxConfig.getString("source", "http");
+
+        if ("mapped".equals(source)) {
+            MappedFxRateTable table = MappedFxRateTable.fromJson(vertx, fxConfig.getJsonObject("mapped"));
+            logger.info("FX Config | source=mapped | version={}", table.version());
+            return table;
+        }
+
+        if (!"http".equals(source)) {
+            throw new IllegalArgumentException("Unknown FX source: " + source);
+        }
+
+        ServiceConfig.FxSettings fx = config.fx();
+        CircuitBreaker fxBreaker = CircuitBreaker.fromJson("fx", fxConfig.getJsonObject("circuitBreaker"));
+
+        logger.info("FX Config | source=http | baseUrl={} | timeoutMs={} | retry={} | cache={}",
+                fx.baseUrl(), fx.timeoutMs(), fx.backoff(), fx.cachePolicy());
+
+        WebClient fxClient = createWebClient(vertx, fx.baseUrl());
+
+        FxRateClient fxRateClient = new FxRateClient(vertx, fxClient, fx.path(), fx.timeoutMs(),
+                fx.backoff(), fxBreaker, fx.cachePolicy());
+
+        return FxRateSnapshotRefresher.fromJson(vertx, fxRateClient,
+                config.validator().supportedCurrencies(), fxConfig.getJsonObject("refresh"));
+    }
+
+    /**
+     * Applies a new configuration to the running services.
+     *
+     * Reloadable settings take effect for requests started afterwards;
+     * startup-only settings that changed are logged and ignored until
+     * the next restart.
+     *
+     * @param next the new configuration
+     */
+    public synchronized void reconfigure(ServiceConfig next) {
+
+        ServiceConfig previous = config;
+
+        Set<String> ignored = next.restartOnlyChanges(previous);
+
+        if (!ignored.isEmpty()) {
+            logger.warn("Config changes require a restart and were not applied | keys={}", ignored);
+        }
+
+        calculator.earningTable(next.earningTable());
+
+        FxRateClient fxClient = fxRateClientOf(fxRateSource);
+
+        if (fxClient != null) {
+            ServiceConfig.FxSettings fx = next.fx();
+            WebClient client = webClientFor(fxClient.webClient(), previous.fx().baseUrl(), fx.baseUrl());
+
+            fxClient.reconfigure(client, fx.path(), fx.timeoutMs(), fx.backoff(), fx.cachePolicy());
+        }
+
+        if (fxRateSource instanceof FxRateSnapshotRefresher refresher) {
+            refresher.currencies(next.validator().supportedCurrencies());
+        }
+
+        ServiceConfig.PromoSettings promo = next.promo();
+        WebClient client = webClientFor(promoClient.webClient(), previous.promo().baseUrl(), promo.baseUrl());
+
+        promoClient.reconfigure(client, promo.timeoutMs(), promo.expiryWarningDays(), promo.cachePolicy());
+
+        config = next;
+
+        logger.info("Config applied | currencies={} | pointsCap={} | fxBaseUrl={} | promoBaseUrl={}",
+                next.validator().supportedCurrencies(), next.earningTable().cap(),
+                next.fx().baseUrl(), promo.baseUrl());
+    }
+
+    /**
+     * Keeps the current WebClient if the base URL is unchanged; otherwise
+     * creates a new one and closes the current one once the calls it
+     * is serving had time to complete.
+     */
+    private WebClient webClientFor(WebClient current, String currentUrl, String nextUrl) {
+
+        if (currentUrl.equals(nextUrl)) {
+            return current;
+        }
+
+        WebClient next = createWebClient(vertx, nextUrl);
+        vertx.setTimer(CLIENT_CLOSE_DELAY_MS, id -> current.close());
+        return next;
+    }
+
+    /**
+     * Registers the stage histograms and every service counter
+     * with the metrics registry.
+     */
+    private void registerMetrics() {
+
+        stageMetrics.registerWith(metrics);
+
+        FxRateClient fxClient = fxRateClientOf(fxRateSource);
+
+        if (fxClient != null) {
+            CircuitBreaker breaker = fxClient.circuitBreaker();
+
+            metrics.summary("loyalty_fx_call_latency_seconds", "Latency of FX service calls", "", fxClient.callLatency())
+                    .counter("loyalty_fx_cache_hits_total", "FX lookups served from the cache", "", fxClient::cacheHits)
+                    .counter("loyalty_fx_cache_misses_total", "FX lookups needing an FX call", "", fxClient::cacheMisses)
+                    .counter("loyalty_fx_retries_total", "FX call retries", "", fxClient::retryCount)
+                    .counter("loyalty_fx_coalesced_total", "FX lookups joining an in-flight call", "",
+                            fxClient::coalescedCalls)
+                    .gauge("loyalty_fx_circuit_state", "FX circuit state (0 closed, 1 open, 2 half-open)", "",
+                            () -> breaker.state().ordinal())
+                    .counter("loyalty_fx_circuit_opened_total", "FX circuit transitions into OPEN", "",
+                            breaker::openedCount)
+                    .counter("loyalty_fx_circuit_half_opened_total", "FX circuit transitions into HALF_OPEN", "",
+                            breaker::halfOpenedCount)
+                    .counter("loyalty_fx_circuit_closed_total", "FX circuit transitions into CLOSED", "",
+                            breaker::closedCount)
+                    .counter("loyalty_fx_circuit_rejected_total", "FX calls rejected by the open circuit", "",
+                            breaker::rejectedCount);
+        }
+
+        if (fxRateSource instanceof FxRateSnapshotRefresher refresher) {
+            metrics.gauge("loyalty_fx_snapshot_age_seconds", "Age of the oldest rate in the FX snapshot (-1 if none)", "",
+                            () -> refresher.snapshotAgeMs() < 0 ? -1 : refresher.snapshotAgeMs() / 1000d)
+                    .counter("loyalty_fx_snapshot_refresh_failures_total", "FX snapshot refreshes with at least one failed currency", "",
+                            refresher::refreshFailures)
+                    .counter("loyalty_fx_snapshot_hits_total", "FX lookups served from the snapshot", "",
+                            refresher::snapshotHits);
+        }
+
+        if (fxRateSource instanceof MappedFxRateTable table) {
+            metrics.gauge("loyalty_fx_table_version", "Version of the mapped FX rate table", "", table::version)
+                    .gauge("loyalty_fx_table_age_seconds", "Time since the mapped FX rate table was published (-1 if none)", "",
+                            () -> table.ageMs() < 0 ? -1 : table.ageMs() / 1000d)
+                    .counter("loyalty_fx_table_reload_failures_total", "Failed FX rate table reloads", "",
+                            table::reloadFailures);
+        }
+
+        metrics.summary("loyalty_promo_call_latency_seconds", "Latency of Promotion Service calls", "",
+                        promoClient.callLatency())
+                .counter("loyalty_promo_cache_hits_total", "Promo lookups served from the cache", "",
+                        promoClient::cacheHits)
+                .counter("loyalty_promo_cache_misses_total", "Promo lookups not found in the cache", "",
+                        promoClient::cacheMisses)
+                .counter("loyalty_promo_cache_evictions_total", "Promo codes evicted from the full cache", "",
+                        promoClient::cacheEvictions)
+                .gauge("loyalty_promo_cache_size", "Promo codes currently cached", "", promoClient::cacheSize)
+                .counter("loyalty_promo_coalesced_total", "Promo lookups joining an in-flight call", "",
+                        promoClient::coalescedCalls)
+                .counter("loyalty_promo_catalog_hits_total", "Promo lookups answered by the local catalog", "",
+                        promoClient.catalog()::hits)
+                .gauge("loyalty_promo_catalog_size", "Promotions in the local catalog", "",
+                        promoClient.catalog()::size)
+                .counter("loyalty_promo_filter_rejected_total", "Promo codes rejected by the code filter", "",
+                        promoClient.codeFilter()::rejected)
+                .counter("loyalty_promo_filter_false_positives_total",
+                        "Promo codes passing the filter but unknown to the Promotion Service", "",
+                        promoClient.codeFilter()::falsePositives)
+                .gauge("loyalty_promo_filter_expected_fpp", "Expected false positive rate of the code filter", "",
+                        promoClient.codeFilter()::expectedFalsePositiveRate)
+                .gauge("loyalty_promo_filter_observed_fpp", "Observed false positive rate of the code filter", "",
+                        promoClient.codeFilter()::observedFalsePositiveRate)
+                .gauge("loyalty_promo_filter_memory_bytes", "Memory used by the code filter", "",
+                        promoClient.codeFilter()::memoryBytes);
+
+        metrics.gauge("loyalty_limiter_limit", "Current adaptive concurrency limit", "", limiter::limit)
+                .gauge("loyalty_limiter_in_flight", "Quote requests currently admitted", "", limiter::inFlight)
+                .counter("loyalty_limiter_rejected_total", "Quote requests rejected by the limiter", "",
+                        limiter::rejected);
+
+        metrics.gauge("loyalty_warmup_ready", "1 once warm-up finished or timed out", "",
+                        () -> warmUp.ready() ? 1 : 0)
+                .counter("loyalty_warmup_iterations_total", "Synthetic quotes replayed during warm-up", "",
+                        warmUp::iterations)
+                .gauge("loyalty_warmup_duration_seconds", "Duration of warm-up (-1 while running)", "",
+                        () -> warmUp.durationNanos() < 0 ? -1 : warmUp.durationNanos() / 1e9);
+
+        if (accessLog.enabled()) {
+            metrics.counter("loyalty_access_log_written_total", "Access log records written", "",
+                            accessLog::written)
+                    .counter("loyalty_access_log_dropped_total", "Access log records dropped on a full buffer", "",
+                            accessLog::dropped);
+        }
+    }
+
+    /**
+     * Registers the configuration reload counters with the metrics registry.
+     *
+     * @param watcher the configuration file watcher
+     */
+    private void registerMetrics(ConfigWatcher watcher) {
+        metrics.counter("loyalty_config_reloads_total", "Configuration changes applied", "",
+                        watcher::reloads)
+                .counter("loyalty_config_reload_failures_total", "Configuration changes rejected", "",
+                        watcher::reloadFailures);
+    }
+
+    /**
+     * @param source the configured FX rate source
+     * @return the FX service client behind the source, or null if rates
+     *         do not come from the FX service
+     */
+    private static FxRateClient fxRateClientOf(FxRateSource source) {
+        if (source instanceof FxRateSnapshotRefresher refresher) {
+            return refresher.delegate();
+        }
+        return source instanceof FxRateClient client ? client : null;
+    }
+
+    /**
+     * Creates a WebClient instance from a base URL.
+     *
+     * Validates the URI,
+     * extracts host and port,
+     * applies default ports if missing,
+     * and enables SSL for HTTPS.
+     *
+     * @param vertx the Vert.x instance
+     * @param baseUrl service base URL
+     * @return configured WebClient
+     */
+    // Safe WebClient Creator
+    private static WebClient createWebClient(Vertx vertx, String baseUrl) {
+
+        URI uri = URI.create(baseUrl);
+
+        if (uri.getHost() == null) {
+            throw new IllegalArgumentException("Invalid service URL: " + baseUrl);
+        }
+
+        int port = uri.getPort();
+
+        if (port == -1) {
+            port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        }
+
+        WebClientOptions options = new WebClientOptions()
+                .setDefaultHost(uri.getHost())
+                .setDefaultPort(port)
+                .setSsl("https".equalsIgnoreCase(uri.getScheme()));
+
+        return WebClient.create(vertx, options);
+    }
+
+    /**
+     * @return the validator of the current configuration
+     */
+    public RequestValidator validator() {
+        return config.validator();
+    }
+
+    /**
+     * @return the shared FX rate source
+     */
+    public FxRateSource fxRateSource() {
+        return fxRateSource;
+    }
+
+    /**
+     * @return the shared promo client
+     */
+    public PromoClient promoClient() {
+        return promoClient;
+    }
+
+    /**
+     * @return the shared points calculator
+     */
+    public PointsCalculator calculator() {
+        return calculator;
+    }
+
+    /**
+     * @return the shared pipeline stage histograms
+     */
+    public QuoteStageMetrics stageMetrics() {
+        return stageMetrics;
+    }
+
+    /**
+     * @return the shared metrics registry
+     */
+    public MetricsRegistry metrics() {
+        return metrics;
+    }
+
+    /**
+     * @return the shared concurrency limiter for the quote endpoint
+     */
+    public AdaptiveConcurrencyLimiter limiter() {
+        return limiter;
+    }
+
+    /**
+     * @return the warm-up that gates readiness
+     */
+    WarmUp warmUp() {
+        return warmUp;
+    }
+
+    /**
+     * @return the shared access log of the quote endpoint
+     */
+    public AccessLog accessLog() {
+        return accessLog;
+    }
+}
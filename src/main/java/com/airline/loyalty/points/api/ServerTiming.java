@@ -0,0 +1,114 @@
+package com.airline.loyalty.points.api;
+
+import com.airline.loyalty.points.service.QuoteTimings;
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Builds the Server-Timing response header of sampled quote requests.
+ *
+ * Example:
+ * Server-Timing: validate;dur=0.012, fx;desc="hit";dur=0.004,
+ *                promo;desc="miss";dur=3.817, calc;dur=0.009, encode;dur=0.021
+ *
+ * Entries:
+ * - validate: RequestValidator.check
+ * - fx: FX rate lookup, "hit" when served from memory, "miss" otherwise
+ * - promo: promo terms lookup, annotated the same way
+ * - calc: computing the quote from the FX rate and promo terms
+ * - encode: encoding the QuoteResponse
+ *
+ * Durations are in milliseconds; entries that were not measured are
+ * omitted. Sampling is decided once per request before any timing is
+ * captured, so unsampled requests allocate nothing.
+ *
+ * Read from the "serverTiming" configuration block:
+ * {
+ *   "sampleRate": 0.01
+ * }
+ *
+ * A sample rate of 0 (the default) disables the header.
+ */
+final class ServerTiming {
+
+    static final String HEADER = "Server-Timing";
+
+    private final double sampleRate;
+
+    /**
+     * @param sampleRate fraction of quote requests that carry the header, from 0 to 1
+     */
+    ServerTiming(double sampleRate) {
+        this.sampleRate = Math.max(0, Math.min(1, sampleRate));
+    }
+
+    /**
+     * Creates the sampler from the "serverTiming" configuration block.
+     *
+     * @param config the "serverTiming" configuration object (may be null)
+     * @return the sampler
+     */
+    static ServerTiming fromJson(JsonObject config) {
+        JsonObject settings = config == null ? new JsonObject() : config;
+        return new ServerTiming(settings.getDouble("sampleRate", 0.0));
+    }
+
+    /**
+     * @return true if the current request should carry the header
+     */
+    boolean sample() {
+        return sampleRate >= 1 || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate);
+    }
+
+    /**
+     * Formats the header value of one request.
+     *
+     * @param validateNanos validation time in nanoseconds, or -1
+     * @param timings lookup and computation timings of the request
+     * @param encodeNanos encoding time in nanoseconds, or -1
+     * @return the header value
+     */
+    static String format(long validateNanos, QuoteTimings timings, long encodeNanos) {
+
+        StringBuilder out = new StringBuilder(128);
+
+        entry(out, "validate", null, validateNanos);
+        entry(out, "fx", timings.fxCached() ? "hit" : "miss", timings.fxNanos());
+        entry(out, "promo", timings.promoCached() ? "hit" : "miss", timings.promoNanos());
+        entry(out, "calc", null, timings.computeNanos());
+        entry(out, "encode", null, encodeNanos);
+
+        return out.toString();
+    }
+
+    private static void entry(StringBuilder out, String name, String description, long nanos) {
+
+        if (nanos < 0) {
+            return;
+        }
+
+        if (!out.isEmpty()) {
+            out.append(", ");
+        }
+
+        out.append(name);
+
+        if (description != null) {
+            out.append(";desc=\"").append(description).append('"');
+        }
+
+        // Milliseconds with microsecond precision, without going through String.format
+        long micros = nanos / 1_000;
+        long fraction = micros % 1_000;
+
+        out.append(";dur=").append(micros / 1_000).append('.');
+        if (fraction < 100) {
+            out.append('0');
+        }
+        if (fraction < 10) {
+            out.append('0');
+        }
+        out.append(fraction);
+    }
+}
@@ -0,0 +1,324 @@
+package com.airline.loyalty.points.api;
+
+import com.airline.loyalty.points.config.ServiceConfig;
+import com.airline.loyalty.points.model.CabinClass;
+import com.airline.loyalty.points.model.QuoteRequest;
+import com.airline.loyalty.points.model.QuoteResponse;
+import com.airline.loyalty.points.model.Tier;
+import com.airline.loyalty.points.service.Deadline;
+import com.airline.loyalty.points.service.FxRateClient;
+import com.airline.loyalty.points.service.PointsCalculator;
+import com.airline.loyalty.points.service.PointsEngine;
+import com.airline.loyalty.points.service.PromoCachePolicy;
+import com.airline.loyalty.points.service.PromoClient;
+import com.airline.loyalty.points.service.PromoTerms;
+import com.airline.loyalty.points.validation.RequestValidator;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import io.vertx.ext.web.client.WebClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Warms up the quote path before the service reports itself ready.
+ *
+ * Right after startup every quote runs in the interpreter or C1 code
+ * and opens new downstream connections, so the first minute of traffic
+ * is an order of magnitude slower. Warm-up:
+ * - Replays a synthetic quote mix through the same decode, validate,
+ *   calculate and encode code as real requests, against stubbed FX
+ *   and promo sources so nothing leaves the process
+ * - Opens connections to the FX service and the Promotion Service so
+ *   the first real calls find them pooled, by calling the health path
+ *   configured for each service; a service without one is not called
+ * - Runs on a worker thread; requests are served meanwhile, but
+ *   /health reports WARMING_UP until it finishes or the time limit is hit
+ *
+ * Read from the "warmUp" configuration block:
+ * {
+ *   "iterations": 20000,
+ *   "maxDurationMs": 30000,
+ *   "connections": 2,
+ *   "fxHealthPath": "/health",
+ *   "promoHealthPath": "/health",
+ *   "requests": [
+ *     { "fareAmount": 420.5, "currency": "USD", "cabinClass": "ECONOMY", "customerTier": "GOLD" }
+ *   ]
+ * }
+ *
+ * Without "requests" the mix covers every supported currency, cabin and
+ * tier, with and without a promo code. Without the block the service is
+ * ready as soon as it listens.
+ */
+final class WarmUp {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmUp.class);
+
+    // FX rate and promo terms returned by the stubbed sources
+    private static final double STUB_FX_RATE = 3.67;
+    private static final PromoTerms STUB_PROMO_TERMS = new PromoTerms(10, 2);
+    private static final String STUB_PROMO_CODE = "WARMUP10";
+
+    private static final WarmUp DISABLED = new WarmUp(0, 0, 0, null, null, null);
+
+    private final long iterationsTarget;
+    private final long maxDurationMs;
+    private final int connections;
+    private final String fxHealthPath;
+    private final String promoHealthPath;
+    private final JsonArray requests;
+
+    private volatile boolean ready;
+    private volatile long iterations;
+    private volatile long durationNanos = -1;
+
+    /**
+     * Creates a warm-up. Nothing runs until {@link #start} is called.
+     *
+     * @param iterations number of synthetic quotes to replay
+     * @param maxDurationMs time after which the service reports ready regardless
+     * @param connections connections opened to each downstream service
+     * @param fxHealthPath FX service path called to open connections, or null to skip
+     * @param promoHealthPath Promotion Service path called to open connections, or null to skip
+     * @param requests synthetic quote requests, or null for the default mix
+     */
+    WarmUp(long iterations, long maxDurationMs, int connections,
+           String fxHealthPath, String promoHealthPath, JsonArray requests) {
+        this.iterationsTarget = iterations;
+        this.maxDurationMs = maxDurationMs;
+        this.connections = connections;
+        this.fxHealthPath = blankToNull(fxHealthPath);
+        this.promoHealthPath = blankToNull(promoHealthPath);
+        this.requests = requests;
+        this.ready = iterations <= 0
+                && (connections <= 0 || (this.fxHealthPath == null && this.promoHealthPath == null));
+    }
+
+    /**
+     * Creates the warm-up from the "warmUp" configuration block.
+     *
+     * @param warmUpConfig the "warmUp" configuration object (may be null)
+     * @return the warm-up, or one that is ready immediately if the block is absent
+     */
+    static WarmUp fromJson(JsonObject warmUpConfig) {
+
+        if (warmUpConfig == null) {
+            return DISABLED;
+        }
+
+        return new WarmUp(
+                warmUpConfig.getLong("iterations", 20_000L),
+                warmUpConfig.getLong("maxDurationMs", 30_000L),
+                warmUpConfig.getInteger("connections", 2),
+                warmUpConfig.getString("fxHealthPath"),
+                warmUpConfig.getString("promoHealthPath"),
+                warmUpConfig.getJsonArray("requests"));
+    }
+
+    /**
+     * Starts warming up in the background.
+     *
+     * @param vertx the Vert.x instance
+     * @param config the service configuration
+     * @param fxClient FX service client whose connections are opened (may be null)
+     * @param promoClient promo client whose connections are opened
+     */
+    void start(Vertx vertx, ServiceConfig config, FxRateClient fxClient, PromoClient promoClient) {
+
+        if (ready) {
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        long limitNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(maxDurationMs);
+
+        logger.info("Warm-up started | iterations={} | maxDurationMs={} | connections={}",
+                iterationsTarget, maxDurationMs, connections);
+
+        List<Future<?>> steps = new ArrayList<>();
+
+        steps.add(vertx.executeBlocking(() -> replay(vertx, config, promoClient, limitNanos), false));
+
+        if (fxClient != null && fxHealthPath != null) {
+            steps.add(connect(fxClient.webClient(), fxHealthPath));
+        }
+        if (promoHealthPath != null) {
+            steps.add(connect(promoClient.webClient(), promoHealthPath));
+        }
+
+        long timer = vertx.setTimer(Math.max(1, maxDurationMs), id -> finish(startNanos, true));
+
+        Future.join(steps).onComplete(ar -> {
+            vertx.cancelTimer(timer);
+            finish(startNanos, false);
+        });
+    }
+
+    /**
+     * Replays the synthetic mix until the iteration count or the time
+     * limit is reached. Blocking.
+     *
+     * @return number of quotes replayed
+     */
+    private long replay(Vertx vertx, ServiceConfig config, PromoClient promoClient, long limitNanos) {
+
+        RequestValidator validator = config.validator();
+        PointsCalculator calculator = new PointsCalculator(
+                (currency, deadline) -> Future.succeededFuture(STUB_FX_RATE),
+                new StubPromoClient(vertx, promoClient, config.promo()),
+                config.earningTable());
+
+        List<Buffer> bodies = bodies(validator);
+
+        long count = 0;
+
+        while (count < iterationsTarget && System.nanoTime() < limitNanos) {
+
+            try {
+                QuoteRequest request = QuoteCodec.decodeRequest(bodies.get((int) (count % bodies.size())), validator);
+
+                if (request != null && validator.check(request) == 0) {
+                    Future<QuoteResponse> quote = calculator.calculate(request, Deadline.NONE, null);
+
+                    if (quote.succeeded()) {
+                        QuoteCodec.encodeResponse(quote.result());
+                    }
+                }
+            } catch (IllegalArgumentException e) {
+                // Invalid synthetic requests still exercise the decoder
+            }
+
+            iterations = ++count;
+        }
+
+        return count;
+    }
+
+    /**
+     * @return the encoded synthetic requests
+     */
+    private List<Buffer> bodies(RequestValidator validator) {
+
+        List<Buffer> bodies = new ArrayList<>();
+
+        if (requests != null && !requests.isEmpty()) {
+            for (int i = 0; i < requests.size(); i++) {
+                bodies.add(requests.getJsonObject(i).toBuffer());
+            }
+            return bodies;
+        }
+
+        int n = 0;
+
+        for (String currency : validator.supportedCurrencies()) {
+            for (CabinClass cabin : CabinClass.values()) {
+                for (Tier tier : Tier.values()) {
+                    JsonObject request = new JsonObject()
+                            .put("fareAmount", 100 + 37.25 * n)
+                            .put("currency", currency)
+                            .put("cabinClass", cabin.name())
+                            .put("customerTier", tier.name());
+
+                    if (n++ % 2 == 0) {
+                        request.put("promoCode", STUB_PROMO_CODE);
+                    }
+
+                    bodies.add(request.toBuffer());
+                }
+            }
+        }
+
+        return bodies;
+    }
+
+    /**
+     * Calls the health path of a downstream service so its connection
+     * pool holds open connections. The calls bypass the service clients,
+     * so they touch neither caches nor circuit breakers. Any response,
+     * error status included, leaves the connection pooled; failures are
+     * ignored.
+     */
+    private Future<Void> connect(WebClient client, String path) {
+
+        List<Future<?>> calls = new ArrayList<>(connections);
+
+        for (int i = 0; i < connections; i++) {
+            calls.add(client.get(path)
+                    .timeout(Math.max(1, maxDurationMs))
+                    .send()
+                    .onFailure(err -> logger.debug("Warm-up connection to {} failed: {}", path, err.getMessage())));
+        }
+
+        return Future.join(calls).<Void>mapEmpty().otherwiseEmpty();
+    }
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+
+    private synchronized void finish(long startNanos, boolean timedOut) {
+
+        if (ready) {
+            return;
+        }
+
+        durationNanos = System.nanoTime() - startNanos;
+        ready = true;
+
+        if (timedOut) {
+            logger.warn("Warm-up time limit reached, reporting ready | iterations={} | durationMs={}",
+                    iterations, TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        } else {
+            logger.info("Warm-up finished | iterations={} | durationMs={}",
+                    iterations, TimeUnit.NANOSECONDS.toMillis(durationNanos));
+        }
+    }
+
+    /**
+     * @return true once warm-up finished or timed out, or if it is disabled
+     */
+    boolean ready() {
+        return ready;
+    }
+
+    /**
+     * @return number of synthetic quotes replayed so far
+     */
+    long iterations() {
+        return iterations;
+    }
+
+    /**
+     * @return time warm-up took in nanoseconds, or -1 while it is running
+     *         or if it is disabled
+     */
+    long durationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Promo client answering from fixed terms instead of the catalog,
+     * cache or Promotion Service; bonus and warnings are applied by the
+     * real {@link PromoClient#effectivePercentage}, {@link PromoClient#warnings}
+     * and {@link PointsEngine#computeTotal} code.
+     */
+    private static final class StubPromoClient extends PromoClient {
+
+        StubPromoClient(Vertx vertx, PromoClient promoClient, ServiceConfig.PromoSettings settings) {
+            super(vertx, promoClient.webClient(), settings.timeoutMs(), settings.expiryWarningDays(),
+                    promoClient.catalog(), promoClient.codeFilter(), PromoCachePolicy.fromJson(null));
+        }
+
+        @Override
+        public Future<PromoTerms> getPromoTerms(String code, Deadline deadline) {
+            return Future.succeededFuture(code == null || code.isBlank() ? PromoTerms.NONE : STUB_PROMO_TERMS);
+        }
+    }
+}
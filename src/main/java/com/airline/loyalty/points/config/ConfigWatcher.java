@@ -0,0 +1,170 @@
+package com.airline.loyalty.points.config;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Watches the configuration file and hands every valid new version to
+ * a listener.
+ *
+ * This watcher:
+ * - Checks the file's modification time periodically
+ * - Reads and parses a changed file on a worker thread, never on an
+ *   event loop
+ * - Builds a complete {@link ServiceConfig} before notifying, so the
+ *   listener only ever sees fully validated snapshots
+ * - Keeps the running configuration (and logs why) if the file cannot
+ *   be read or is invalid; the next change is tried again
+ *
+ * Read from the "reload" configuration block:
+ * {
+ *   "path": "/etc/loyalty/config.json",
+ *   "intervalMs": 5000
+ * }
+ *
+ * Without a path the configuration never changes after startup.
+ */
+public final class ConfigWatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(ConfigWatcher.class);
+
+    private final Path path;
+    private final Consumer<ServiceConfig> listener;
+
+    // Guarded by this
+    private long lastModifiedMs;
+
+    private volatile long timerId = -1;
+
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder reloadFailures = new LongAdder();
+
+    /**
+     * Creates a watcher. Call {@link #start} to begin watching.
+     *
+     * @param path the configuration file
+     * @param listener receives every new, validated configuration
+     */
+    public ConfigWatcher(Path path, Consumer<ServiceConfig> listener) {
+        this.path = path;
+        this.listener = listener;
+    }
+
+    /**
+     * Creates and starts a watcher from the "reload" configuration block.
+     *
+     * @param vertx the Vert.x instance used for the check timer
+     * @param reloadConfig the "reload" configuration object (may be null)
+     * @param listener receives every new, validated configuration
+     * @return the started watcher, or null if no path is configured
+     */
+    public static ConfigWatcher fromJson(Vertx vertx, JsonObject reloadConfig, Consumer<ServiceConfig> listener) {
+        JsonObject config = reloadConfig == null ? new JsonObject() : reloadConfig;
+
+        String file = config.getString("path");
+
+        if (file == null || file.isBlank()) {
+            return null;
+        }
+
+        ConfigWatcher watcher = new ConfigWatcher(Path.of(file), listener);
+        watcher.start(vertx, config.getLong("intervalMs", 5_000L));
+        return watcher;
+    }
+
+    /**
+     * Records the current version of the file as already applied and
+     * schedules periodic change checks.
+     *
+     * @param vertx the Vert.x instance used for the check timer
+     * @param intervalMs pause between two checks in milliseconds
+     */
+    public void start(Vertx vertx, long intervalMs) {
+
+        lastModifiedMs = modifiedMs();
+
+        timerId = vertx.setPeriodic(Math.max(1, intervalMs), id ->
+                vertx.executeBlocking(() -> check(), false));
+
+        logger.info("Config reload enabled | path={} | intervalMs={}", path, intervalMs);
+    }
+
+    /**
+     * Stops watching; the listener is not notified of later changes.
+     *
+     * @param vertx the Vert.x instance the check timer runs on
+     */
+    public void close(Vertx vertx) {
+
+        long id = timerId;
+
+        if (id >= 0) {
+            vertx.cancelTimer(id);
+            timerId = -1;
+        }
+    }
+
+    /**
+     * Loads the file if it changed since the last check.
+     * Blocking; must not be called on an event loop.
+     *
+     * @return true if a new configuration was handed to the listener
+     */
+    public synchronized boolean check() {
+
+        long modified = modifiedMs();
+
+        if (modified == lastModifiedMs) {
+            return false;
+        }
+
+        lastModifiedMs = modified;
+
+        ServiceConfig next;
+
+        try {
+            next = ServiceConfig.fromJson(new JsonObject(Files.readString(path, StandardCharsets.UTF_8)));
+        } catch (Exception e) {
+            reloadFailures.increment();
+            logger.error("Config reload rejected, keeping the running configuration | path={} | error={}",
+                    path, e.getMessage());
+            return false;
+        }
+
+        listener.accept(next);
+        reloads.increment();
+
+        logger.info("Config reloaded | path={}", path);
+        return true;
+    }
+
+    private long modifiedMs() {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+
+    /**
+     * @return number of configurations applied since startup
+     */
+    public long reloads() {
+        return reloads.sum();
+    }
+
+    /**
+     * @return number of changed files rejected since startup
+     */
+    public long reloadFailures() {
+        return reloadFailures.sum();
+    }
+}
@@ -0,0 +1,213 @@
+package com.airline.loyalty.points.config;
+
+import com.airline.loyalty.points.resilience.BackoffPolicy;
+import com.airline.loyalty.points.service.EarningTable;
+import com.airline.loyalty.points.service.FxCachePolicy;
+import com.airline.loyalty.points.service.PromoCachePolicy;
+import com.airline.loyalty.points.validation.RequestValidator;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+
+import java.net.URI;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable, validated snapshot of the service configuration.
+ *
+ * Parsing the whole configuration up front means a broken file is
+ * rejected as a unit: either every setting of a snapshot is valid or
+ * the snapshot is never built and the running configuration is kept.
+ *
+ * Settings that can change while the service runs:
+ * - "currencies": currencies accepted in quote requests (and refreshed
+ *   in FX snapshots)
+ * - "earning": cabin rates, tier bonus rates and the points cap
+ * - "fx": baseUrl, path, timeoutMs, maxRetries, retry and cache
+ * - "promo": baseUrl, timeoutMs, expiryWarningDays and cache
+ *
+ * Every other setting is read once at startup from {@link #json()}.
+ */
+public final class ServiceConfig {
+
+    /**
+     * Configuration blocks and keys that are only read at startup.
+     */
+    public static final String[] RESTART_ONLY = {
+            "http", "limiter", "batch", "stream", "serverTiming", "accessLog", "warmStart", "warmUp",
+            "fx.source", "fx.circuitBreaker", "fx.refresh", "fx.mapped",
+            "promo.catalog", "promo.filter"
+    };
+
+    private final JsonObject json;
+    private final RequestValidator validator;
+    private final EarningTable earningTable;
+    private final FxSettings fx;
+    private final PromoSettings promo;
+
+    private ServiceConfig(JsonObject json, RequestValidator validator, EarningTable earningTable,
+                          FxSettings fx, PromoSettings promo) {
+        this.json = json;
+        this.validator = validator;
+        this.earningTable = earningTable;
+        this.fx = fx;
+        this.promo = promo;
+    }
+
+    /**
+     * Parses and validates a configuration.
+     *
+     * @param config the service configuration
+     * @return the snapshot
+     * @throws IllegalArgumentException if a runtime setting is invalid
+     */
+    public static ServiceConfig fromJson(JsonObject config) {
+
+        JsonObject json = config.copy();
+        JsonObject fxConfig = json.getJsonObject("fx", new JsonObject());
+        JsonObject promoConfig = json.getJsonObject("promo", new JsonObject());
+
+        FxSettings fx = new FxSettings(
+                checkUrl(fxConfig.getString("baseUrl", "http://localhost:8081")),
+                fxConfig.getString("path", "/fx"),
+                fxConfig.getLong("timeoutMs", 1_000L),
+                BackoffPolicy.fromJson(fxConfig.getInteger("maxRetries", 2), fxConfig.getJsonObject("retry")),
+                FxCachePolicy.fromJson(fxConfig.getJsonObject("cache")));
+
+        PromoSettings promo = new PromoSettings(
+                checkUrl(promoConfig.getString("baseUrl", "http://localhost:8082")),
+                promoConfig.getInteger("timeoutMs", 500),
+                promoConfig.getInteger("expiryWarningDays", 3),
+                PromoCachePolicy.fromJson(promoConfig.getJsonObject("cache")));
+
+        return new ServiceConfig(json,
+                new RequestValidator(currencies(json.getJsonArray("currencies"))),
+                EarningTable.fromJson(json.getJsonObject("earning")),
+                fx,
+                promo);
+    }
+
+    private static Set<String> currencies(JsonArray configured) {
+
+        if (configured == null) {
+            return RequestValidator.DEFAULT_CURRENCIES;
+        }
+
+        Set<String> currencies = new HashSet<>();
+
+        for (Object currency : configured) {
+            if (!(currency instanceof String code)) {
+                throw new IllegalArgumentException("Invalid supported currency: " + currency);
+            }
+            currencies.add(code);
+        }
+
+        return currencies;
+    }
+
+    private static String checkUrl(String baseUrl) {
+
+        URI uri;
+
+        try {
+            uri = URI.create(baseUrl);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid service URL: " + baseUrl);
+        }
+
+        if (uri.getHost() == null) {
+            throw new IllegalArgumentException("Invalid service URL: " + baseUrl);
+        }
+
+        return baseUrl;
+    }
+
+    /**
+     * @param previous the configuration this one replaces
+     * @return the startup-only blocks and keys whose value differs
+     */
+    public Set<String> restartOnlyChanges(ServiceConfig previous) {
+
+        Set<String> changed = new HashSet<>();
+
+        for (String key : RESTART_ONLY) {
+            if (!Objects.equals(value(json, key), value(previous.json, key))) {
+                changed.add(key);
+            }
+        }
+
+        return changed;
+    }
+
+    private static Object value(JsonObject json, String key) {
+        int dot = key.indexOf('.');
+
+        if (dot < 0) {
+            return json.getValue(key);
+        }
+
+        JsonObject block = json.getJsonObject(key.substring(0, dot));
+        return block == null ? null : block.getValue(key.substring(dot + 1));
+    }
+
+    /**
+     * @return the full configuration, for settings read once at startup
+     */
+    public JsonObject json() {
+        return json;
+    }
+
+    /**
+     * @return the validator of the configured currencies
+     */
+    public RequestValidator validator() {
+        return validator;
+    }
+
+    /**
+     * @return the earning rates and points cap
+     */
+    public EarningTable earningTable() {
+        return earningTable;
+    }
+
+    /**
+     * @return the FX service settings
+     */
+    public FxSettings fx() {
+        return fx;
+    }
+
+    /**
+     * @return the Promotion Service settings
+     */
+    public PromoSettings promo() {
+        return promo;
+    }
+
+    /**
+     * FX service settings that can change at runtime.
+     *
+     * @param baseUrl FX service base URL
+     * @param path FX endpoint path
+     * @param timeoutMs timeout of one FX call in milliseconds
+     * @param backoff retry policy of FX calls
+     * @param cachePolicy FX rate cache policy
+     */
+    public record FxSettings(String baseUrl, String path, long timeoutMs,
+                             BackoffPolicy backoff, FxCachePolicy cachePolicy) {
+    }
+
+    /**
+     * Promotion Service settings that can change at runtime.
+     *
+     * @param baseUrl Promotion Service base URL
+     * @param timeoutMs timeout of one promo call in milliseconds
+     * @param expiryWarningDays days before expiry that trigger PROMO_EXPIRES_SOON
+     * @param cachePolicy promo terms cache policy
+     */
+    public record PromoSettings(String baseUrl, long timeoutMs, int expiryWarningDays,
+                                PromoCachePolicy cachePolicy) {
+    }
+}
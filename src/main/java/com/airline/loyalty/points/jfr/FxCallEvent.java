@@ -0,0 +1,36 @@
+package com.airline.loyalty.points.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event covering one FX service call attempt.
+ *
+ * A lookup that is retried produces one event per attempt. Attempts
+ * rejected by the open circuit are recorded with status 0.
+ */
+@Name("com.airline.loyalty.FxCall")
+@Label("FX Call")
+@Category({"Loyalty", "Downstream"})
+@Description("One attempt to retrieve an FX rate from the FX service")
+@StackTrace(false)
+public class FxCallEvent extends Event {
+
+    @Label("Currency")
+    public String currency;
+
+    @Label("Attempt")
+    @Description("1 for the first attempt, incremented for every retry")
+    public int attempt;
+
+    @Label("HTTP Status")
+    @Description("Response status, or 0 if no response was received")
+    public int status;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,33 @@
+package com.airline.loyalty.points.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JDK Flight Recorder event covering one Promotion Service call.
+ *
+ * Promo lookups answered by the catalog, cache or code filter make no
+ * call and produce no event. Promo calls are not retried, so the
+ * attempt is always 1.
+ */
+@Name("com.airline.loyalty.PromoCall")
+@Label("Promo Call")
+@Category({"Loyalty", "Downstream"})
+@Description("One call to retrieve promo terms from the Promotion Service")
+@StackTrace(false)
+public class PromoCallEvent extends Event {
+
+    @Label("Attempt")
+    public int attempt;
+
+    @Label("HTTP Status")
+    @Description("Response status, or 0 if no response was received")
+    public int status;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
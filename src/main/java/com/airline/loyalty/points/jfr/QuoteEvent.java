@@ -0,0 +1,67 @@
+package com.airline.loyalty.points.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * JDK Flight Recorder event covering one quote request, from the start
+ * of its handling to the end of its response.
+ *
+ * Fields are only filled in when the event is enabled in the running
+ * recording, so the event costs a disabled check when recording is off.
+ */
+@Name("com.airline.loyalty.Quote")
+@Label("Quote")
+@Category({"Loyalty", "Quote"})
+@Description("Handling of one loyalty points quote request")
+@StackTrace(false)
+public class QuoteEvent extends Event {
+
+    @Label("Currency")
+    public String currency;
+
+    @Label("Customer Tier")
+    public String tier;
+
+    @Label("Cabin Class")
+    public String cabin;
+
+    @Label("Promo Code Present")
+    public boolean promoPresent;
+
+    @Label("HTTP Status")
+    public int status;
+
+    @Label("Outcome")
+    @Description("OK, INVALID, UNAVAILABLE, DEADLINE_EXCEEDED or ERROR")
+    public String outcome;
+
+    @Label("FX Duration")
+    @Description("Time until the FX rate was available, including cache hits")
+    @Timespan(Timespan.NANOSECONDS)
+    public long fxDuration;
+
+    @Label("Promo Duration")
+    @Description("Time until the promo terms were available, including cache hits")
+    @Timespan(Timespan.NANOSECONDS)
+    public long promoDuration;
+
+    /**
+     * @param status HTTP status code of the response
+     * @return the outcome name recorded for the status
+     */
+    public static String outcomeOf(int status) {
+        return switch (status) {
+            case 200 -> "OK";
+            case 400, 413, 415 -> "INVALID";
+            case 503 -> "UNAVAILABLE";
+            case 504 -> "DEADLINE_EXCEEDED";
+            default -> "ERROR";
+        };
+    }
+}
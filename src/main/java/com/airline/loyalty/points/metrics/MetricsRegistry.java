@@ -0,0 +1,147 @@
+package com.airline.loyalty.points.metrics;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+import java.util.function.LongSupplier;
+
+/**
+ * Collection of named metrics rendered in the Prometheus text
+ * exposition format (version 0.0.4).
+ *
+ * Metric types:
+ * - Counter: monotonically increasing value read from a supplier
+ * - Gauge: current value read from a supplier
+ * - Summary: {@link LatencyHistogram} reported in seconds as
+ *   p50 / p90 / p99 / p99.9 quantiles plus _sum and _count
+ *
+ * Values are read only when the registry is scraped, so registering a
+ * counter adds no cost to the code that maintains it.
+ *
+ * Metrics are registered once at startup; {@link #scrape()} may then be
+ * called from any thread.
+ */
+public final class MetricsRegistry {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final double NANOS_PER_SECOND = 1_000_000_000d;
+
+    private final Map<String, Family> families = new LinkedHashMap<>();
+
+    /**
+     * Registers a counter.
+     *
+     * @param name metric name, ending in _total
+     * @param help description shown in the HELP line
+     * @param labels label set (e.g. stage="parse"), or empty
+     * @param value supplier of the current count
+     * @return this registry
+     */
+    public synchronized MetricsRegistry counter(String name, String help, String labels, LongSupplier value) {
+        family(name, help, "counter").samples.add(new Sample(labels, value, null, null));
+        return this;
+    }
+
+    /**
+     * Registers a gauge.
+     *
+     * @param name metric name
+     * @param help description shown in the HELP line
+     * @param labels label set, or empty
+     * @param value supplier of the current value
+     * @return this registry
+     */
+    public synchronized MetricsRegistry gauge(String name, String help, String labels, DoubleSupplier value) {
+        family(name, help, "gauge").samples.add(new Sample(labels, null, value, null));
+        return this;
+    }
+
+    /**
+     * Registers a latency histogram, reported as a summary in seconds.
+     *
+     * @param name metric name, ending in _seconds
+     * @param help description shown in the HELP line
+     * @param labels label set, or empty
+     * @param histogram the histogram to report
+     * @return this registry
+     */
+    public synchronized MetricsRegistry summary(String name, String help, String labels,
+                                                LatencyHistogram histogram) {
+        family(name, help, "summary").samples.add(new Sample(labels, null, null, histogram));
+        return this;
+    }
+
+    /**
+     * Renders every registered metric in the Prometheus text format.
+     *
+     * @return the exposition text
+     */
+    public synchronized String scrape() {
+
+        StringBuilder out = new StringBuilder(4096);
+
+        for (Family family : families.values()) {
+
+            out.append("# HELP ").append(family.name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(family.name).append(' ').append(family.type).append('\n');
+
+            for (Sample sample : family.samples) {
+
+                if (sample.histogram != null) {
+                    writeSummary(out, family.name, sample.labels, sample.histogram);
+                } else if (sample.counter != null) {
+                    line(out, family.name, sample.labels, sample.counter.getAsLong());
+                } else {
+                    line(out, family.name, sample.labels, sample.gauge.getAsDouble());
+                }
+            }
+        }
+
+        return out.toString();
+    }
+
+    private Family family(String name, String help, String type) {
+
+        Family family = families.computeIfAbsent(name, n -> new Family(n, help, type, new ArrayList<>()));
+
+        if (!family.type.equals(type)) {
+            throw new IllegalArgumentException("Metric " + name + " is already registered as " + family.type);
+        }
+
+        return family;
+    }
+
+    private static void writeSummary(StringBuilder out, String name, String labels, LatencyHistogram histogram) {
+
+        for (double quantile : QUANTILES) {
+            String quantileLabel = "quantile=\"" + quantile + "\"";
+            line(out, name, labels.isEmpty() ? quantileLabel : labels + "," + quantileLabel,
+                    histogram.valueAtQuantile(quantile) / NANOS_PER_SECOND);
+        }
+
+        line(out, name + "_sum", labels, histogram.sumNanos() / NANOS_PER_SECOND);
+        line(out, name + "_count", labels, histogram.count());
+    }
+
+    private static void line(StringBuilder out, String name, String labels, double value) {
+        out.append(name);
+        if (!labels.isEmpty()) {
+            out.append('{').append(labels).append('}');
+        }
+        out.append(' ');
+        if (value == Math.rint(value) && !Double.isInfinite(value)) {
+            out.append((long) value);
+        } else {
+            out.append(value);
+        }
+        out.append('\n');
+    }
+
+    private record Family(String name, String help, String type, List<Sample> samples) {
+    }
+
+    private record Sample(String labels, LongSupplier counter, DoubleSupplier gauge, LatencyHistogram histogram) {
+    }
+}
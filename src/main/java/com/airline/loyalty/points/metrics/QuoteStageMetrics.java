@@ -0,0 +1,74 @@
+package com.airline.loyalty.points.metrics;
+
+/**
+ * Latency histograms for the stages of the quote request pipeline.
+ *
+ * Stages:
+ * - parse: decoding the request body into a QuoteRequest
+ * - validate: RequestValidator.check
+ * - calculate: from starting the calculation to its result, including
+ *   waiting for the FX rate and promo terms
+ * - encode: encoding the QuoteResponse
+ * - total: from admission to the end of the response
+ *
+ * One instance is shared by all verticle instances.
+ */
+public final class QuoteStageMetrics {
+
+    private final LatencyHistogram parse = new LatencyHistogram();
+    private final LatencyHistogram validate = new LatencyHistogram();
+    private final LatencyHistogram calculate = new LatencyHistogram();
+    private final LatencyHistogram encode = new LatencyHistogram();
+    private final LatencyHistogram total = new LatencyHistogram();
+
+    /**
+     * Registers every stage as one summary family labelled by stage.
+     *
+     * @param registry registry to add the stages to
+     */
+    public void registerWith(MetricsRegistry registry) {
+        String name = "loyalty_quote_stage_latency_seconds";
+        String help = "Latency of each quote pipeline stage";
+
+        registry.summary(name, help, "stage=\"parse\"", parse)
+                .summary(name, help, "stage=\"validate\"", validate)
+                .summary(name, help, "stage=\"calculate\"", calculate)
+                .summary(name, help, "stage=\"encode\"", encode)
+                .summary(name, help, "stage=\"total\"", total);
+    }
+
+    /**
+     * @return request body decoding latency
+     */
+    public LatencyHistogram parse() {
+        return parse;
+    }
+
+    /**
+     * @return request validation latency
+     */
+    public LatencyHistogram validate() {
+        return validate;
+    }
+
+    /**
+     * @return calculation latency, including downstream waits
+     */
+    public LatencyHistogram calculate() {
+        return calculate;
+    }
+
+    /**
+     * @return response encoding latency
+     */
+    public LatencyHistogram encode() {
+        return encode;
+    }
+
+    /**
+     * @return end-to-end request latency
+     */
+    public LatencyHistogram total() {
+        return total;
+    }
+}
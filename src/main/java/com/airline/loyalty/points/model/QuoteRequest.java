@@ -1,5 +1,7 @@
 package com.airline.loyalty.points.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 /**
  * Represents an incoming loyalty points quote request.
  *
@@ -15,11 +17,23 @@ package com.airline.loyalty.points.model;
  * @param cabinClass   the selected cabin class for the booking
  * @param customerTier the loyalty tier of the customer
  * @param promoCode    optional promotional code for bonus points
+ * @param decodeErrors bits of the {@link com.airline.loyalty.points.validation.ValidationError}s
+ *                     found while decoding the payload, reported by validation
  */
 public record QuoteRequest(
         double fareAmount,
         String currency,
         CabinClass cabinClass,
         Tier customerTier,
-        String promoCode
-) {}
+        String promoCode,
+        @JsonIgnore int decodeErrors
+) {
+
+    /**
+     * Creates a request decoded without errors.
+     */
+    public QuoteRequest(double fareAmount, String currency, CabinClass cabinClass,
+                        Tier customerTier, String promoCode) {
+        this(fareAmount, currency, cabinClass, customerTier, promoCode, 0);
+    }
+}
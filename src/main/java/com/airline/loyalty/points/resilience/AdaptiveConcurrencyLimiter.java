@@ -0,0 +1,212 @@
+package com.airline.loyalty.points.resilience;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Adaptive in-flight request limiter using AIMD
+ * (additive increase, multiplicative decrease) driven by observed latency.
+ *
+ * Requests above the current limit are rejected immediately instead of
+ * queueing on the event loop and in downstream connection pools, which
+ * keeps latency stable when a dependency slows down.
+ *
+ * Limit adjustment per completed request:
+ * - Latency above the threshold, or a failed request → limit × backoffRatio
+ * - Otherwise, if the limit was actually being used → limit + 1 / limit
+ *   (roughly +1 per limit's worth of successful requests)
+ *
+ * Requests whose outcome says nothing about load (rejected input, a
+ * caller's own deadline running out) release their slot without
+ * adjusting the limit.
+ *
+ * The limit always stays within [minLimit, maxLimit].
+ *
+ * Read from the "limiter" configuration block:
+ * {
+ *   "enabled": true,
+ *   "initialLimit": 100,
+ *   "minLimit": 10,
+ *   "maxLimit": 1000,
+ *   "latencyThresholdMs": 250,
+ *   "backoffRatio": 0.9,
+ *   "retryAfterSeconds": 1
+ * }
+ *
+ * This class is thread-safe and lock-free.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final long latencyThresholdNanos;
+    private final double backoffRatio;
+    private final int retryAfterSeconds;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicLong limitBits;
+
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates a new limiter.
+     *
+     * @param enabled whether requests are limited at all
+     * @param initialLimit starting in-flight limit
+     * @param minLimit lower bound for the limit
+     * @param maxLimit upper bound for the limit
+     * @param latencyThresholdMs latency above which the limit is decreased
+     * @param backoffRatio multiplicative decrease factor (0 < ratio < 1)
+     * @param retryAfterSeconds value advertised in Retry-After on rejection
+     */
+    public AdaptiveConcurrencyLimiter(boolean enabled,
+                                      int initialLimit,
+                                      int minLimit,
+                                      int maxLimit,
+                                      long latencyThresholdMs,
+                                      double backoffRatio,
+                                      int retryAfterSeconds) {
+
+        if (minLimit < 1 || maxLimit < minLimit) {
+            throw new IllegalArgumentException("Limiter bounds must satisfy 1 <= minLimit <= maxLimit");
+        }
+
+        if (backoffRatio <= 0 || backoffRatio >= 1) {
+            throw new IllegalArgumentException("Limiter backoffRatio must be between 0 and 1");
+        }
+
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.latencyThresholdNanos = TimeUnit.MILLISECONDS.toNanos(latencyThresholdMs);
+        this.backoffRatio = backoffRatio;
+        this.retryAfterSeconds = retryAfterSeconds;
+        this.limitBits = new AtomicLong(Double.doubleToRawLongBits(
+                Math.max(minLimit, Math.min(maxLimit, initialLimit))));
+    }
+
+    /**
+     * Creates a limiter from the "limiter" configuration block.
+     * Missing values fall back to the documented defaults.
+     *
+     * @param config the limiter configuration (may be null)
+     * @return the configured limiter
+     */
+    public static AdaptiveConcurrencyLimiter fromJson(JsonObject config) {
+        JsonObject c = config == null ? new JsonObject() : config;
+
+        return new AdaptiveConcurrencyLimiter(
+                c.getBoolean("enabled", true),
+                c.getInteger("initialLimit", 100),
+                c.getInteger("minLimit", 10),
+                c.getInteger("maxLimit", 1000),
+                c.getLong("latencyThresholdMs", 250L),
+                c.getDouble("backoffRatio", 0.9),
+                c.getInteger("retryAfterSeconds", 1)
+        );
+    }
+
+    /**
+     * Tries to admit a request.
+     * Every successful acquire must be followed by exactly one
+     * {@link #release(long, boolean)} or {@link #releaseIgnored()}.
+     *
+     * @return true if the request may proceed, false if it must be rejected
+     */
+    public boolean tryAcquire() {
+
+        if (!enabled) {
+            return true;
+        }
+
+        if (inFlight.incrementAndGet() > limit()) {
+            inFlight.decrementAndGet();
+            rejected.increment();
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Releases an admitted request and adjusts the limit from its outcome.
+     *
+     * @param latencyNanos observed request latency
+     * @param succeeded false if the request failed because of overload
+     *                  or a downstream failure
+     */
+    public void release(long latencyNanos, boolean succeeded) {
+
+        if (!enabled) {
+            return;
+        }
+
+        int inFlightBefore = inFlight.getAndDecrement();
+
+        boolean overloaded = !succeeded || latencyNanos > latencyThresholdNanos;
+
+        long current;
+        long updated;
+
+        do {
+            current = limitBits.get();
+            double limit = Double.longBitsToDouble(current);
+            double next;
+
+            if (overloaded) {
+                next = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlightBefore * 2 >= limit) {
+                next = Math.min(maxLimit, limit + 1.0 / limit);
+            } else {
+                return;
+            }
+
+            updated = Double.doubleToRawLongBits(next);
+
+        } while (current != updated && !limitBits.compareAndSet(current, updated));
+    }
+
+    /**
+     * Releases an admitted request without adjusting the limit, for
+     * outcomes that are not a load signal.
+     */
+    public void releaseIgnored() {
+
+        if (enabled) {
+            inFlight.decrementAndGet();
+        }
+    }
+
+    /**
+     * @return current in-flight limit
+     */
+    public int limit() {
+        return (int) Double.longBitsToDouble(limitBits.get());
+    }
+
+    /**
+     * @return number of requests currently admitted
+     */
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    /**
+     * @return total number of rejected requests
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return seconds clients should wait before retrying a rejected request
+     */
+    public int retryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,75 @@
+package com.airline.loyalty.points.resilience;
+
+import io.vertx.core.json.JsonObject;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Retry policy using exponential backoff with full jitter,
+ * bounded by a total time budget.
+ *
+ * The delay before retry n (0-based) is a random value in
+ * [0, min(maxDelayMs, baseDelayMs × 2^n)]. A retry is only made if
+ * the delay still fits in the remaining time budget, so a failing
+ * dependency never holds a request open for the full retry chain.
+ *
+ * Read from the "retry" object of a client configuration block:
+ * {
+ *   "baseDelayMs": 50,
+ *   "maxDelayMs": 1000,
+ *   "budgetMs": 2000
+ * }
+ *
+ * @param maxRetries  maximum number of retries after the first attempt
+ * @param baseDelayMs delay cap for the first retry
+ * @param maxDelayMs  upper bound for any single delay
+ * @param budgetMs    total time allowed for all attempts and delays
+ */
+public record BackoffPolicy(
+        int maxRetries,
+        long baseDelayMs,
+        long maxDelayMs,
+        long budgetMs
+) {
+
+    /**
+     * Validates the policy.
+     *
+     * @throws IllegalArgumentException if any value is negative
+     */
+    public BackoffPolicy {
+        if (maxRetries < 0 || baseDelayMs < 0 || maxDelayMs < baseDelayMs || budgetMs < 0) {
+            throw new IllegalArgumentException("Invalid retry backoff settings");
+        }
+    }
+
+    /**
+     * Reads the policy from the "retry" configuration object.
+     * Missing values fall back to the documented defaults.
+     *
+     * @param maxRetries maximum number of retries
+     * @param config the "retry" configuration (may be null)
+     * @return the resulting policy
+     */
+    public static BackoffPolicy fromJson(int maxRetries, JsonObject config) {
+        JsonObject c = config == null ? new JsonObject() : config;
+
+        return new BackoffPolicy(
+                maxRetries,
+                c.getLong("baseDelayMs", 50L),
+                c.getLong("maxDelayMs", 1_000L),
+                c.getLong("budgetMs", 2_000L)
+        );
+    }
+
+    /**
+     * Computes a jittered delay before the given retry.
+     *
+     * @param retry 0-based retry number
+     * @return delay in milliseconds
+     */
+    public long delayMs(int retry) {
+        long cap = Math.min(maxDelayMs, baseDelayMs << Math.min(retry, 20));
+        return cap <= 0 ? 0 : ThreadLocalRandom.current().nextLong(cap + 1);
+    }
+}
@@ -0,0 +1,221 @@
+package com.airline.loyalty.points.resilience;
+
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Circuit breaker protecting a downstream dependency.
+ *
+ * States:
+ * - CLOSED    → calls pass; consecutive failures are counted
+ * - OPEN      → calls are rejected immediately for openDurationMs
+ * - HALF_OPEN → a limited number of trial calls pass; one success
+ *               closes the circuit, one failure opens it again
+ *
+ * The circuit opens after failureThreshold consecutive failures.
+ *
+ * Read from the "circuitBreaker" object of a client configuration block:
+ * {
+ *   "failureThreshold": 5,
+ *   "openDurationMs": 10000,
+ *   "halfOpenMaxCalls": 1
+ * }
+ *
+ * State transitions and rejected calls are counted for monitoring.
+ *
+ * This class is thread-safe.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    /**
+     * Circuit breaker states.
+     */
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final long openDurationMs;
+    private final int halfOpenMaxCalls;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private int halfOpenCalls;
+    private long openedAtMs;
+
+    private final LongAdder opened = new LongAdder();
+    private final LongAdder halfOpened = new LongAdder();
+    private final LongAdder closed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Creates a new circuit breaker.
+     *
+     * @param name name of the protected dependency, used in logs and errors
+     * @param failureThreshold consecutive failures that open the circuit
+     * @param openDurationMs time the circuit stays open before a trial call
+     * @param halfOpenMaxCalls trial calls allowed while half-open
+     */
+    public CircuitBreaker(String name,
+                          int failureThreshold,
+                          long openDurationMs,
+                          int halfOpenMaxCalls) {
+
+        if (failureThreshold < 1 || openDurationMs < 0 || halfOpenMaxCalls < 1) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings for " + name);
+        }
+
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenMaxCalls = halfOpenMaxCalls;
+    }
+
+    /**
+     * Creates a circuit breaker from its configuration object.
+     * Missing values fall back to the documented defaults.
+     *
+     * @param name name of the protected dependency
+     * @param config the "circuitBreaker" configuration (may be null)
+     * @return the configured circuit breaker
+     */
+    public static CircuitBreaker fromJson(String name, JsonObject config) {
+        JsonObject c = config == null ? new JsonObject() : config;
+
+        return new CircuitBreaker(
+                name,
+                c.getInteger("failureThreshold", 5),
+                c.getLong("openDurationMs", 10_000L),
+                c.getInteger("halfOpenMaxCalls", 1)
+        );
+    }
+
+    /**
+     * Asks permission to perform a call.
+     *
+     * @return true if the call may proceed, false if it must fail fast
+     */
+    public synchronized boolean tryAcquire() {
+
+        switch (state) {
+            case CLOSED:
+                return true;
+
+            case OPEN:
+                if (System.currentTimeMillis() - openedAtMs < openDurationMs) {
+                    rejected.increment();
+                    return false;
+                }
+                transitionTo(State.HALF_OPEN);
+                halfOpenCalls = 1;
+                return true;
+
+            default:
+                if (halfOpenCalls < halfOpenMaxCalls) {
+                    halfOpenCalls++;
+                    return true;
+                }
+                rejected.increment();
+                return false;
+        }
+    }
+
+    /**
+     * Records a successful call.
+     */
+    public synchronized void onSuccess() {
+
+        consecutiveFailures = 0;
+
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.CLOSED);
+        }
+    }
+
+    /**
+     * Records a failed call.
+     */
+    public synchronized void onFailure() {
+
+        if (state == State.HALF_OPEN) {
+            open();
+            return;
+        }
+
+        if (state == State.CLOSED && ++consecutiveFailures >= failureThreshold) {
+            open();
+        }
+    }
+
+    /**
+     * @return current state
+     */
+    public synchronized State state() {
+        return state;
+    }
+
+    /**
+     * @return number of transitions into OPEN
+     */
+    public long openedCount() {
+        return opened.sum();
+    }
+
+    /**
+     * @return number of transitions into HALF_OPEN
+     */
+    public long halfOpenedCount() {
+        return halfOpened.sum();
+    }
+
+    /**
+     * @return number of transitions into CLOSED
+     */
+    public long closedCount() {
+        return closed.sum();
+    }
+
+    /**
+     * @return number of calls rejected without being attempted
+     */
+    public long rejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return name of the protected dependency
+     */
+    public String name() {
+        return name;
+    }
+
+    private void open() {
+        openedAtMs = System.currentTimeMillis();
+        consecutiveFailures = 0;
+        transitionTo(State.OPEN);
+    }
+
+    private void transitionTo(State next) {
+
+        if (state == next) {
+            return;
+        }
+
+        logger.warn("Circuit breaker '{}' {} -> {}", name, state, next);
+        state = next;
+
+        switch (next) {
+            case OPEN -> opened.increment();
+            case HALF_OPEN -> halfOpened.increment();
+            case CLOSED -> closed.increment();
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.airline.loyalty.points.resilience;
+
+/**
+ * Signals that a call was rejected without being attempted
+ * because the circuit breaker protecting the dependency is open.
+ *
+ * The HTTP layer maps this failure to 503 Service Unavailable.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    /**
+     * @param name name of the protected dependency (e.g. "fx")
+     */
+    public CircuitOpenException(String name) {
+        super("Circuit breaker '" + name + "' is open", null, false, false);
+    }
+}
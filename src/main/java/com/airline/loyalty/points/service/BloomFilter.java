@@ -0,0 +1,141 @@
+package com.airline.loyalty.points.service;
+
+import java.util.Collection;
+
+/**
+ * Immutable Bloom filter over strings.
+ *
+ * A lookup answers either "definitely absent" or "possibly present";
+ * the probability of a false "possibly present" is bounded by the
+ * false positive rate the filter was sized for.
+ *
+ * Sizing for n values and target false positive rate p:
+ * - bits   m = -n · ln(p) / ln(2)²
+ * - hashes k = m / n · ln(2)
+ *
+ * Bit positions are derived from one 64-bit hash per value using
+ * double hashing (h1 + i · h2), so a lookup hashes the value once.
+ *
+ * Instances are built once and never modified, so they can be read
+ * from any thread without synchronization.
+ */
+public final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final long[] bits;
+    private final long bitCount;
+    private final int hashCount;
+    private final int valueCount;
+
+    private BloomFilter(long bitCount, int hashCount, int valueCount) {
+        this.bits = new long[(int) ((bitCount + 63) >>> 6)];
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.valueCount = valueCount;
+    }
+
+    /**
+     * Builds a filter containing the given values.
+     *
+     * @param values the values to add
+     * @param falsePositiveRate target false positive rate (0 < rate < 1)
+     * @return the filter
+     */
+    public static BloomFilter of(Collection<String> values, double falsePositiveRate) {
+
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Bloom filter false positive rate must be between 0 and 1");
+        }
+
+        int n = Math.max(1, values.size());
+        long m = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (LN2 * LN2)));
+        int k = Math.max(1, (int) Math.round((double) m / n * LN2));
+
+        BloomFilter filter = new BloomFilter(m, k, values.size());
+
+        for (String value : values) {
+            filter.add(value);
+        }
+
+        return filter;
+    }
+
+    private void add(String value) {
+
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 0; i < hashCount; i++) {
+            long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+            bits[(int) (index >>> 6)] |= 1L << index;
+        }
+    }
+
+    /**
+     * @param value the value to test
+     * @return false if the value was definitely not added,
+     *         true if it possibly was
+     */
+    public boolean mightContain(String value) {
+
+        long hash = hash(value);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        for (int i = 0; i < hashCount; i++) {
+            long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+
+            if ((bits[(int) (index >>> 6)] & (1L << index)) == 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * @return the expected false positive rate for the values added:
+     *         (1 - e^(-k·n/m))^k
+     */
+    public double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashCount * valueCount / bitCount), hashCount);
+    }
+
+    /**
+     * @return number of values added
+     */
+    public int size() {
+        return valueCount;
+    }
+
+    /**
+     * @return size of the bit array in bytes
+     */
+    public long memoryBytes() {
+        return (long) bits.length * Long.BYTES;
+    }
+
+    /**
+     * FNV-1a over the string's chars followed by a 64-bit finalizer,
+     * so both halves of the result are well mixed.
+     */
+    private static long hash(String value) {
+
+        long h = 0xcbf29ce484222325L;
+
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= 0x100000001b3L;
+        }
+
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+
+        return h;
+    }
+}
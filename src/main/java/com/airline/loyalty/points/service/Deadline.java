@@ -0,0 +1,129 @@
+package com.airline.loyalty.points.service;
+
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+/**
+ * Point in time by which a caller needs its quote.
+ *
+ * A deadline is created at the HTTP boundary from the caller's latency
+ * budget and carried through the calculation to the FX and promo
+ * lookups. It bounds how long the caller waits, through {@link #bound}:
+ * FX and promo calls may be shared by several callers, so each attempt
+ * runs to its own configured timeout, and a caller whose deadline passes
+ * stops waiting for it. A shared call stops retrying once the latest
+ * deadline of its callers has passed (see {@link SingleFlight}). Work
+ * whose result the caller has already abandoned is skipped by checking
+ * {@link #isExpired()}.
+ *
+ * Deadlines are immutable and use wall-clock milliseconds, so an absolute
+ * deadline supplied by the caller can be used as is.
+ */
+public final class Deadline {
+
+    /**
+     * Deadline used when the caller did not supply one.
+     */
+    public static final Deadline NONE = new Deadline(Long.MAX_VALUE);
+
+    private final long expiresAtMs;
+
+    private Deadline(long expiresAtMs) {
+        this.expiresAtMs = expiresAtMs;
+    }
+
+    /**
+     * @param epochMs absolute deadline in epoch milliseconds
+     * @return a deadline expiring at the given time
+     */
+    public static Deadline at(long epochMs) {
+        return new Deadline(epochMs);
+    }
+
+    /**
+     * @param budgetMs remaining latency budget in milliseconds
+     * @return a deadline expiring once the budget is spent
+     */
+    public static Deadline after(long budgetMs) {
+        return new Deadline(System.currentTimeMillis() + Math.max(0, budgetMs));
+    }
+
+    /**
+     * @param other another deadline
+     * @return whichever deadline expires first
+     */
+    public Deadline earliest(Deadline other) {
+        return other.expiresAtMs < expiresAtMs ? other : this;
+    }
+
+    /**
+     * @param other another deadline
+     * @return whichever deadline expires last
+     */
+    public Deadline latest(Deadline other) {
+        return other.expiresAtMs > expiresAtMs ? other : this;
+    }
+
+    /**
+     * @return milliseconds left before the deadline (0 if expired)
+     */
+    public long remainingMs() {
+        if (this == NONE) {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, expiresAtMs - System.currentTimeMillis());
+    }
+
+    /**
+     * @return true if no time is left
+     */
+    public boolean isExpired() {
+        return this != NONE && System.currentTimeMillis() >= expiresAtMs;
+    }
+
+    /**
+     * Bounds how long one caller waits for a Future that may be shared
+     * with other callers. The Future itself is left running; only the
+     * returned one fails at the deadline.
+     *
+     * @param vertx the Vert.x instance used for the deadline timer
+     * @param future the result being waited for
+     * @param stage the processing stage waiting (e.g. "fx"), used in the failure
+     * @param <T> result type
+     * @return a Future completed like the given one, or failed with
+     *         {@link DeadlineExceededException} if the deadline comes first
+     */
+    public <T> Future<T> bound(Vertx vertx, Future<T> future, String stage) {
+
+        if (this == NONE || future.isComplete()) {
+            return future;
+        }
+
+        long remainingMs = remainingMs();
+
+        if (remainingMs <= 0) {
+            return Future.failedFuture(new DeadlineExceededException(stage));
+        }
+
+        Promise<T> promise = Promise.promise();
+        long timer = vertx.setTimer(remainingMs, id -> promise.tryFail(new DeadlineExceededException(stage)));
+
+        future.onComplete(ar -> {
+            vertx.cancelTimer(timer);
+
+            if (ar.succeeded()) {
+                promise.tryComplete(ar.result());
+            } else {
+                promise.tryFail(ar.cause());
+            }
+        });
+
+        return promise.future();
+    }
+
+    @Override
+    public String toString() {
+        return this == NONE ? "Deadline[none]" : "Deadline[" + expiresAtMs + "]";
+    }
+}
@@ -0,0 +1,17 @@
+package com.airline.loyalty.points.service;
+
+/**
+ * Signals that a request's deadline expired before its work could
+ * complete, so the remaining downstream calls were not attempted.
+ *
+ * The HTTP layer maps this failure to 504 Gateway Timeout.
+ */
+public class DeadlineExceededException extends RuntimeException {
+
+    /**
+     * @param stage the processing stage that ran out of time (e.g. "fx")
+     */
+    public DeadlineExceededException(String stage) {
+        super("Deadline exceeded before " + stage, null, false, false);
+    }
+}
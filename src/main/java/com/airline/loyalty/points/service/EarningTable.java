@@ -0,0 +1,132 @@
+package com.airline.loyalty.points.service;
+
+import com.airline.loyalty.points.model.CabinClass;
+import com.airline.loyalty.points.model.Tier;
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Immutable earning rates for every tier and cabin combination,
+ * together with the maximum total points of a quote.
+ *
+ * Rates are compiled into flat arrays of micros (see {@link PointsEngine}) indexed by
+ * tier.ordinal() × cabin count + cabin.ordinal(), so looking up the
+ * rates of a quote is two array reads with no map lookup or boxing.
+ *
+ * Per cell:
+ * - Cabin rate: multiplier applied to the converted fare to obtain
+ *   base points (e.g. FIRST earning twice as much as ECONOMY)
+ * - Tier bonus rate: fraction of base points awarded as tier bonus
+ *
+ * Read from the "earning" configuration block (example rates; the
+ * shipped configuration earns 1.0 in every cabin, as before cabin
+ * rates existed):
+ * {
+ *   "cap": 50000,
+ *   "cabinRates": { "ECONOMY": 1.0, "PREMIUM_ECONOMY": 1.25, "BUSINESS": 1.5, "FIRST": 2.0 },
+ *   "tierBonus": { "NONE": 0.0, "SILVER": 0.15, "GOLD": 0.30, "PLATINUM": 0.50 }
+ * }
+ *
+ * Missing cabins earn at 1.0, missing tiers use {@link Tier#multiplier}
+ * and the cap defaults to {@link PointsEngine#DEFAULT_CAP}.
+ * A new table is built for every rate change and published by
+ * {@link PointsCalculator#earningTable(EarningTable)} in one volatile write.
+ */
+public final class EarningTable {
+
+    private static final int CABINS = CabinClass.values().length;
+
+    /**
+     * Table used when no rates are configured: every cabin earns at 1.0
+     * and tiers use their built-in multipliers.
+     */
+    public static final EarningTable DEFAULT = fromJson(null);
+
+    private final long[] cabinRateMicros;
+    private final long[] tierBonusMicros;
+    private final long cap;
+
+    private EarningTable(long[] cabinRateMicros, long[] tierBonusMicros, long cap) {
+        this.cabinRateMicros = cabinRateMicros;
+        this.tierBonusMicros = tierBonusMicros;
+        this.cap = cap;
+    }
+
+    /**
+     * Compiles the "earning" configuration block into a table.
+     *
+     * @param earningConfig the "earning" configuration object (may be null)
+     * @return the compiled table
+     * @throws IllegalArgumentException if a tier or cabin is unknown, or a rate or the cap is negative
+     */
+    public static EarningTable fromJson(JsonObject earningConfig) {
+        JsonObject config = earningConfig == null ? new JsonObject() : earningConfig;
+        JsonObject cabinConfig = config.getJsonObject("cabinRates", new JsonObject());
+        JsonObject tierConfig = config.getJsonObject("tierBonus", new JsonObject());
+
+        long cap = config.getLong("cap", PointsEngine.DEFAULT_CAP);
+
+        if (cap < 0) {
+            throw new IllegalArgumentException("Points cap must not be negative");
+        }
+
+        for (String cabin : cabinConfig.fieldNames()) {
+            CabinClass.valueOf(cabin);
+        }
+        for (String tier : tierConfig.fieldNames()) {
+            Tier.valueOf(tier);
+        }
+
+        Tier[] tiers = Tier.values();
+        CabinClass[] cabins = CabinClass.values();
+
+        long[] cabinRateMicros = new long[tiers.length * CABINS];
+        long[] tierBonusMicros = new long[tiers.length * CABINS];
+
+        for (Tier tier : tiers) {
+            long tierBonus = PointsEngine.toMicros(rate(tierConfig, tier.name(), tier.multiplier));
+
+            for (CabinClass cabin : cabins) {
+                int cell = tier.ordinal() * CABINS + cabin.ordinal();
+                cabinRateMicros[cell] = PointsEngine.toMicros(rate(cabinConfig, cabin.name(), 1.0));
+                tierBonusMicros[cell] = tierBonus;
+            }
+        }
+
+        return new EarningTable(cabinRateMicros, tierBonusMicros, cap);
+    }
+
+    private static double rate(JsonObject config, String key, double defaultRate) {
+        double rate = config.getDouble(key, defaultRate);
+
+        if (rate < 0 || Double.isNaN(rate)) {
+            throw new IllegalArgumentException("Earning rate for " + key + " must not be negative");
+        }
+
+        return rate;
+    }
+
+    /**
+     * @param tier customer tier
+     * @param cabin cabin class
+     * @return multiplier applied to the converted fare to obtain base points, in micros
+     */
+    public long cabinRateMicros(Tier tier, CabinClass cabin) {
+        return cabinRateMicros[tier.ordinal() * CABINS + cabin.ordinal()];
+    }
+
+    /**
+     * @param tier customer tier
+     * @param cabin cabin class
+     * @return fraction of base points awarded as tier bonus, in micros
+     */
+    public long tierBonusMicros(Tier tier, CabinClass cabin) {
+        return tierBonusMicros[tier.ordinal() * CABINS + cabin.ordinal()];
+    }
+
+    /**
+     * @return maximum total points of a quote
+     */
+    public long cap() {
+        return cap;
+    }
+}
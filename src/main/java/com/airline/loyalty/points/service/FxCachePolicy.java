@@ -0,0 +1,77 @@
+package com.airline.loyalty.points.service;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Caching rules applied by {@link FxRateClient} to retrieved FX rates.
+ *
+ * A cached rate moves through three windows as it ages:
+ * - Fresh (age below ttlMs) → served directly from memory
+ * - Stale (below ttlMs + staleWhileRevalidateMs) → served from memory
+ *   while a single background refresh is triggered
+ * - Expired → a synchronous FX call is made; if it fails, the last good
+ *   rate is still served until it is older than maxStaleMs, after which
+ *   the call fails
+ *
+ * Read from the "cache" object of the "fx" configuration block:
+ * {
+ *   "ttlMs": 60000,
+ *   "staleWhileRevalidateMs": 30000,
+ *   "maxStaleMs": 300000
+ * }
+ *
+ * A ttlMs of 0 disables caching entirely.
+ *
+ * @param ttlMs                  how long a rate is considered fresh
+ * @param staleWhileRevalidateMs additional window in which a stale rate is
+ *                               served while it is refreshed in the background
+ * @param maxStaleMs             maximum age at which a rate may still be served
+ *                               when the FX service is unavailable
+ */
+public record FxCachePolicy(
+        long ttlMs,
+        long staleWhileRevalidateMs,
+        long maxStaleMs
+) {
+
+    /**
+     * Validates that all windows are consistent.
+     *
+     * @throws IllegalArgumentException if any window is negative or
+     *         maxStaleMs is shorter than the stale-while-revalidate window
+     */
+    public FxCachePolicy {
+        if (ttlMs < 0 || staleWhileRevalidateMs < 0 || maxStaleMs < 0) {
+            throw new IllegalArgumentException("FX cache windows must not be negative");
+        }
+
+        if (ttlMs > 0 && maxStaleMs < ttlMs + staleWhileRevalidateMs) {
+            throw new IllegalArgumentException(
+                    "FX cache maxStaleMs must cover ttlMs + staleWhileRevalidateMs");
+        }
+    }
+
+    /**
+     * Reads the cache policy from the "cache" object of the FX configuration.
+     * Missing values fall back to the documented defaults.
+     *
+     * @param cacheConfig the "fx.cache" configuration object (may be null)
+     * @return the resulting cache policy
+     */
+    public static FxCachePolicy fromJson(JsonObject cacheConfig) {
+        JsonObject config = cacheConfig == null ? new JsonObject() : cacheConfig;
+
+        return new FxCachePolicy(
+                config.getLong("ttlMs", 60_000L),
+                config.getLong("staleWhileRevalidateMs", 30_000L),
+                config.getLong("maxStaleMs", 300_000L)
+        );
+    }
+
+    /**
+     * @return true if FX rates should be cached at all
+     */
+    public boolean enabled() {
+        return ttlMs > 0;
+    }
+}
@@ -1,11 +1,26 @@
 package com.airline.loyalty.points.service;
 
+import com.airline.loyalty.points.jfr.FxCallEvent;
+import com.airline.loyalty.points.metrics.LatencyHistogram;
+import com.airline.loyalty.points.resilience.BackoffPolicy;
+import com.airline.loyalty.points.resilience.CircuitBreaker;
+import com.airline.loyalty.points.resilience.CircuitOpenException;
 import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.WebClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
 /**
  * Client responsible for retrieving foreign exchange (FX) rates
  * from an external FX service.
@@ -13,8 +28,25 @@ import org.slf4j.LoggerFactory;
  * This client:
  * - Calls the configured FX endpoint
  * - Validates the HTTP response and JSON payload
- * - Retries failed requests up to a configured maximum
+ * - Retries server errors, connection failures and timeouts with
+ *   exponential backoff and jitter, within a total time budget
+ *   ({@link BackoffPolicy}); other answers, such as 404 for an unknown
+ *   currency, are final
+ * - Fails fast while its {@link CircuitBreaker} is open, and reports
+ *   each lookup to it once, as a failure only if it ended in a server
+ *   error, a connection failure or a timeout
+ * - Bounds every attempt by the configured timeout only; each caller
+ *   waits for the result until its own {@link Deadline} and then fails
+ *   with {@link DeadlineExceededException}, without affecting the call,
+ *   the other callers or the breaker; no retry is scheduled once every
+ *   caller sharing the call has given up
+ * - Emits an {@link FxCallEvent} for every call attempt to JDK Flight Recorder
+ * - Caches rates in memory according to an {@link FxCachePolicy}
+ * - Coalesces concurrent lookups for the same currency into one call
  * - Fails gracefully if the service is unavailable
+ * - Can be reconfigured at runtime: the endpoint, timeout, retry and
+ *   cache settings are one immutable snapshot swapped atomically, and
+ *   each lookup or attempt reads it once
  *
  * Expected FX service response format:
  * {
@@ -24,91 +56,508 @@ import org.slf4j.LoggerFactory;
  * If the FX service returns invalid data or remains unavailable
  * after the configured retry attempts, the returned Future fails.
  */
-public class FxRateClient {
+public class FxRateClient implements FxRateSource {
 
     private static final Logger logger = LoggerFactory.getLogger(FxRateClient.class);
 
-    private final WebClient client;
-    private final int maxRetries;
-    private final String path;
+    private final Vertx vertx;
+    private final CircuitBreaker breaker;
+
+    private volatile Settings settings;
+
+    private final Map<String, CachedRate> cache = new ConcurrentHashMap<>();
+    private final SingleFlight<String, Double> inFlight = new SingleFlight<>();
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder cacheHits = new LongAdder();
+    private final LongAdder cacheMisses = new LongAdder();
+    private final LatencyHistogram callLatency = new LatencyHistogram();
 
     /**
      * Creates a new FX rate client.
      *
+     * @param vertx the Vert.x instance used to schedule retry delays
      * @param client the Vert.x WebClient used for HTTP communication
      * @param path the FX endpoint path (e.g. "/fx")
-     * @param maxRetries maximum number of retry attempts on failure
+     * @param timeoutMs timeout for a single FX call in milliseconds
+     * @param backoff retry limits, delays and time budget
+     * @param breaker circuit breaker protecting the FX service
+     * @param cachePolicy caching rules for retrieved rates
+     */
+    public FxRateClient(Vertx vertx, WebClient client, String path, long timeoutMs,
+                        BackoffPolicy backoff, CircuitBreaker breaker,
+                        FxCachePolicy cachePolicy) {
+        this.vertx = vertx;
+        this.breaker = breaker;
+        this.settings = new Settings(client, path, timeoutMs, backoff, cachePolicy);
+    }
+
+    /**
+     * Replaces the endpoint, timeout, retry and cache settings.
+     *
+     * Lookups and attempts started afterwards use the new settings;
+     * calls already in flight complete with the previous ones. Cached
+     * rates are kept, and age under the new cache policy, unless
+     * caching is now disabled.
+     *
+     * @param client the WebClient for the FX service
+     * @param path the FX endpoint path
+     * @param timeoutMs timeout for a single FX call in milliseconds
+     * @param backoff retry limits, delays and time budget
+     * @param cachePolicy caching rules for retrieved rates
+     */
+    public void reconfigure(WebClient client, String path, long timeoutMs,
+                            BackoffPolicy backoff, FxCachePolicy cachePolicy) {
+
+        settings = new Settings(client, path, timeoutMs, backoff, cachePolicy);
+
+        if (!cachePolicy.enabled()) {
+            cache.clear();
+        }
+    }
+
+    /**
+     * @return the WebClient currently used for the FX service
      */
-    public FxRateClient(WebClient client, String path, int maxRetries) {
-        this.client = client;
-        this.path = path;
-        this.maxRetries = maxRetries;
+    public WebClient webClient() {
+        return settings.client();
     }
 
     /**
      * Retrieves the FX rate for a given currency.
      *
      * The method:
-     * 1. Calls the external FX endpoint
-     * 2. Validates the HTTP status code
-     * 3. Validates that the JSON response contains a positive "rate"
-     * 4. Retries if the request fails
+     * 1. Serves a fresh cached rate without any I/O
+     * 2. Serves a stale cached rate while one background refresh runs
+     * 3. Otherwise calls the external FX endpoint, validating the
+     *    HTTP status code and the positive "rate" field, with retries
+     * 4. Falls back to the last good rate if the call fails and the
+     *    rate is not older than the configured maximum staleness
+     *
+     * Cached rates are served regardless of the deadline. Each attempt of
+     * a remote call runs with the configured timeout whatever the deadline
+     * of the caller that started it; every caller, coalesced or not,
+     * stops waiting for it at its own deadline, and retries stop once the
+     * last of them has.
      *
      * @param currency the ISO currency code (e.g. "USD")
      * @return a Future containing the FX rate if successful,
      *         or a failed Future if unavailable
      */
+    @Override
     public Future<Double> getFxRate(String currency) {
-        return attempt(currency, 0);
+        return getFxRate(currency, Deadline.NONE);
+    }
+
+    /**
+     * Retrieves the FX rate for a given currency within a deadline.
+     *
+     * @param currency the ISO currency code (e.g. "USD")
+     * @param deadline time by which the caller needs the rate
+     * @return a Future containing the FX rate if successful,
+     *         or a failed Future if unavailable or out of time
+     * @see #getFxRate(String)
+     */
+    @Override
+    public Future<Double> getFxRate(String currency, Deadline deadline) {
+
+        FxCachePolicy cachePolicy = settings.cachePolicy();
+
+        if (!cachePolicy.enabled()) {
+            return fetchAndCache(currency, deadline);
+        }
+
+        CachedRate cached = cache.get(currency);
+
+        if (cached != null) {
+            long age = System.currentTimeMillis() - cached.fetchedAtMs;
+
+            if (age < cachePolicy.ttlMs()) {
+                cacheHits.increment();
+                return Future.succeededFuture(cached.rate);
+            }
+
+            if (age < cachePolicy.ttlMs() + cachePolicy.staleWhileRevalidateMs()) {
+                cacheHits.increment();
+                refreshInBackground(currency, cached);
+                return Future.succeededFuture(cached.rate);
+            }
+        }
+
+        cacheMisses.increment();
+
+        return fetchAndCache(currency, deadline)
+                .recover(err -> {
+                    if (cached != null
+                            && System.currentTimeMillis() - cached.fetchedAtMs < cachePolicy.maxStaleMs()) {
+
+                        logger.warn("FX unavailable, serving stale rate for {}: {}", currency, cached.rate);
+                        return Future.succeededFuture(cached.rate);
+                    }
+
+                    return Future.failedFuture(err);
+                });
+    }
+
+    /**
+     * @return number of FX retries performed after a failed attempt
+     */
+    public long retryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * @return number of lookups served from the cache (fresh or stale)
+     */
+    public long cacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * @return number of lookups that needed an FX call
+     */
+    public long cacheMisses() {
+        return cacheMisses.sum();
+    }
+
+    /**
+     * @return latency of individual FX service calls, including failures
+     */
+    public LatencyHistogram callLatency() {
+        return callLatency;
+    }
+
+    /**
+     * @return the circuit breaker protecting the FX service
+     */
+    public CircuitBreaker circuitBreaker() {
+        return breaker;
+    }
+
+    /**
+     * @return number of FX lookups that joined an in-flight call
+     *         instead of issuing their own
+     */
+    public long coalescedCalls() {
+        return inFlight.coalesced();
+    }
+
+    /**
+     * Calls the FX service and stores a successful result in the cache.
+     * Concurrent calls for the same currency share a single request.
+     *
+     * A caller with a short budget cannot cut the shared request short
+     * for the others: the deadline bounds how long this caller waits for
+     * it, and retries continue while any caller still waits.
+     *
+     * @param currency the currency code
+     * @param deadline time by which the caller needs the rate
+     * @return a Future containing the FX rate, or failing with
+     *         {@link DeadlineExceededException} at the deadline
+     */
+    private Future<Double> fetchAndCache(String currency, Deadline deadline) {
+
+        if (deadline.isExpired()) {
+            return Future.failedFuture(new DeadlineExceededException("fx"));
+        }
+
+        Future<Double> shared = inFlight.execute(currency, deadline, waiters ->
+                fetch(currency, waiters)
+                        .onSuccess(rate -> {
+                            if (settings.cachePolicy().enabled()) {
+                                cache.put(currency, new CachedRate(rate, System.currentTimeMillis()));
+                            }
+                        }));
+
+        return deadline.bound(vertx, shared, "fx");
+    }
+
+    /**
+     * Fetches the current rate from the FX service, bypassing the cache,
+     * and stores it in the cache if caching is enabled.
+     *
+     * Used for bulk background refreshes; the call still goes through
+     * in-flight coalescing, the circuit breaker and retries.
+     *
+     * @param currency the ISO currency code
+     * @return a Future containing the fetched FX rate or failure
+     */
+    public Future<Double> refresh(String currency) {
+        return fetchAndCache(currency, Deadline.NONE);
     }
 
     /**
-     * Attempts to retrieve the FX rate, retrying on failure.
+     * Starts a background refresh for a stale entry, unless one is
+     * already running for it. Failures keep the stale entry in place.
+     *
+     * @param currency the currency code
+     * @param cached the stale cache entry being served
+     */
+    private void refreshInBackground(String currency, CachedRate cached) {
+
+        if (!cached.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+
+        fetchAndCache(currency, Deadline.NONE)
+                .onComplete(ar -> {
+                    cached.refreshing.set(false);
+
+                    if (ar.failed()) {
+                        logger.warn("Background FX refresh failed for {}: {}",
+                                currency, ar.cause().getMessage());
+                    }
+                });
+    }
+
+    /**
+     * Retrieves the FX rate as one circuit breaker call.
+     *
+     * Asks the breaker for permission once and fails immediately with
+     * {@link CircuitOpenException} if the circuit is open. The outcome
+     * of the whole retry chain is then reported once: as a failure if
+     * it ended in a server error, a connection failure or a timeout,
+     * and as a success otherwise, since any other answer shows the
+     * service is up.
+     *
+     * @param currency the currency code
+     * @param waiters latest deadline of the callers waiting for the rate
+     * @return a Future containing the FX rate or failure
+     */
+    private Future<Double> fetch(String currency, Supplier<Deadline> waiters) {
+
+        if (!breaker.tryAcquire()) {
+            logger.warn("FX circuit open, failing fast for {}", currency);
+            FxCallEvent event = new FxCallEvent();
+            event.begin();
+            commitEvent(event, currency, 0, false);
+            return Future.failedFuture(new CircuitOpenException(breaker.name()));
+        }
+
+        return attempt(currency, 0, System.currentTimeMillis(), waiters)
+                .onComplete(ar -> {
+                    if (ar.failed() && transientFailure(ar.cause())) {
+                        breaker.onFailure();
+                    } else {
+                        breaker.onSuccess();
+                    }
+                });
+    }
+
+    /**
+     * @param err failure of an FX attempt
+     * @return true for server errors, connection failures and timeouts
+     */
+    private static boolean transientFailure(Throwable err) {
+        return !(err instanceof FxServiceException answered) || answered.serverError();
+    }
+
+    /**
+     * Attempts to retrieve the FX rate, retrying transient failures.
+     *
+     * Server errors, connection failures and timeouts are retried after
+     * a jittered exponential delay, unless the retry limit is reached,
+     * the delay would exceed the remaining retry budget, or every caller
+     * will have given up by the end of the delay; the last failure is
+     * then returned. Other failures are returned at once.
      *
      * @param currency the currency code
      * @param retry current retry attempt number
+     * @param startedAtMs time the first attempt started
+     * @param waiters latest deadline of the callers waiting for the rate
+     * @return a Future containing the FX rate or failure
+     */
+    private Future<Double> attempt(String currency, int retry, long startedAtMs, Supplier<Deadline> waiters) {
+
+        Settings current = settings;
+        BackoffPolicy backoff = current.backoff();
+
+        FxCallEvent event = new FxCallEvent();
+        event.begin();
+
+        return call(current, currency, current.timeoutMs(), event)
+                .onComplete(ar -> commitEvent(event, currency, retry, ar.succeeded()))
+                .recover(err -> {
+                    logger.warn("FX call failed (attempt {}): {}", retry + 1, err.getMessage());
+
+                    if (!transientFailure(err)) {
+                        return Future.failedFuture(err);
+                    }
+
+                    if (retry >= backoff.maxRetries()) {
+                        logger.error("FX unavailable after retries");
+                        return Future.failedFuture(err);
+                    }
+
+                    long delayMs = backoff.delayMs(retry);
+                    long elapsedMs = System.currentTimeMillis() - startedAtMs;
+
+                    if (elapsedMs + delayMs >= backoff.budgetMs()) {
+                        logger.error("FX retry budget exhausted after {} ms", elapsedMs);
+                        return Future.failedFuture(err);
+                    }
+
+                    if (waiters.get().remainingMs() <= delayMs) {
+                        logger.warn("FX retry skipped, no caller waits for {} any more", currency);
+                        return Future.failedFuture(err);
+                    }
+
+                    retries.increment();
+
+                    return delay(delayMs)
+                            .compose(v -> attempt(currency, retry + 1, startedAtMs, waiters));
+                });
+    }
+
+    /**
+     * Performs a single FX call and validates the response.
+     *
+     * @param current settings of the attempt
+     * @param currency the currency code
+     * @param callTimeoutMs timeout for this call in milliseconds
+     * @param event flight recorder event receiving the response status
      * @return a Future containing the FX rate or failure
      */
-    private Future<Double> attempt(String currency, int retry) {
+    private Future<Double> call(Settings current, String currency, long callTimeoutMs, FxCallEvent event) {
+
+        logger.debug("Calling FX endpoint: {}", current.path());
+        long startNanos = System.nanoTime();
 
-        logger.info("Calling FX endpoint: {}", path);
-        return client.get(path)
+        return current.client().get(current.path())
                 .addQueryParam("currency", currency)
+                .timeout(callTimeoutMs)
                 .send()
                 .compose(resp -> {
 
+                    event.status = resp.statusCode();
+
                     if (resp.statusCode() != 200) {
                         logger.warn("FX service returned non-200 status: {}", resp.statusCode());
-                        return Future.failedFuture("FX service error");
+                        return Future.failedFuture(new FxServiceException(resp.statusCode(), "FX service error"));
                     }
 
                     JsonObject body = resp.bodyAsJsonObject();
 
                     if (body == null || !body.containsKey("rate")) {
                         logger.error("Invalid FX response: missing 'rate' field");
-                        return Future.failedFuture("Invalid FX service response");
+                        return Future.failedFuture(new FxServiceException(200, "Invalid FX service response"));
                     }
 
                     Double rate = body.getDouble("rate");
 
                     if (rate == null || rate <= 0) {
                         logger.error("Invalid FX rate received: {}", rate);
-                        return Future.failedFuture("Invalid FX rate");
+                        return Future.failedFuture(new FxServiceException(200, "Invalid FX rate"));
                     }
 
                     logger.debug("FX rate retrieved for {}: {}", currency, rate);
 
                     return Future.succeededFuture(rate);
                 })
-                .recover(err -> {
-                    logger.warn("FX call failed (attempt {}): {}", retry + 1, err.getMessage());
+                .onComplete(ar -> callLatency.recordSince(startNanos));
+    }
 
-                    if (retry < maxRetries) {
-                        return attempt(currency, retry + 1);
-                    }
+    /**
+     * Copies the cached rates for persistence in a warm-start snapshot.
+     *
+     * @return the cached rates with the time they were retrieved
+     */
+    public List<WarmStartSnapshot.FxEntry> exportCache() {
 
-                    logger.error("FX unavailable after retries");
-                    return Future.failedFuture("FX unavailable after retries");
-                });
+        List<WarmStartSnapshot.FxEntry> entries = new ArrayList<>(cache.size());
+
+        cache.forEach((currency, cached) ->
+                entries.add(new WarmStartSnapshot.FxEntry(currency, cached.rate, cached.fetchedAtMs)));
+
+        return entries;
+    }
+
+    /**
+     * Seeds the cache from a warm-start snapshot.
+     *
+     * Entries keep their original retrieval time, so they age through
+     * the fresh, stale and expired windows exactly as if they had never
+     * left memory. Entries older than maxStaleMs, or for currencies
+     * already cached, are skipped.
+     *
+     * @param entries rates read from the snapshot
+     * @return number of rates restored
+     */
+    public int importCache(List<WarmStartSnapshot.FxEntry> entries) {
+
+        FxCachePolicy cachePolicy = settings.cachePolicy();
+
+        if (!cachePolicy.enabled()) {
+            return 0;
+        }
+
+        long nowMs = System.currentTimeMillis();
+        int restored = 0;
+
+        for (WarmStartSnapshot.FxEntry entry : entries) {
+            if (nowMs - entry.fetchedAtMs() < cachePolicy.maxStaleMs() && entry.rate() > 0
+                    && cache.putIfAbsent(entry.currency(), new CachedRate(entry.rate(), entry.fetchedAtMs())) == null) {
+                restored++;
+            }
+        }
+
+        return restored;
+    }
+
+    /**
+     * Commits the flight recorder event of an attempt if it is enabled.
+     *
+     * @param event the attempt's event
+     * @param currency the currency code
+     * @param retry retry number of the attempt (0 for the first attempt)
+     * @param succeeded whether the attempt returned a valid rate
+     */
+    private static void commitEvent(FxCallEvent event, String currency, int retry, boolean succeeded) {
+        event.end();
+
+        if (event.shouldCommit()) {
+            event.currency = currency;
+            event.attempt = retry + 1;
+            event.succeeded = succeeded;
+            event.commit();
+        }
+    }
+
+    /**
+     * @param delayMs delay in milliseconds
+     * @return a Future completed after the delay
+     */
+    private Future<Void> delay(long delayMs) {
+
+        if (delayMs <= 0) {
+            return Future.succeededFuture();
+        }
+
+        Promise<Void> promise = Promise.promise();
+        vertx.setTimer(delayMs, id -> promise.complete());
+        return promise.future();
+    }
+
+    /**
+     * Settings that may change at runtime, replaced as a whole.
+     */
+    private record Settings(WebClient client, String path, long timeoutMs,
+                            BackoffPolicy backoff, FxCachePolicy cachePolicy) {
+    }
+
+    /**
+     * A rate held in the cache together with the time it was retrieved.
+     * The refreshing flag ensures only one background refresh per entry.
+     */
+    private static final class CachedRate {
+
+        private final Double rate;
+        private final long fetchedAtMs;
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+
+        private CachedRate(Double rate, long fetchedAtMs) {
+            this.rate = rate;
+            this.fetchedAtMs = fetchedAtMs;
+        }
     }
 }
@@ -0,0 +1,293 @@
+package com.airline.loyalty.points.service;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * FX rate source that serves every supported currency from an immutable
+ * snapshot refreshed in the background.
+ *
+ * This source:
+ * - Fetches the rates of all given currencies through the {@link FxRateClient}
+ *   on a periodic timer, with random jitter added to every interval
+ * - Publishes the rates fetched by a refresh merged over the previous
+ *   snapshot, behind a single volatile reference, so one failing
+ *   currency does not hold back the others
+ * - Tracks the time each rate was fetched, and keeps serving a rate
+ *   whose refresh failed until it is older than maxAgeMs
+ * - Serves lookups from the snapshot without blocking or I/O
+ * - Delegates to the FX client for currencies not in the snapshot, or
+ *   whose rate is too old
+ * - Stops refreshing once {@link #close()} is called
+ *
+ * Read from the "refresh" object of the "fx" configuration block:
+ * {
+ *   "enabled": true,
+ *   "intervalMs": 30000,
+ *   "jitterMs": 5000,
+ *   "maxAgeMs": 300000
+ * }
+ */
+public class FxRateSnapshotRefresher implements FxRateSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(FxRateSnapshotRefresher.class);
+
+    private final Vertx vertx;
+    private final FxRateClient delegate;
+    private volatile Set<String> currencies;
+    private final long intervalMs;
+    private final long jitterMs;
+    private final long maxAgeMs;
+
+    private volatile Snapshot snapshot;
+
+    private volatile long timerId = -1;
+    private volatile boolean closed;
+
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder refreshFailures = new LongAdder();
+    private final LongAdder snapshotHits = new LongAdder();
+
+    /**
+     * Creates a refresher. Call {@link #start()} to begin refreshing.
+     *
+     * @param vertx the Vert.x instance used for timers
+     * @param delegate FX client used for refreshes and as fallback
+     * @param currencies currencies included in every snapshot
+     * @param intervalMs base delay between refreshes
+     * @param jitterMs maximum random delay added to each interval
+     * @param maxAgeMs maximum snapshot age at which rates are still served
+     */
+    public FxRateSnapshotRefresher(Vertx vertx, FxRateClient delegate, Set<String> currencies,
+                                   long intervalMs, long jitterMs, long maxAgeMs) {
+
+        if (intervalMs <= 0 || jitterMs < 0 || maxAgeMs <= 0) {
+            throw new IllegalArgumentException("FX refresh intervalMs and maxAgeMs must be positive");
+        }
+
+        this.vertx = vertx;
+        this.delegate = delegate;
+        this.currencies = Set.copyOf(currencies);
+        this.intervalMs = intervalMs;
+        this.jitterMs = jitterMs;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    /**
+     * Wraps the FX client according to the "refresh" configuration object.
+     *
+     * @param vertx the Vert.x instance used for timers
+     * @param delegate FX client used for refreshes and as fallback
+     * @param currencies currencies included in every snapshot
+     * @param refreshConfig the "fx.refresh" configuration object (may be null)
+     * @return a started refresher, or the client itself if refreshing is disabled
+     */
+    public static FxRateSource fromJson(Vertx vertx, FxRateClient delegate, Set<String> currencies,
+                                        JsonObject refreshConfig) {
+        JsonObject config = refreshConfig == null ? new JsonObject() : refreshConfig;
+
+        if (!config.getBoolean("enabled", false)) {
+            return delegate;
+        }
+
+        FxRateSnapshotRefresher refresher = new FxRateSnapshotRefresher(
+                vertx,
+                delegate,
+                currencies,
+                config.getLong("intervalMs", 30_000L),
+                config.getLong("jitterMs", 5_000L),
+                config.getLong("maxAgeMs", 300_000L)
+        );
+
+        refresher.start();
+        return refresher;
+    }
+
+    /**
+     * Runs the first refresh immediately and schedules the next ones.
+     */
+    public void start() {
+        refresh().onComplete(ar -> scheduleNext());
+    }
+
+    /**
+     * Cancels the refresh timer; a refresh in flight completes but
+     * schedules no further one. Lookups keep being served.
+     */
+    public void close() {
+        closed = true;
+
+        long id = timerId;
+
+        if (id >= 0) {
+            vertx.cancelTimer(id);
+        }
+    }
+
+    /**
+     * Replaces the currencies included in snapshots, starting with the
+     * next refresh. Rates of removed currencies stay in the current
+     * snapshot until then.
+     *
+     * @param currencies currencies included in every snapshot
+     */
+    public void currencies(Set<String> currencies) {
+        this.currencies = Set.copyOf(currencies);
+    }
+
+    @Override
+    public Future<Double> getFxRate(String currency, Deadline deadline) {
+
+        Snapshot current = snapshot;
+
+        if (current != null) {
+            Rate rate = current.rates.get(currency);
+
+            if (rate != null && System.currentTimeMillis() - rate.fetchedAtMs <= maxAgeMs) {
+                snapshotHits.increment();
+                return Future.succeededFuture(rate.rate);
+            }
+        }
+
+        return delegate.getFxRate(currency, deadline);
+    }
+
+    private void scheduleNext() {
+
+        if (closed) {
+            return;
+        }
+
+        long delayMs = intervalMs + (jitterMs > 0 ? ThreadLocalRandom.current().nextLong(jitterMs + 1) : 0);
+        timerId = vertx.setTimer(delayMs, id -> refresh().onComplete(ar -> scheduleNext()));
+    }
+
+    /**
+     * Fetches every currency and publishes the rates that succeeded,
+     * merged over the rates of the previous snapshot that are still
+     * configured.
+     *
+     * @return a Future completed once the refresh attempt is over
+     */
+    private Future<Void> refresh() {
+
+        List<String> ordered = new ArrayList<>(currencies);
+        List<Future<Double>> fetches = new ArrayList<>(ordered.size());
+
+        for (String currency : ordered) {
+            fetches.add(delegate.refresh(currency));
+        }
+
+        return Future.join(fetches)
+                .transform(ar -> {
+                    Snapshot previous = snapshot;
+                    long nowMs = System.currentTimeMillis();
+                    Map<String, Rate> rates = new HashMap<>(ordered.size() * 2);
+                    int failed = 0;
+
+                    for (int i = 0; i < ordered.size(); i++) {
+                        String currency = ordered.get(i);
+                        Future<Double> fetch = fetches.get(i);
+
+                        if (fetch.succeeded()) {
+                            rates.put(currency, new Rate(fetch.result(), nowMs));
+                        } else {
+                            failed++;
+
+                            Rate kept = previous == null ? null : previous.rates.get(currency);
+
+                            if (kept != null) {
+                                rates.put(currency, kept);
+                            }
+
+                            logger.warn("FX snapshot refresh failed for {}, keeping rate aged {} ms: {}",
+                                    currency, kept == null ? -1 : nowMs - kept.fetchedAtMs,
+                                    fetch.cause().getMessage());
+                        }
+                    }
+
+                    if (failed > 0) {
+                        refreshFailures.increment();
+                    }
+
+                    if (failed < ordered.size()) {
+                        snapshot = Snapshot.of(rates);
+                        refreshes.increment();
+
+                        logger.debug("FX snapshot published | currencies={} | failed={}", rates.size(), failed);
+                    }
+
+                    return Future.<Void>succeededFuture();
+                });
+    }
+
+    /**
+     * @return age in milliseconds of the oldest rate of the current
+     *         snapshot, or -1 if none has been published yet
+     */
+    public long snapshotAgeMs() {
+        Snapshot current = snapshot;
+        return current == null ? -1 : System.currentTimeMillis() - current.oldestFetchedAtMs;
+    }
+
+    /**
+     * @return number of snapshots published
+     */
+    public long refreshes() {
+        return refreshes.sum();
+    }
+
+    /**
+     * @return number of refreshes in which at least one currency failed
+     */
+    public long refreshFailures() {
+        return refreshFailures.sum();
+    }
+
+    /**
+     * @return number of lookups served from the snapshot
+     */
+    public long snapshotHits() {
+        return snapshotHits.sum();
+    }
+
+    /**
+     * @return the FX client used for refreshes and as fallback
+     */
+    public FxRateClient delegate() {
+        return delegate;
+    }
+
+    /**
+     * A published rate and the time it was fetched.
+     */
+    private record Rate(Double rate, long fetchedAtMs) {
+    }
+
+    /**
+     * Immutable rates of one refresh, with the fetch time of the oldest.
+     */
+    private record Snapshot(Map<String, Rate> rates, long oldestFetchedAtMs) {
+
+        static Snapshot of(Map<String, Rate> rates) {
+            long oldest = Long.MAX_VALUE;
+
+            for (Rate rate : rates.values()) {
+                oldest = Math.min(oldest, rate.fetchedAtMs);
+            }
+
+            return new Snapshot(Map.copyOf(rates), oldest);
+        }
+    }
+}
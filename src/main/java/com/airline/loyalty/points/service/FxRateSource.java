@@ -0,0 +1,38 @@
+package com.airline.loyalty.points.service;
+
+import io.vertx.core.Future;
+
+/**
+ * Source of FX rates used by {@link PointsCalculator}.
+ *
+ * Implementations:
+ * - {@link FxRateClient}: remote FX service over HTTP, with caching,
+ *   retries and a circuit breaker
+ * - {@link MappedFxRateTable}: local binary rate table published by
+ *   treasury, memory-mapped and reloaded when the file changes
+ *
+ * The implementation is selected with "fx.source" in the configuration.
+ */
+public interface FxRateSource {
+
+    /**
+     * Retrieves the FX rate for a given currency.
+     *
+     * @param currency the ISO currency code (e.g. "USD")
+     * @return a Future containing the FX rate if successful,
+     *         or a failed Future if unavailable
+     */
+    default Future<Double> getFxRate(String currency) {
+        return getFxRate(currency, Deadline.NONE);
+    }
+
+    /**
+     * Retrieves the FX rate for a given currency within a deadline.
+     *
+     * @param currency the ISO currency code (e.g. "USD")
+     * @param deadline time by which the caller needs the rate
+     * @return a Future containing the FX rate if successful,
+     *         or a failed Future if unavailable or out of time
+     */
+    Future<Double> getFxRate(String currency, Deadline deadline);
+}
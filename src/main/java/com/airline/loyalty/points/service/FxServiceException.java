@@ -0,0 +1,37 @@
+package com.airline.loyalty.points.service;
+
+/**
+ * Signals that the FX service answered, but not with a usable rate:
+ * an error status or an invalid payload.
+ *
+ * Only server errors (5xx) say anything about the health of the
+ * service; they are retried and count against its circuit breaker.
+ * Any other answer (e.g. 404 for an unknown currency) is final.
+ */
+public class FxServiceException extends RuntimeException {
+
+    private final int status;
+
+    /**
+     * @param status HTTP status of the response
+     * @param message failure message
+     */
+    public FxServiceException(int status, String message) {
+        super(message, null, false, false);
+        this.status = status;
+    }
+
+    /**
+     * @return HTTP status of the response
+     */
+    public int status() {
+        return status;
+    }
+
+    /**
+     * @return true if the service reported a server error
+     */
+    public boolean serverError() {
+        return status >= 500;
+    }
+}
@@ -0,0 +1,385 @@
+package com.airline.loyalty.points.service;
+
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * FX rate source backed by a binary rate table published by treasury.
+ *
+ * This source:
+ * - Memory-maps the rate file and reads rates straight from the mapping
+ * - Answers lookups without locks, I/O or allocation beyond the result
+ * - Checks the file periodically and maps the new version when it changes
+ * - Publishes each new table atomically; lookups see either the old or
+ *   the new table, never a mix
+ * - Keeps serving the current table if a new file is invalid
+ * - Stops serving rates once the table was published more than
+ *   maxAgeMs ago, so a stalled treasury feed fails loudly instead of
+ *   quoting with outdated rates
+ *
+ * File layout (big-endian):
+ * - Header, 24 bytes:
+ *   int magic ("FXRT"), short format (1), short entry count,
+ *   long table version, long publishedAt (epoch milliseconds)
+ * - Entries, 12 bytes each, sorted by currency:
+ *   3 ASCII bytes currency code, 1 padding byte, double rate
+ *
+ * Publishers must replace the file atomically (write a temporary file,
+ * then rename it over the old one), as {@link #write} does. The previous
+ * mapping stays valid until it is no longer referenced.
+ *
+ * Read from the "mapped" object of the "fx" configuration block:
+ * {
+ *   "path": "/var/lib/treasury/fx-rates.bin",
+ *   "refreshIntervalMs": 5000,
+ *   "maxAgeMs": 86400000
+ * }
+ *
+ * A maxAgeMs of 0 serves a table however old it is.
+ */
+public class MappedFxRateTable implements FxRateSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(MappedFxRateTable.class);
+
+    static final int MAGIC = 0x46585254;
+    static final short FORMAT = 1;
+    static final int HEADER_BYTES = 24;
+    static final int ENTRY_BYTES = 12;
+
+    private final Path path;
+    private final long maxAgeMs;
+
+    private volatile Table table;
+    private volatile long timerId = -1;
+
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder reloadFailures = new LongAdder();
+
+    /**
+     * Creates a source backed by the given rate file.
+     * The file is not read until {@link #reload()} is called.
+     *
+     * @param path the rate table file
+     * @param maxAgeMs maximum time since publication at which rates are
+     *                 still served, or 0 for no limit
+     */
+    public MappedFxRateTable(Path path, long maxAgeMs) {
+
+        if (maxAgeMs < 0) {
+            throw new IllegalArgumentException("fx.mapped.maxAgeMs must not be negative");
+        }
+
+        this.path = path;
+        this.maxAgeMs = maxAgeMs;
+    }
+
+    /**
+     * Creates a source from the "mapped" configuration object,
+     * maps the current table and schedules periodic change checks.
+     *
+     * @param vertx the Vert.x instance used for the refresh timer
+     * @param mappedConfig the "fx.mapped" configuration object
+     * @return the rate source
+     * @throws IllegalArgumentException if no path is configured
+     */
+    public static MappedFxRateTable fromJson(Vertx vertx, JsonObject mappedConfig) {
+        JsonObject config = mappedConfig == null ? new JsonObject() : mappedConfig;
+
+        String file = config.getString("path");
+
+        if (file == null || file.isBlank()) {
+            throw new IllegalArgumentException("fx.mapped.path is required when fx.source is \"mapped\"");
+        }
+
+        MappedFxRateTable source = new MappedFxRateTable(Path.of(file), config.getLong("maxAgeMs", 86_400_000L));
+        source.reload();
+
+        long refreshIntervalMs = config.getLong("refreshIntervalMs", 5_000L);
+
+        if (refreshIntervalMs > 0) {
+            source.timerId = vertx.setPeriodic(refreshIntervalMs, id ->
+                    vertx.executeBlocking(() -> source.reload(), false));
+        }
+
+        return source;
+    }
+
+    /**
+     * Cancels the periodic rate file change check started by {@link #fromJson}.
+     *
+     * @param vertx the Vert.x instance the timer runs on
+     */
+    public void close(Vertx vertx) {
+
+        long id = timerId;
+
+        if (id >= 0) {
+            vertx.cancelTimer(id);
+            timerId = -1;
+        }
+    }
+
+    /**
+     * Looks up the rate for a currency in the current table.
+     * The deadline is not used, as the lookup never waits.
+     *
+     * @param currency the ISO currency code (e.g. "USD")
+     * @param deadline ignored
+     * @return a Future containing the FX rate, or a failed Future if the
+     *         table is not loaded, is older than maxAgeMs or does not
+     *         contain the currency
+     */
+    @Override
+    public Future<Double> getFxRate(String currency, Deadline deadline) {
+
+        Table current = table;
+
+        if (current == null) {
+            return Future.failedFuture("FX rate table not loaded");
+        }
+
+        if (maxAgeMs > 0 && System.currentTimeMillis() - current.publishedAtMs > maxAgeMs) {
+            return Future.failedFuture("FX rate table version " + current.version + " is stale");
+        }
+
+        double rate = current.rate(currency);
+
+        if (Double.isNaN(rate)) {
+            return Future.failedFuture("FX rate not available for " + currency);
+        }
+
+        return Future.succeededFuture(rate);
+    }
+
+    /**
+     * Maps the rate file again if it changed since the last load.
+     * Blocking; must not be called on an event loop after startup.
+     *
+     * @return true if a new table was published
+     */
+    public boolean reload() {
+
+        try {
+            long modifiedMs = Files.getLastModifiedTime(path).toMillis();
+            Table current = table;
+
+            if (current != null && current.lastModifiedMs == modifiedMs) {
+                return false;
+            }
+
+            MappedByteBuffer buffer;
+
+            try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+                buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            }
+
+            Table loaded = Table.of(buffer, modifiedMs);
+
+            if (current != null && loaded.version < current.version) {
+                throw new IllegalStateException("Rate table version " + loaded.version
+                        + " is older than loaded version " + current.version);
+            }
+
+            table = loaded;
+            reloads.increment();
+
+            logger.info("FX rate table mapped | path={} | version={} | publishedAt={} | currencies={}",
+                    path, loaded.version, loaded.publishedAtMs, loaded.codes.length);
+
+            if (maxAgeMs > 0 && System.currentTimeMillis() - loaded.publishedAtMs > maxAgeMs) {
+                logger.warn("FX rate table version {} is older than {} ms, rates are not served",
+                        loaded.version, maxAgeMs);
+            }
+            return true;
+
+        } catch (IOException | RuntimeException e) {
+            reloadFailures.increment();
+            logger.error("FX rate table reload failed, keeping version {}: {}",
+                    table == null ? "none" : table.version, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Writes a rate table in the mapped format, replacing the target
+     * atomically.
+     *
+     * @param target the rate table file
+     * @param version table version
+     * @param publishedAtMs publication time in epoch milliseconds
+     * @param rates rates by three-letter currency code
+     * @throws IOException if the file cannot be written
+     */
+    public static void write(Path target, long version, long publishedAtMs,
+                             Map<String, Double> rates) throws IOException {
+
+        String[] currencies = rates.keySet().toArray(String[]::new);
+        Arrays.sort(currencies);
+
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + currencies.length * ENTRY_BYTES)
+                .order(ByteOrder.BIG_ENDIAN)
+                .putInt(MAGIC)
+                .putShort(FORMAT)
+                .putShort((short) currencies.length)
+                .putLong(version)
+                .putLong(publishedAtMs);
+
+        for (String currency : currencies) {
+            if (currency.length() != 3) {
+                throw new IllegalArgumentException("Invalid currency code: " + currency);
+            }
+            buffer.put((byte) currency.charAt(0))
+                    .put((byte) currency.charAt(1))
+                    .put((byte) currency.charAt(2))
+                    .put((byte) 0)
+                    .putDouble(rates.get(currency));
+        }
+
+        Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.write(temp, buffer.array());
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * @return version of the current table, or -1 if none is loaded
+     */
+    public long version() {
+        Table current = table;
+        return current == null ? -1 : current.version;
+    }
+
+    /**
+     * @return publication time of the current table, or -1 if none is loaded
+     */
+    public long publishedAtMs() {
+        Table current = table;
+        return current == null ? -1 : current.publishedAtMs;
+    }
+
+    /**
+     * @return time since the current table was published in milliseconds,
+     *         or -1 if none is loaded
+     */
+    public long ageMs() {
+        Table current = table;
+        return current == null ? -1 : System.currentTimeMillis() - current.publishedAtMs;
+    }
+
+    /**
+     * @return number of tables mapped
+     */
+    public long reloads() {
+        return reloads.sum();
+    }
+
+    /**
+     * @return number of failed reload attempts
+     */
+    public long reloadFailures() {
+        return reloadFailures.sum();
+    }
+
+    /**
+     * One validated, immutable version of the rate table.
+     *
+     * Currency codes are packed into ints and kept on the heap for
+     * binary search; rates are read from the mapping by absolute index,
+     * which does not touch the buffer position and is safe to share
+     * between threads.
+     */
+    private static final class Table {
+
+        private final ByteBuffer buffer;
+        private final int[] codes;
+        private final long version;
+        private final long publishedAtMs;
+        private final long lastModifiedMs;
+
+        private Table(ByteBuffer buffer, int[] codes, long version, long publishedAtMs, long lastModifiedMs) {
+            this.buffer = buffer;
+            this.codes = codes;
+            this.version = version;
+            this.publishedAtMs = publishedAtMs;
+            this.lastModifiedMs = lastModifiedMs;
+        }
+
+        static Table of(ByteBuffer buffer, long lastModifiedMs) {
+
+            buffer.order(ByteOrder.BIG_ENDIAN);
+
+            if (buffer.limit() < HEADER_BYTES || buffer.getInt(0) != MAGIC) {
+                throw new IllegalStateException("Not an FX rate table");
+            }
+
+            if (buffer.getShort(4) != FORMAT) {
+                throw new IllegalStateException("Unsupported FX rate table format " + buffer.getShort(4));
+            }
+
+            int count = Short.toUnsignedInt(buffer.getShort(6));
+
+            if (buffer.limit() != HEADER_BYTES + count * ENTRY_BYTES) {
+                throw new IllegalStateException("Truncated FX rate table");
+            }
+
+            int[] codes = new int[count];
+
+            for (int i = 0; i < count; i++) {
+                int offset = HEADER_BYTES + i * ENTRY_BYTES;
+                codes[i] = buffer.getInt(offset);
+                double rate = buffer.getDouble(offset + 4);
+
+                if (i > 0 && codes[i] <= codes[i - 1]) {
+                    throw new IllegalStateException("FX rate table entries are not sorted");
+                }
+
+                if (!(rate > 0) || Double.isInfinite(rate)) {
+                    throw new IllegalStateException("Invalid FX rate at entry " + i);
+                }
+            }
+
+            return new Table(buffer, codes, buffer.getLong(8), buffer.getLong(16), lastModifiedMs);
+        }
+
+        /**
+         * @return the rate, or NaN if the currency is not in the table
+         */
+        double rate(String currency) {
+
+            if (currency == null || currency.length() != 3) {
+                return Double.NaN;
+            }
+
+            int index = Arrays.binarySearch(codes, pack(currency));
+
+            return index < 0
+                    ? Double.NaN
+                    : buffer.getDouble(HEADER_BYTES + index * ENTRY_BYTES + 4);
+        }
+
+        /**
+         * Packs a three-letter code the same way it is stored:
+         * three bytes followed by a zero padding byte.
+         */
+        private static int pack(String currency) {
+            return (currency.charAt(0) & 0xFF) << 24
+                    | (currency.charAt(1) & 0xFF) << 16
+                    | (currency.charAt(2) & 0xFF) << 8;
+        }
+    }
+}
@@ -2,43 +2,81 @@ package com.airline.loyalty.points.service;
 
 import com.airline.loyalty.points.model.QuoteRequest;
 import com.airline.loyalty.points.model.QuoteResponse;
+import io.vertx.core.AsyncResult;
 import io.vertx.core.Future;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * Service responsible for calculating loyalty points for a flight booking.
  *
  * The calculation includes:
  * - FX conversion to base currency
+ * - Cabin-based earning rate
  * - Tier-based bonus multiplier
  * - Promotional bonus (if applicable)
  * - Global points cap enforcement
  *
  * This class is asynchronous and relies on:
- * - FxRateClient for exchange rate retrieval
+ * - An FxRateSource for exchange rate retrieval (remote or local table)
  * - PromoClient for promotional bonus calculation
  *
  * Business Rules:
- * - Base points = fareAmount × FX rate (rounded down)
+ * - Base points = fareAmount × FX rate × cabin rate (rounded down)
+ * - All arithmetic is fixed-point and exact, see {@link PointsEngine}
  * - Tier bonus = basePoints × tier multiplier
+ * - Cabin rates and tier multipliers come from the current {@link EarningTable}
  * - Promo bonus applied on basePoints
- * - Total points capped at 50,000
+ * - Total points capped at the configured cap (50,000 by default)
  */
 public class PointsCalculator {
 
-    private static final int CAP = 50_000;
-
-    private final FxRateClient fxClient;
+    private final FxRateSource fxClient;
     private final PromoClient promoClient;
 
+    private volatile EarningTable earningTable;
+
+    /**
+     * Creates a new PointsCalculator using the default earning rates.
+     *
+     * @param fxClient source used to retrieve foreign exchange rates
+     * @param promoClient client used to retrieve promotional bonus details
+     */
+    public PointsCalculator(FxRateSource fxClient, PromoClient promoClient) {
+        this(fxClient, promoClient, EarningTable.DEFAULT);
+    }
+
     /**
      * Creates a new PointsCalculator.
      *
-     * @param fxClient client used to retrieve foreign exchange rates
+     * @param fxClient source used to retrieve foreign exchange rates
      * @param promoClient client used to retrieve promotional bonus details
+     * @param earningTable cabin and tier earning rates
      */
-    public PointsCalculator(FxRateClient fxClient, PromoClient promoClient) {
+    public PointsCalculator(FxRateSource fxClient, PromoClient promoClient, EarningTable earningTable) {
         this.fxClient = fxClient;
         this.promoClient = promoClient;
+        this.earningTable = earningTable;
+    }
+
+    /**
+     * Publishes new earning rates. Quotes computed after this call use
+     * the new table; a quote never mixes rates of two tables.
+     *
+     * @param earningTable the new cabin and tier earning rates
+     */
+    public void earningTable(EarningTable earningTable) {
+        this.earningTable = earningTable;
+    }
+
+    /**
+     * @return the earning rates currently in use
+     */
+    public EarningTable earningTable() {
+        return earningTable;
     }
 
 
@@ -46,39 +84,187 @@ public class PointsCalculator {
      * Calculates total loyalty points for a given quote request.
      *
      * Processing steps:
-     * 1. Fetch FX rate for the requested currency
-     * 2. Calculate base points from fare amount
+     * 1. Fetch FX rate and promo terms in parallel
+     * 2. Calculate base points from fare amount and cabin rate
      * 3. Apply customer tier bonus
      * 4. Apply promotional bonus (if valid)
-     * 5. Enforce maximum cap (50,000 points)
+     * 5. Enforce the configured maximum cap
      *
-     * If the promo service fails, calculation continues without promo bonus.
+     * Latency is bounded by the slower of the two downstream calls
+     * rather than their sum. If the promo service fails, calculation
+     * continues without promo bonus.
      *
      * @param req the incoming quote request containing fare and customer details
      * @return a Future containing the calculated QuoteResponse
      */
     public Future<QuoteResponse> calculate(QuoteRequest req) {
-        return fxClient.getFxRate(req.currency())
-                .compose(rate -> {
-                    int basePoints = (int) Math.floor(req.fareAmount() * rate);
-                    int tierBonus = (int) (basePoints * req.customerTier().multiplier);
-
-                    return promoClient.getPromoBonus(req.promoCode(), basePoints)
-                            .recover(err -> Future.succeededFuture(PromoResult.empty()))
-                            .map(promo -> {
-                                int total = basePoints + tierBonus + promo.bonus();
-                                total = Math.min(total, CAP);
-
-                                return new QuoteResponse(
-                                        basePoints,
-                                        tierBonus,
-                                        promo.bonus(),
-                                        total,
-                                        rate,
-                                        promo.warnings()
-                                );
-                            });
+        return calculate(req, Deadline.NONE);
+    }
+
+    /**
+     * Calculates total loyalty points within the caller's deadline.
+     *
+     * The deadline is passed to the FX and promo clients, which stop
+     * waiting for their (possibly shared) downstream call once it
+     * passes; the call itself runs to its own timeout and retry budget.
+     * The returned Future fails with {@link DeadlineExceededException}
+     * if the FX rate cannot be obtained in time, while a late promo
+     * lookup leaves the quote without promo bonus.
+     *
+     * @param req the incoming quote request containing fare and customer details
+     * @param deadline time by which the caller needs the quote
+     * @return a Future containing the calculated QuoteResponse
+     * @see #calculate(QuoteRequest)
+     */
+    public Future<QuoteResponse> calculate(QuoteRequest req, Deadline deadline) {
+        return calculate(req, deadline, null);
+    }
+
+    /**
+     * Calculates total loyalty points within the caller's deadline,
+     * recording how long the FX and promo lookups and the computation took.
+     *
+     * @param req the incoming quote request containing fare and customer details
+     * @param deadline time by which the caller needs the quote
+     * @param timings receives the lookup durations, or null if not needed
+     * @return a Future containing the calculated QuoteResponse
+     * @see #calculate(QuoteRequest, Deadline)
+     */
+    public Future<QuoteResponse> calculate(QuoteRequest req, Deadline deadline, QuoteTimings timings) {
+
+        if (deadline.isExpired()) {
+            return Future.failedFuture(new DeadlineExceededException("calculation"));
+        }
+
+        long startNanos = timings == null ? 0 : System.nanoTime();
+
+        Future<PromoTerms> promoLookup = promoClient.getPromoTerms(req.promoCode(), deadline);
+        Future<Double> fxRate = fxClient.getFxRate(req.currency(), deadline);
+
+        if (timings != null) {
+            timings.lookupsStarted(fxRate.isComplete(), promoLookup.isComplete());
+            promoLookup.onComplete(ar -> timings.promoCompleted(startNanos));
+            fxRate.onComplete(ar -> timings.fxCompleted(startNanos));
+        }
+
+        // Promo lookups never fail: they degrade to PromoTerms.NONE
+        return fxRate.compose(rate -> promoLookup.map(terms -> {
+            if (timings == null) {
+                return compute(req, rate, terms);
+            }
+
+            long computeStart = System.nanoTime();
+            QuoteResponse response = compute(req, rate, terms);
+            timings.computed(computeStart);
+            return response;
+        }));
+    }
+
+    /**
+     * Calculates loyalty points for a batch of quote requests.
+     *
+     * Each distinct currency and promo code is resolved only once,
+     * all lookups run in parallel, and every quote is then computed
+     * locally in a single pass.
+     *
+     * The returned list has the same size and order as the input.
+     * An entry fails if the FX rate for its currency could not be
+     * retrieved, or with an {@link ArithmeticException} if its points
+     * do not fit in the response; promo failures degrade gracefully as in
+     * {@link #calculate(QuoteRequest)}.
+     *
+     * @param requests validated quote requests
+     * @param deadline time by which the caller needs the results
+     * @return a Future containing one result per request, in order
+     */
+    public Future<List<AsyncResult<QuoteResponse>>> calculateBatch(List<QuoteRequest> requests,
+                                                                   Deadline deadline) {
+
+        Map<String, Future<Double>> rates = new HashMap<>();
+        Map<String, Future<PromoTerms>> promos = new HashMap<>();
+
+        for (QuoteRequest req : requests) {
+            rates.computeIfAbsent(req.currency(), currency -> fxClient.getFxRate(currency, deadline));
+            promos.computeIfAbsent(promoKey(req), code -> promoClient.getPromoTerms(code, deadline));
+        }
+
+        List<Future<?>> lookups = new ArrayList<>(rates.values());
+        lookups.addAll(promos.values());
+
+        return Future.join(lookups)
+                .transform(ignored -> {
+                    List<AsyncResult<QuoteResponse>> results = new ArrayList<>(requests.size());
+                    long[] points = new long[3];
+
+                    for (QuoteRequest req : requests) {
+                        Future<Double> rate = rates.get(req.currency());
+
+                        if (rate.failed()) {
+                            results.add(Future.failedFuture(rate.cause()));
+                            continue;
+                        }
+
+                        PromoTerms terms = promos.get(promoKey(req)).result();
+
+                        try {
+                            results.add(Future.succeededFuture(compute(req, rate.result(), terms, points)));
+                        } catch (ArithmeticException e) {
+                            results.add(Future.failedFuture(e));
+                        }
+                    }
+
+                    return Future.succeededFuture(results);
                 });
     }
+
+    /**
+     * Calculates the quote once the FX rate and promo terms are known,
+     * by converting to fixed units and calling {@link PointsEngine#computeTotal}.
+     * Performs no I/O.
+     *
+     * @param req the quote request
+     * @param rate the FX rate for the request currency
+     * @param terms the promo terms for the request promo code
+     * @return the calculated QuoteResponse
+     * @throws ArithmeticException if a points value does not fit in an int
+     */
+    public QuoteResponse compute(QuoteRequest req, double rate, PromoTerms terms) {
+        return compute(req, rate, terms, new long[3]);
+    }
+
+    /**
+     * Calculates the quote into a caller-supplied components array,
+     * so a batch can reuse one array for all its quotes.
+     */
+    private QuoteResponse compute(QuoteRequest req, double rate, PromoTerms terms, long[] points) {
+
+        EarningTable table = earningTable;
+
+        long total = PointsEngine.computeTotal(
+                PointsEngine.toMinorUnits(req.fareAmount()),
+                PointsEngine.toMicros(rate),
+                table.cabinRateMicros(req.customerTier(), req.cabinClass()),
+                table.tierBonusMicros(req.customerTier(), req.cabinClass()),
+                promoClient.effectivePercentage(terms),
+                table.cap(),
+                points);
+
+        return new QuoteResponse(
+                Math.toIntExact(points[PointsEngine.BASE]),
+                Math.toIntExact(points[PointsEngine.TIER_BONUS]),
+                Math.toIntExact(points[PointsEngine.PROMO_BONUS]),
+                Math.toIntExact(total),
+                rate,
+                promoClient.warnings(terms)
+        );
+    }
+
+    /**
+     * Normalizes a missing promo code to an empty key, so all
+     * requests without a promo share a single lookup.
+     */
+    private static String promoKey(QuoteRequest req) {
+        return req.promoCode() == null ? "" : req.promoCode();
+    }
 }
 
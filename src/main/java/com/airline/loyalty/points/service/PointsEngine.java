@@ -0,0 +1,219 @@
+package com.airline.loyalty.points.service;
+
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point arithmetic behind every points calculation.
+ *
+ * All amounts are longs in fixed units, so results are exact and the
+ * same on every platform:
+ * - Fares in minor units (hundredths of the fare currency)
+ * - FX rates, cabin rates and tier bonus rates in micros (millionths)
+ * - Points as whole points
+ *
+ * Rounding:
+ * - Converting a fare or rate to fixed units rounds half up
+ * - Base points are rounded with {@link #BASE_ROUNDING} (FLOOR)
+ * - Tier and promo bonuses are rounded with {@link #BONUS_ROUNDING} (DOWN)
+ *
+ * Every method is static, allocation-free and works on primitives only,
+ * so it may be called in tight loops over many quotes. {@link #computeTotal}
+ * is the core of a quote; the other methods are its steps.
+ */
+public final class PointsEngine {
+
+    /**
+     * Minor units per fare unit.
+     */
+    public static final long MINOR_UNITS = 100;
+
+    /**
+     * Micros per rate unit.
+     */
+    public static final long MICROS = 1_000_000;
+
+    /**
+     * Default maximum total points of a quote.
+     */
+    public static final long DEFAULT_CAP = 50_000;
+
+    /**
+     * Rounding of base points. {@link #basePoints} relies on it being FLOOR.
+     */
+    public static final RoundingMode BASE_ROUNDING = RoundingMode.FLOOR;
+
+    /**
+     * Rounding of tier and promo bonus points.
+     */
+    public static final RoundingMode BONUS_ROUNDING = RoundingMode.DOWN;
+
+    /**
+     * Index of base points in the components filled by {@link #computeTotal}.
+     */
+    public static final int BASE = 0;
+
+    /**
+     * Index of tier bonus points in the components filled by {@link #computeTotal}.
+     */
+    public static final int TIER_BONUS = 1;
+
+    /**
+     * Index of promo bonus points in the components filled by {@link #computeTotal}.
+     */
+    public static final int PROMO_BONUS = 2;
+
+    // Scale of fareMinor × rateMicros
+    private static final long CONVERTED_SCALE = MINOR_UNITS * MICROS;
+
+    private PointsEngine() {
+    }
+
+    /**
+     * @param fareAmount fare in currency units
+     * @return the fare in minor units, rounded half up
+     */
+    public static long toMinorUnits(double fareAmount) {
+        return Math.round(fareAmount * MINOR_UNITS);
+    }
+
+    /**
+     * @param rate FX rate or multiplier
+     * @return the rate in micros, rounded half up
+     */
+    public static long toMicros(double rate) {
+        return Math.round(rate * MICROS);
+    }
+
+    /**
+     * Calculates the points of a quote.
+     *
+     * The components are written to a caller-supplied array, so a
+     * batch can reuse one array for all its quotes.
+     *
+     * @param fareMinor fare in minor units
+     * @param fxRateMicros FX rate in micros
+     * @param cabinRateMicros cabin earning rate in micros
+     * @param tierBonusMicros tier bonus rate in micros
+     * @param promoPercentage promo bonus percentage (0 for none)
+     * @param cap maximum total points
+     * @param components receives base, tier bonus and promo bonus points at
+     *                   {@link #BASE}, {@link #TIER_BONUS} and {@link #PROMO_BONUS},
+     *                   or null if only the total is needed
+     * @return total points, capped at the given maximum
+     * @throws ArithmeticException if an intermediate result does not fit in a long
+     */
+    public static long computeTotal(long fareMinor, long fxRateMicros, long cabinRateMicros,
+                                    long tierBonusMicros, int promoPercentage, long cap, long[] components) {
+
+        long base = basePoints(fareMinor, fxRateMicros, cabinRateMicros);
+        long tierBonus = tierBonus(base, tierBonusMicros);
+        long promoBonus = promoBonus(base, promoPercentage);
+
+        if (components != null) {
+            components[BASE] = base;
+            components[TIER_BONUS] = tierBonus;
+            components[PROMO_BONUS] = promoBonus;
+        }
+
+        return cappedTotal(base, tierBonus, promoBonus, cap);
+    }
+
+    /**
+     * Calculates base points: fare × FX rate × cabin rate.
+     *
+     * The product is evaluated exactly without 128-bit arithmetic by
+     * splitting the converted fare into whole points and a remainder
+     * before applying the cabin rate.
+     *
+     * @param fareMinor fare in minor units
+     * @param fxRateMicros FX rate in micros
+     * @param cabinRateMicros cabin earning rate in micros
+     * @return base points, rounded with {@link #BASE_ROUNDING}
+     * @throws ArithmeticException if the result does not fit in a long
+     */
+    public static long basePoints(long fareMinor, long fxRateMicros, long cabinRateMicros) {
+
+        long converted = Math.multiplyExact(fareMinor, fxRateMicros);
+
+        // converted = whole × CONVERTED_SCALE + fraction
+        long whole = Math.floorDiv(converted, CONVERTED_SCALE);
+        long fraction = Math.floorMod(converted, CONVERTED_SCALE);
+
+        // floor(floor(x) / n) == floor(x / n) keeps both steps exact for FLOOR
+        long scaled = Math.addExact(Math.multiplyExact(whole, cabinRateMicros),
+                divide(Math.multiplyExact(fraction, cabinRateMicros), CONVERTED_SCALE, RoundingMode.FLOOR));
+
+        return divide(scaled, MICROS, BASE_ROUNDING);
+    }
+
+    /**
+     * @param basePoints base points
+     * @param tierBonusMicros tier bonus rate in micros
+     * @return tier bonus points, rounded with {@link #BONUS_ROUNDING}
+     */
+    public static long tierBonus(long basePoints, long tierBonusMicros) {
+        return divide(Math.multiplyExact(basePoints, tierBonusMicros), MICROS, BONUS_ROUNDING);
+    }
+
+    /**
+     * @param basePoints base points
+     * @param percentage promo bonus percentage
+     * @return promo bonus points, rounded with {@link #BONUS_ROUNDING}
+     */
+    public static long promoBonus(long basePoints, int percentage) {
+        return divide(Math.multiplyExact(basePoints, percentage), 100, BONUS_ROUNDING);
+    }
+
+    /**
+     * @param basePoints base points
+     * @param tierBonus tier bonus points
+     * @param promoBonus promo bonus points
+     * @param cap maximum total points
+     * @return the sum, capped at the given maximum
+     */
+    public static long cappedTotal(long basePoints, long tierBonus, long promoBonus, long cap) {
+        return Math.min(Math.addExact(Math.addExact(basePoints, tierBonus), promoBonus), cap);
+    }
+
+    /**
+     * Divides two longs with the given rounding mode, matching
+     * {@link java.math.BigDecimal#divide(java.math.BigDecimal, RoundingMode)}
+     * without allocating.
+     *
+     * @param numerator dividend
+     * @param denominator divisor, not zero
+     * @param mode rounding applied to an inexact quotient
+     * @return the rounded quotient
+     * @throws ArithmeticException if the denominator is zero, or the
+     *         quotient is inexact and the mode is UNNECESSARY
+     */
+    public static long divide(long numerator, long denominator, RoundingMode mode) {
+
+        long quotient = numerator / denominator;
+        long remainder = numerator % denominator;
+
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        // Direction away from zero of the exact quotient
+        long away = (numerator ^ denominator) < 0 ? -1 : 1;
+
+        return switch (mode) {
+            case DOWN -> quotient;
+            case UP -> quotient + away;
+            case FLOOR -> away < 0 ? quotient - 1 : quotient;
+            case CEILING -> away > 0 ? quotient + 1 : quotient;
+            case HALF_UP, HALF_DOWN, HALF_EVEN -> {
+                long absRemainder = Math.abs(remainder);
+                int half = Long.compare(absRemainder, Math.abs(denominator) - absRemainder);
+
+                boolean roundAway = half > 0 || (half == 0 && (mode == RoundingMode.HALF_UP
+                        || (mode == RoundingMode.HALF_EVEN && (quotient & 1) != 0)));
+
+                yield roundAway ? quotient + away : quotient;
+            }
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+        };
+    }
+}
@@ -0,0 +1,181 @@
+package com.airline.loyalty.points.service;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Size-bounded, expiring cache of promo terms used by {@link PromoClient}.
+ *
+ * Entries are kept in access order and the least recently used entry
+ * is evicted once the cache holds more than maxEntries codes. Expired
+ * entries are dropped when they are next looked up.
+ *
+ * Access is synchronized; every operation is O(1) and never blocks on I/O,
+ * so holding the lock on an event loop is cheap.
+ */
+final class PromoCache {
+
+    private final Map<String, Entry> entries;
+
+    // Guarded by the entries lock
+    private int maxEntries;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * @param maxEntries maximum number of cached codes
+     */
+    PromoCache(int maxEntries) {
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                if (size() > PromoCache.this.maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Changes the size bound in place, evicting the least recently used
+     * codes if the cache holds more than the new bound.
+     *
+     * @param maxEntries new maximum number of cached codes
+     */
+    void resize(int maxEntries) {
+
+        synchronized (entries) {
+            this.maxEntries = maxEntries;
+
+            Iterator<String> eldest = entries.keySet().iterator();
+
+            while (entries.size() > maxEntries && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+                evictions.increment();
+            }
+        }
+    }
+
+    /**
+     * @param code normalized promo code
+     * @param nowMs current time in epoch milliseconds
+     * @return the cached terms, or null if absent or expired
+     */
+    PromoTerms get(String code, long nowMs) {
+
+        synchronized (entries) {
+            Entry entry = entries.get(code);
+
+            if (entry != null && entry.expiresAtMs > nowMs) {
+                hits.increment();
+                return entry.terms;
+            }
+
+            if (entry != null) {
+                entries.remove(code);
+            }
+        }
+
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * @param code normalized promo code
+     * @param terms terms to cache
+     * @param ttlMs how long the terms may be served
+     * @param nowMs current time in epoch milliseconds
+     */
+    void put(String code, PromoTerms terms, long ttlMs, long nowMs) {
+
+        if (ttlMs <= 0) {
+            return;
+        }
+
+        synchronized (entries) {
+            entries.put(code, new Entry(terms, nowMs + ttlMs));
+        }
+    }
+
+    /**
+     * Copies the most recently used entries that have not expired.
+     *
+     * @param limit maximum number of entries to copy
+     * @param nowMs current time in epoch milliseconds
+     * @return the entries, least recently used first
+     */
+    List<WarmStartSnapshot.PromoEntry> export(int limit, long nowMs) {
+
+        synchronized (entries) {
+            List<WarmStartSnapshot.PromoEntry> exported = new ArrayList<>(Math.min(limit, entries.size()));
+            int skip = Math.max(0, entries.size() - limit);
+
+            for (Map.Entry<String, Entry> e : entries.entrySet()) {
+                if (skip > 0) {
+                    skip--;
+                } else if (e.getValue().expiresAtMs > nowMs) {
+                    PromoTerms terms = e.getValue().terms;
+                    exported.add(new WarmStartSnapshot.PromoEntry(e.getKey(),
+                            terms.bonusPercentage(), terms.expiresInDays(), e.getValue().expiresAtMs));
+                }
+            }
+
+            return exported;
+        }
+    }
+
+    /**
+     * Restores an entry with its original expiry time, unless it has
+     * expired or the code is already cached.
+     *
+     * @param code normalized promo code
+     * @param terms cached terms
+     * @param expiresAtMs original expiry time in epoch milliseconds
+     * @param nowMs current time in epoch milliseconds
+     * @return true if the entry was restored
+     */
+    boolean restore(String code, PromoTerms terms, long expiresAtMs, long nowMs) {
+
+        if (expiresAtMs <= nowMs) {
+            return false;
+        }
+
+        synchronized (entries) {
+            return entries.putIfAbsent(code, new Entry(terms, expiresAtMs)) == null;
+        }
+    }
+
+    /**
+     * @return number of cached codes, including expired ones not yet dropped
+     */
+    int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    long hits() {
+        return hits.sum();
+    }
+
+    long misses() {
+        return misses.sum();
+    }
+
+    long evictions() {
+        return evictions.sum();
+    }
+
+    private record Entry(PromoTerms terms, long expiresAtMs) {
+    }
+}
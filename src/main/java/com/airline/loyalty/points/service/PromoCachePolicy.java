@@ -0,0 +1,91 @@
+package com.airline.loyalty.points.service;
+
+import io.vertx.core.json.JsonObject;
+
+/**
+ * Caching rules applied by {@link PromoClient} to retrieved promo terms.
+ *
+ * Entries are keyed by the normalized promo code (trimmed, upper case):
+ * - Valid promotions are cached until they expire, derived from
+ *   expiresInDays, but never longer than maxTtlMs
+ * - Expired promotions, unknown or invalid codes and codes the service
+ *   rejects (4xx) are cached for negativeTtlMs, so repeated bad codes
+ *   do not keep hitting the Promotion Service
+ * - Server errors (5xx), throttling (429), timeouts and connection
+ *   failures are not cached
+ *
+ * The cache holds at most maxEntries codes; the least recently used
+ * code is evicted first, so a flood of random codes cannot grow it
+ * without bound.
+ *
+ * Read from the "cache" object of the "promo" configuration block:
+ * {
+ *   "maxTtlMs": 300000,
+ *   "negativeTtlMs": 30000,
+ *   "maxEntries": 10000
+ * }
+ *
+ * A maxTtlMs or maxEntries of 0 disables caching entirely.
+ *
+ * @param maxTtlMs      upper bound on how long valid terms are cached
+ * @param negativeTtlMs how long expired, unknown or rejected codes are cached
+ * @param maxEntries    maximum number of cached codes
+ */
+public record PromoCachePolicy(
+        long maxTtlMs,
+        long negativeTtlMs,
+        int maxEntries
+) {
+
+    private static final long DAY_MS = 86_400_000L;
+
+    /**
+     * Validates that all limits are non-negative.
+     *
+     * @throws IllegalArgumentException if any limit is negative
+     */
+    public PromoCachePolicy {
+        if (maxTtlMs < 0 || negativeTtlMs < 0 || maxEntries < 0) {
+            throw new IllegalArgumentException("Promo cache limits must not be negative");
+        }
+    }
+
+    /**
+     * Reads the cache policy from the "cache" object of the promo configuration.
+     * Missing values fall back to the documented defaults.
+     *
+     * @param cacheConfig the "promo.cache" configuration object (may be null)
+     * @return the resulting cache policy
+     */
+    public static PromoCachePolicy fromJson(JsonObject cacheConfig) {
+        JsonObject config = cacheConfig == null ? new JsonObject() : cacheConfig;
+
+        return new PromoCachePolicy(
+                config.getLong("maxTtlMs", 300_000L),
+                config.getLong("negativeTtlMs", 30_000L),
+                config.getInteger("maxEntries", 10_000)
+        );
+    }
+
+    /**
+     * @return true if promo terms should be cached at all
+     */
+    public boolean enabled() {
+        return maxTtlMs > 0 && maxEntries > 0;
+    }
+
+    /**
+     * Returns how long the given terms may be cached.
+     *
+     * @param terms terms returned by the Promotion Service
+     * @return the TTL in milliseconds
+     */
+    public long ttlFor(PromoTerms terms) {
+
+        if (terms.expiresInDays() <= 0) {
+            return negativeTtlMs;
+        }
+
+        return Math.min(maxTtlMs, terms.expiresInDays() * DAY_MS);
+    }
+}
@@ -0,0 +1,228 @@
+package com.airline.loyalty.points.service;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory catalog of promotion rules, loaded from a snapshot file
+ * exported by the promotion system.
+ *
+ * This catalog:
+ * - Answers promo lookups in O(1) without a remote call
+ * - Derives expiresInDays locally from each rule's validity window,
+ *   so PROMO_EXPIRES_SOON and PROMO_EXPIRED are computed as usual by
+ *   {@link PromoClient#effectivePercentage(PromoTerms)} and
+ *   {@link PromoClient#warnings(PromoTerms)}
+ * - Checks the snapshot file periodically and reloads it when it changes
+ * - Keeps serving the last good snapshot if a reload fails
+ *
+ * Codes the catalog does not know are looked up through the Promotion
+ * Service as before.
+ *
+ * Snapshot file format:
+ * {
+ *   "promotions": [ { <see {@link PromoRule}> }, ... ]
+ * }
+ *
+ * Read from the "catalog" object of the "promo" configuration block:
+ * {
+ *   "path": "/etc/loyalty/promo-catalog.json",
+ *   "refreshIntervalMs": 30000
+ * }
+ *
+ * Without a path the catalog is empty and every lookup goes to the
+ * Promotion Service.
+ *
+ * Each reload builds a new immutable map that is published atomically,
+ * so lookups never lock and never observe a partially loaded snapshot.
+ */
+public class PromoCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromoCatalog.class);
+
+    private final Path path;
+
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+    private volatile long timerId = -1;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder reloads = new LongAdder();
+    private final LongAdder reloadFailures = new LongAdder();
+
+    /**
+     * Creates a catalog backed by the given snapshot file.
+     * The file is not read until {@link #reload()} is called.
+     *
+     * @param path snapshot file, or null for an always empty catalog
+     */
+    public PromoCatalog(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * Creates a catalog from the "catalog" configuration object,
+     * loads the snapshot and schedules periodic change checks.
+     *
+     * Reading the snapshot happens on a worker thread after the
+     * initial load, which runs on the calling thread at startup.
+     *
+     * @param vertx the Vert.x instance used for the refresh timer
+     * @param catalogConfig the "promo.catalog" configuration object (may be null)
+     * @return the loaded catalog
+     */
+    public static PromoCatalog fromJson(Vertx vertx, JsonObject catalogConfig) {
+        JsonObject config = catalogConfig == null ? new JsonObject() : catalogConfig;
+
+        String file = config.getString("path");
+        PromoCatalog catalog = new PromoCatalog(file == null || file.isBlank() ? null : Path.of(file));
+
+        if (catalog.path == null) {
+            return catalog;
+        }
+
+        catalog.reload();
+
+        long refreshIntervalMs = config.getLong("refreshIntervalMs", 30_000L);
+
+        if (refreshIntervalMs > 0) {
+            catalog.timerId = vertx.setPeriodic(refreshIntervalMs, id ->
+                    vertx.executeBlocking(() -> catalog.reload(), false));
+        }
+
+        return catalog;
+    }
+
+    /**
+     * Cancels the periodic snapshot change check started by {@link #fromJson}.
+     *
+     * @param vertx the Vert.x instance the timer runs on
+     */
+    public void close(Vertx vertx) {
+
+        long id = timerId;
+
+        if (id >= 0) {
+            vertx.cancelTimer(id);
+            timerId = -1;
+        }
+    }
+
+    /**
+     * Looks up the current terms of a promotion.
+     *
+     * @param code normalized promo code
+     * @param nowMs current time in epoch milliseconds
+     * @return the terms, or null if the catalog does not know the code
+     */
+    public PromoTerms lookup(String code, long nowMs) {
+
+        PromoRule rule = snapshot.rules.get(code);
+
+        if (rule == null) {
+            misses.increment();
+            return null;
+        }
+
+        hits.increment();
+        return rule.termsAt(nowMs);
+    }
+
+    /**
+     * Reloads the snapshot file if it changed since the last load.
+     * Blocking; must not be called on an event loop after startup.
+     *
+     * @return true if a new snapshot was published
+     */
+    public boolean reload() {
+
+        if (path == null) {
+            return false;
+        }
+
+        try {
+            long lastModifiedMs = Files.getLastModifiedTime(path).toMillis();
+
+            if (lastModifiedMs == snapshot.lastModifiedMs) {
+                return false;
+            }
+
+            Map<String, PromoRule> rules = parse(Files.readString(path));
+
+            snapshot = new Snapshot(Map.copyOf(rules), lastModifiedMs);
+            reloads.increment();
+
+            logger.info("Promo catalog loaded | path={} | promotions={}", path, rules.size());
+            return true;
+
+        } catch (IOException | RuntimeException e) {
+            reloadFailures.increment();
+            logger.error("Promo catalog reload failed, keeping {} promotions: {}",
+                    snapshot.rules.size(), e.getMessage());
+            return false;
+        }
+    }
+
+    private static Map<String, PromoRule> parse(String content) {
+
+        JsonArray promotions = new JsonObject(content).getJsonArray("promotions", new JsonArray());
+        Map<String, PromoRule> rules = new HashMap<>(promotions.size() * 2);
+
+        for (int i = 0; i < promotions.size(); i++) {
+            PromoRule rule = PromoRule.fromJson(promotions.getJsonObject(i));
+            rules.put(rule.code(), rule);
+        }
+
+        return rules;
+    }
+
+    /**
+     * @return number of promotions in the current snapshot
+     */
+    public int size() {
+        return snapshot.rules.size();
+    }
+
+    /**
+     * @return number of lookups answered by the catalog
+     */
+    public long hits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups for codes the catalog does not know
+     */
+    public long misses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of snapshots loaded
+     */
+    public long reloads() {
+        return reloads.sum();
+    }
+
+    /**
+     * @return number of failed reload attempts
+     */
+    public long reloadFailures() {
+        return reloadFailures.sum();
+    }
+
+    private record Snapshot(Map<String, PromoRule> rules, long lastModifiedMs) {
+        static final Snapshot EMPTY = new Snapshot(Map.of(), Long.MIN_VALUE);
+    }
+}
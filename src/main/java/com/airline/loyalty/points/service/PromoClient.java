@@ -1,23 +1,43 @@
 package com.airline.loyalty.points.service;
 
+import com.airline.loyalty.points.jfr.PromoCallEvent;
+import com.airline.loyalty.points.metrics.LatencyHistogram;
 import io.vertx.core.Future;
+import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.WebClient;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * Client responsible for retrieving promotional bonus details
  * from the external Promotion Service.
  *
  * This client:
- * - Calls the configured promo endpoint
+ * - Normalizes promo codes (trimmed, upper case) before lookup, so the
+ *   catalog, the code filter, the cache and the Promotion Service all
+ *   see the same code
+ * - Answers codes known to the local {@link PromoCatalog} without
+ *   a remote call
+ * - Caches terms per code for as long as {@link PromoCachePolicy} allows,
+ *   including short-lived negative entries for expired, unknown
+ *   and rejected codes; server errors and timeouts are never cached
+ * - Returns no promo for codes the {@link PromoCodeFilter} knows to be
+ *   invalid, without a remote call
+ * - Calls the configured promo endpoint for other codes on a cache miss,
+ *   coalescing concurrent lookups of the same code into a single request
+ *   bounded by the configured timeout only; each caller waits for it
+ *   until its own Deadline
+ * - Emits a {@link PromoCallEvent} to JDK Flight Recorder for every call
  * - Validates HTTP response and JSON payload structure
+ * - Separates promo term retrieval from bonus calculation
  * - Applies expiry and warning rules
  * - Fails gracefully (does NOT break the main flow)
+ * - Can be reconfigured at runtime: the endpoint, timeout, warning and
+ *   cache settings are one immutable snapshot swapped atomically
  *
  * Expected Promotion Service response format:
  * {
@@ -35,56 +55,234 @@ public class PromoClient {
 
     private static final Logger logger = LoggerFactory.getLogger(PromoClient.class);
 
+    private static final List<String> EXPIRED_WARNINGS = List.of("PROMO_EXPIRED");
+    private static final List<String> EXPIRES_SOON_WARNINGS = List.of("PROMO_EXPIRES_SOON");
 
-    private final WebClient client;
-    private final long timeoutMs;
-    private final int expiryWarningDays;
+
+    private final Vertx vertx;
+    private final PromoCatalog catalog;
+    private final PromoCodeFilter codeFilter;
+    private final PromoCache cache;
+
+    private volatile Settings settings;
+
+    private final SingleFlight<String, PromoTerms> inFlight = new SingleFlight<>();
+    private final LatencyHistogram callLatency = new LatencyHistogram();
 
     /**
      * Creates a new Promotion service client.
      *
+     * @param vertx the Vert.x instance used for caller deadline timers
      * @param client the Vert.x WebClient used for HTTP communication
      * @param timeoutMs timeout for promo service calls in milliseconds
      * @param expiryWarningDays threshold (in days) to trigger
      *                          PROMO_EXPIRES_SOON warning
+     * @param catalog local promotion rules checked before the cache
+     *                and the Promotion Service
+     * @param codeFilter gate rejecting definitely unknown codes before
+     *                   any remote lookup
+     * @param cachePolicy TTL and size limits for cached promo terms
+     */
+    public PromoClient(Vertx vertx,
+                       WebClient client,long timeoutMs,
+                       int expiryWarningDays,
+                       PromoCatalog catalog,
+                       PromoCodeFilter codeFilter,
+                       PromoCachePolicy cachePolicy) {
+        this.vertx = vertx;
+        this.catalog = catalog;
+        this.codeFilter = codeFilter;
+        this.cache = new PromoCache(cachePolicy.maxEntries());
+        this.settings = new Settings(client, timeoutMs, expiryWarningDays, cachePolicy);
+    }
+
+    /**
+     * Replaces the endpoint, timeout, warning and cache settings.
+     *
+     * Lookups started afterwards use the new settings. Cached terms are
+     * kept: a new size bound is applied in place, evicting the least
+     * recently used codes if needed, and a new TTL applies to terms
+     * cached from now on.
+     *
+     * @param client the WebClient for the Promotion Service
+     * @param timeoutMs timeout for promo service calls in milliseconds
+     * @param expiryWarningDays threshold (in days) to trigger
+     *                          PROMO_EXPIRES_SOON warning
+     * @param cachePolicy TTL and size limits for cached promo terms
+     */
+    public void reconfigure(WebClient client, long timeoutMs, int expiryWarningDays,
+                            PromoCachePolicy cachePolicy) {
+
+        Settings previous = settings;
+        settings = new Settings(client, timeoutMs, expiryWarningDays, cachePolicy);
+
+        if (cachePolicy.maxEntries() != previous.cachePolicy().maxEntries()) {
+            cache.resize(cachePolicy.maxEntries());
+        }
+    }
+
+    /**
+     * @return the WebClient currently used for the Promotion Service
      */
-    public PromoClient(WebClient client,long timeoutMs,
-                       int expiryWarningDays) {
-        this.client = client;
-        this.timeoutMs = timeoutMs;
-        this.expiryWarningDays = expiryWarningDays;
+    public WebClient webClient() {
+        return settings.client();
     }
 
     /**
-     * Retrieves promotional bonus information for a given promo code.
+     * Retrieves the terms of a promotion without applying them.
      *
      * The method:
-     * 1. Calls the promotion service
-     * 2. Validates the HTTP response
-     * 3. Validates required JSON fields
-     * 4. Calculates bonus points
-     * 5. Applies expiry business rules
-     * 6. Gracefully degrades on failure
+     * 1. Serves the terms from the local catalog if it knows the code
+     * 2. Serves the terms from the cache if present
+     * 3. Returns no promo if the code filter rules the code out
+     * 4. Otherwise calls the promotion service
+     * 5. Validates the HTTP response
+     * 6. Validates required JSON fields
+     * 7. Caches the outcome and gracefully degrades on failure
+     *
+     * The terms do not depend on the fare, so this call can run
+     * in parallel with the FX lookup.
+     *
+     * @param code the promotional code (may be null or blank)
+     * @return a Future containing the promo terms, or {@link PromoTerms#NONE}
+     *         if no code was given or the service failed
+     */
+    public Future<PromoTerms> getPromoTerms(String code) {
+        return getPromoTerms(code, Deadline.NONE);
+    }
+
+    /**
+     * Retrieves the terms of a promotion within a deadline.
+     *
+     * Catalog and cached terms are served regardless of the deadline. The promo
+     * call itself is bounded by the configured timeout only, since it may
+     * be shared with concurrent lookups of the same code; this caller
+     * stops waiting for it at its own deadline and continues without promo.
+     * If no time is left the lookup is skipped.
      *
      * @param code the promotional code (may be null or blank)
-     * @param basePoints calculated base points before promo
-     * @return a Future containing the calculated PromoResult
+     * @param deadline time by which the caller needs the terms
+     * @return a Future containing the promo terms, or {@link PromoTerms#NONE}
+     *         if no code was given, the service failed or time ran out
+     * @see #getPromoTerms(String)
      */
-    public Future<PromoResult> getPromoBonus(String code, int basePoints) {
+    public Future<PromoTerms> getPromoTerms(String code, Deadline deadline) {
 
         if (code == null || code.isBlank()) {
-            return Future.succeededFuture(new PromoResult(0, List.of()));
+            return Future.succeededFuture(PromoTerms.NONE);
+        }
+
+        String key = normalize(code);
+        long nowMs = System.currentTimeMillis();
+        Settings current = settings;
+
+        PromoTerms local = catalog.lookup(key, nowMs);
+
+        if (local != null) {
+            return Future.succeededFuture(local);
+        }
+
+        if (current.cachePolicy().enabled()) {
+            PromoTerms cached = cache.get(key, nowMs);
+
+            if (cached != null) {
+                return Future.succeededFuture(cached);
+            }
+        }
+
+        if (!codeFilter.mightExist(key)) {
+            return Future.succeededFuture(PromoTerms.NONE);
         }
 
-        return client.get("/promo")
-                .addQueryParam("code", code)
-                .timeout(timeoutMs)
+        if (deadline.isExpired()) {
+            logger.warn("Promo lookup skipped, request deadline reached");
+            return Future.succeededFuture(PromoTerms.NONE);
+        }
+
+        return deadline.bound(vertx, inFlight.execute(key, () -> fetchTerms(current, key)), "promo")
+                .recover(err -> {
+                    if (err instanceof DeadlineExceededException) {
+                        logger.warn("Promo lookup abandoned, request deadline reached");
+                    } else {
+                        logger.warn("Promo service failure, continuing without promo: {}", err.getMessage());
+                    }
+                    return Future.succeededFuture(PromoTerms.NONE);
+                });
+    }
+
+    /**
+     * Returns the bonus percentage that {@link PointsEngine#computeTotal}
+     * applies to the base points.
+     *
+     * @param terms the promo terms to apply
+     * @return the bonus percentage to apply, 0 if the promo expired
+     */
+    public int effectivePercentage(PromoTerms terms) {
+        return terms.expiresInDays() <= 0 ? 0 : terms.bonusPercentage();
+    }
+
+    /**
+     * Returns the warnings of promo terms without allocating: the lists
+     * are shared and immutable.
+     *
+     * @param terms the promo terms to apply
+     * @return PROMO_EXPIRED, PROMO_EXPIRES_SOON if within the warning
+     *         threshold, or no warning
+     */
+    public List<String> warnings(PromoTerms terms) {
+
+        int expiresInDays = terms.expiresInDays();
+
+        if (expiresInDays <= 0) {
+            return EXPIRED_WARNINGS;
+        }
+
+        return expiresInDays <= settings.expiryWarningDays() ? EXPIRES_SOON_WARNINGS : List.of();
+    }
+
+    /**
+     * Calls the promotion service and parses the promo terms.
+     *
+     * Valid and expired terms are cached with the TTL derived by the
+     * cache policy. Codes the service rejects (4xx other than 408 and
+     * 429) and invalid payloads are cached as {@link PromoTerms#NONE}
+     * for the negative TTL before failing. Server errors, throttling,
+     * transport failures and timeouts are not cached, so the next
+     * lookup asks again.
+     *
+     * @param current settings of the lookup
+     * @param key the normalized promotional code, sent to the service
+     *            and used as cache key
+     * @return a Future containing the promo terms or failure
+     */
+    private Future<PromoTerms> fetchTerms(Settings current, String key) {
+
+        PromoCachePolicy cachePolicy = current.cachePolicy();
+
+        long startNanos = System.nanoTime();
+        PromoCallEvent event = new PromoCallEvent();
+        event.begin();
+
+        return current.client().get("/promo")
+                .addQueryParam("code", key)
+                .timeout(current.timeoutMs())
                 .send()
                 .compose(resp -> {
 
+                    event.status = resp.statusCode();
+
                     if (resp.statusCode() != 200) {
                         logger.warn("Promo service returned non-200 status: {}", resp.statusCode());
-                        return Future.failedFuture("Promo service error");
+
+                        if (resp.statusCode() == 404) {
+                            codeFilter.recordFalsePositive();
+                        }
+
+                        if (!isRejection(resp.statusCode())) {
+                            return Future.failedFuture("Promo service error");
+                        }
+
+                        return rejected(cachePolicy, key, "Promo service error");
                     }
 
                     JsonObject body = resp.bodyAsJsonObject();
@@ -94,7 +292,7 @@ public class PromoClient {
                             !body.containsKey("expiresInDays")) {
 
                         logger.error("Invalid promo response structure");
-                        return Future.failedFuture("Invalid promo service response");
+                        return rejected(cachePolicy, key, "Invalid promo service response");
                     }
 
                     Integer bonusPercent = body.getInteger("bonusPercentage");
@@ -102,38 +300,174 @@ public class PromoClient {
 
                     if (bonusPercent == null || bonusPercent < 0) {
                         logger.error("Invalid bonus percentage: {}", bonusPercent);
-                        return Future.failedFuture("Invalid promo bonus percentage");
+                        return rejected(cachePolicy, key, "Invalid promo bonus percentage");
                     }
 
                     if (expiresInDays == null) {
                         logger.error("Invalid expiresInDays value");
-                        return Future.failedFuture("Invalid promo expiry data");
+                        return rejected(cachePolicy, key, "Invalid promo expiry data");
                     }
 
-                    int bonus = (basePoints * bonusPercent) / 100;
+                    if (expiresInDays <= 0) {
+                        logger.debug("Promo code {} has expired", key);
+                    }
 
-                    List<String> warnings = new ArrayList<>();
+                    PromoTerms terms = new PromoTerms(bonusPercent, expiresInDays);
+                    cache(cachePolicy, key, terms, cachePolicy.ttlFor(terms));
 
-                    if (expiresInDays != null
-                            && expiresInDays <= expiryWarningDays
-                            && expiresInDays > 0) {
+                    return Future.succeededFuture(terms);
+                })
+                .onComplete(ar -> {
+                    callLatency.recordSince(startNanos);
+                    event.end();
 
-                        warnings.add("PROMO_EXPIRES_SOON");
+                    if (event.shouldCommit()) {
+                        event.attempt = 1;
+                        event.succeeded = ar.succeeded();
+                        event.commit();
                     }
+                });
+    }
 
-                    if (expiresInDays <= 0) {
-                        warnings.add("PROMO_EXPIRED");
-                        logger.info("Promo code {} has expired", code);
-                        return Future.succeededFuture(new PromoResult(0, warnings));
-                    }
+    /**
+     * @param status HTTP status of a non-200 promo response
+     * @return true if the status says the code itself was rejected, rather
+     *         than the service failing or throttling
+     */
+    private static boolean isRejection(int status) {
+        return status >= 400 && status < 500 && status != 408 && status != 429;
+    }
+
+    /**
+     * Caches a code the Promotion Service rejected and fails the lookup.
+     *
+     * @param cachePolicy cache policy of the lookup
+     * @param code the normalized promo code
+     * @param message failure message
+     * @return a failed Future
+     */
+    private Future<PromoTerms> rejected(PromoCachePolicy cachePolicy, String code, String message) {
+        cache(cachePolicy, code, PromoTerms.NONE, cachePolicy.negativeTtlMs());
+        return Future.failedFuture(message);
+    }
 
-                    logger.debug("Promo bonus calculated: {} ({}%)", bonus, bonusPercent);
+    private void cache(PromoCachePolicy cachePolicy, String code, PromoTerms terms, long ttlMs) {
+        if (cachePolicy.enabled()) {
+            cache.put(code, terms, ttlMs, System.currentTimeMillis());
+        }
+    }
 
-                    return Future.succeededFuture(new PromoResult(bonus, warnings));
-                })
-                .recover(err -> {
-                    logger.warn("Promo service failure, continuing without promo: {}", err.getMessage());
-                    return Future.succeededFuture(new PromoResult(0, List.of()));
-                });
+    /**
+     * Copies the most recently used cached promo terms for persistence
+     * in a warm-start snapshot.
+     *
+     * @param limit maximum number of entries to copy
+     * @return the cached entries with their expiry times
+     */
+    public List<WarmStartSnapshot.PromoEntry> exportCache(int limit) {
+        return cache.export(limit, System.currentTimeMillis());
+    }
+
+    /**
+     * Seeds the cache from a warm-start snapshot, keeping each entry's
+     * original expiry time. Expired entries are skipped.
+     *
+     * @param entries promo terms read from the snapshot
+     * @return number of entries restored
+     */
+    public int importCache(List<WarmStartSnapshot.PromoEntry> entries) {
+
+        if (!settings.cachePolicy().enabled()) {
+            return 0;
+        }
+
+        long nowMs = System.currentTimeMillis();
+        int restored = 0;
+
+        for (WarmStartSnapshot.PromoEntry entry : entries) {
+            PromoTerms terms = new PromoTerms(entry.bonusPercentage(), entry.expiresInDays());
+
+            if (terms.equals(PromoTerms.NONE)) {
+                terms = PromoTerms.NONE;
+            }
+
+            if (cache.restore(entry.code(), terms, entry.expiresAtMs(), nowMs)) {
+                restored++;
+            }
+        }
+
+        return restored;
+    }
+
+    /**
+     * @param code a non-blank promo code
+     * @return the code trimmed and in upper case
+     */
+    private static String normalize(String code) {
+        return code.trim().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * @return number of promo lookups that joined an in-flight call
+     *         instead of issuing their own
+     */
+    public long coalescedCalls() {
+        return inFlight.coalesced();
+    }
+
+    /**
+     * @return latency of individual Promotion Service calls, including failures
+     */
+    public LatencyHistogram callLatency() {
+        return callLatency;
+    }
+
+    /**
+     * @return the local promotion catalog
+     */
+    public PromoCatalog catalog() {
+        return catalog;
+    }
+
+    /**
+     * @return the gate applied before remote promo lookups
+     */
+    public PromoCodeFilter codeFilter() {
+        return codeFilter;
+    }
+
+    /**
+     * @return number of promo lookups served from the cache
+     */
+    public long cacheHits() {
+        return cache.hits();
+    }
+
+    /**
+     * @return number of promo lookups not found in the cache
+     */
+    public long cacheMisses() {
+        return cache.misses();
+    }
+
+    /**
+     * @return number of codes evicted because the cache was full
+     */
+    public long cacheEvictions() {
+        return cache.evictions();
+    }
+
+    /**
+     * @return number of codes currently cached
+     */
+    public int cacheSize() {
+        return cache.size();
+    }
+
+    /**
+     * Settings that may change at runtime, replaced as a whole.
+     */
+    private record Settings(WebClient client, long timeoutMs, int expiryWarningDays,
+                            PromoCachePolicy cachePolicy) {
     }
 }
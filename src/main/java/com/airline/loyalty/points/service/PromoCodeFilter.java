@@ -0,0 +1,237 @@
+package com.airline.loyalty.points.service;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Membership gate for promo codes, placed in front of every remote
+ * promo lookup.
+ *
+ * This filter:
+ * - Holds a {@link BloomFilter} of every valid promo code, built from
+ *   a code list file (one code per line, blank lines ignored)
+ * - Rejects codes that are definitely unknown without any I/O
+ * - Lets possibly known codes through to the cache and the Promotion Service
+ * - Checks the code list file periodically and rebuilds the filter
+ *   when it changes, keeping the previous filter if the rebuild fails
+ *
+ * Read from the "filter" object of the "promo" configuration block:
+ * {
+ *   "path": "/etc/loyalty/promo-codes.txt",
+ *   "falsePositiveRate": 0.01,
+ *   "refreshIntervalMs": 60000
+ * }
+ *
+ * Without a path, or until a code list has been loaded, every code
+ * passes the gate.
+ */
+public class PromoCodeFilter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PromoCodeFilter.class);
+
+    private final Path path;
+    private final double falsePositiveRate;
+
+    private volatile BloomFilter filter;
+    private volatile long lastModifiedMs = Long.MIN_VALUE;
+    private volatile long timerId = -1;
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder passed = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    /**
+     * Creates a gate backed by the given code list file.
+     * The file is not read until {@link #reload()} is called.
+     *
+     * @param path code list file, or null for a gate that passes every code
+     * @param falsePositiveRate target false positive rate of the filter
+     */
+    public PromoCodeFilter(Path path, double falsePositiveRate) {
+        this.path = path;
+        this.falsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Creates a gate from the "filter" configuration object,
+     * loads the code list and schedules periodic change checks.
+     *
+     * @param vertx the Vert.x instance used for the refresh timer
+     * @param filterConfig the "promo.filter" configuration object (may be null)
+     * @return the gate
+     */
+    public static PromoCodeFilter fromJson(Vertx vertx, JsonObject filterConfig) {
+        JsonObject config = filterConfig == null ? new JsonObject() : filterConfig;
+
+        String file = config.getString("path");
+        PromoCodeFilter gate = new PromoCodeFilter(
+                file == null || file.isBlank() ? null : Path.of(file),
+                config.getDouble("falsePositiveRate", 0.01));
+
+        if (gate.path == null) {
+            return gate;
+        }
+
+        gate.reload();
+
+        long refreshIntervalMs = config.getLong("refreshIntervalMs", 60_000L);
+
+        if (refreshIntervalMs > 0) {
+            gate.timerId = vertx.setPeriodic(refreshIntervalMs, id ->
+                    vertx.executeBlocking(() -> gate.reload(), false));
+        }
+
+        return gate;
+    }
+
+    /**
+     * Cancels the periodic code list change check started by {@link #fromJson}.
+     *
+     * @param vertx the Vert.x instance the timer runs on
+     */
+    public void close(Vertx vertx) {
+
+        long id = timerId;
+
+        if (id >= 0) {
+            vertx.cancelTimer(id);
+            timerId = -1;
+        }
+    }
+
+    /**
+     * @param code normalized promo code
+     * @return false if the code is definitely not a valid promo code
+     */
+    public boolean mightExist(String code) {
+
+        BloomFilter current = filter;
+
+        if (current == null || current.mightContain(code)) {
+            passed.increment();
+            return true;
+        }
+
+        rejected.increment();
+        return false;
+    }
+
+    /**
+     * Records that a code which passed the gate was then rejected by
+     * the Promotion Service.
+     */
+    public void recordFalsePositive() {
+        if (filter != null) {
+            falsePositives.increment();
+        }
+    }
+
+    /**
+     * Rebuilds the filter if the code list file changed since the last load.
+     * Blocking; must not be called on an event loop after startup.
+     *
+     * @return true if a new filter was published
+     */
+    public boolean reload() {
+
+        if (path == null) {
+            return false;
+        }
+
+        try {
+            long modifiedMs = Files.getLastModifiedTime(path).toMillis();
+
+            if (modifiedMs == lastModifiedMs) {
+                return false;
+            }
+
+            List<String> lines = Files.readAllLines(path);
+            Set<String> codes = new HashSet<>(lines.size() * 2);
+
+            for (String line : lines) {
+                if (!line.isBlank()) {
+                    codes.add(line.trim().toUpperCase(Locale.ROOT));
+                }
+            }
+
+            BloomFilter rebuilt = BloomFilter.of(codes, falsePositiveRate);
+
+            filter = rebuilt;
+            lastModifiedMs = modifiedMs;
+
+            logger.info("Promo code filter built | path={} | codes={} | bytes={} | expectedFpp={}",
+                    path, rebuilt.size(), rebuilt.memoryBytes(), rebuilt.expectedFalsePositiveRate());
+            return true;
+
+        } catch (IOException | RuntimeException e) {
+            logger.error("Promo code filter rebuild failed, keeping previous filter: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * @return true once a code list has been loaded
+     */
+    public boolean active() {
+        return filter != null;
+    }
+
+    /**
+     * @return number of codes rejected without a remote lookup
+     */
+    public long rejected() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return number of codes let through to the remote lookup
+     */
+    public long passed() {
+        return passed.sum();
+    }
+
+    /**
+     * @return number of codes that passed the gate but were rejected
+     *         by the Promotion Service
+     */
+    public long falsePositives() {
+        return falsePositives.sum();
+    }
+
+    /**
+     * @return false positive rate expected from the current filter's sizing
+     */
+    public double expectedFalsePositiveRate() {
+        BloomFilter current = filter;
+        return current == null ? 0 : current.expectedFalsePositiveRate();
+    }
+
+    /**
+     * @return share of codes that passed the gate but were rejected by
+     *         the Promotion Service; an upper bound on the observed false
+     *         positive rate
+     */
+    public double observedFalsePositiveRate() {
+        long passedCount = passed.sum();
+        return passedCount == 0 ? 0 : (double) falsePositives.sum() / passedCount;
+    }
+
+    /**
+     * @return memory used by the current filter's bit array in bytes
+     */
+    public long memoryBytes() {
+        BloomFilter current = filter;
+        return current == null ? 0 : current.memoryBytes();
+    }
+}
@@ -0,0 +1,107 @@
+package com.airline.loyalty.points.service;
+
+import io.vertx.core.json.JsonObject;
+
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+
+/**
+ * A promotion as held in the local {@link PromoCatalog}.
+ *
+ * Catalog entry format:
+ * {
+ *   "code": "SUMMER25",
+ *   "bonusPercentage": 25,
+ *   "validFrom": "2026-06-01T00:00:00Z",
+ *   "validUntil": "2026-09-30T23:59:59Z",
+ *   "remainingUses": 1000
+ * }
+ *
+ * validFrom and remainingUses are optional; a missing remainingUses
+ * means the promotion has no usage limit. Remaining uses are as reported
+ * by the promotion system when the snapshot was taken; quoting does not
+ * consume them.
+ *
+ * @param code            normalized promo code (trimmed, upper case)
+ * @param bonusPercentage percentage of base points awarded as bonus
+ * @param validFromMs     start of the validity window in epoch milliseconds
+ * @param validUntilMs    end of the validity window in epoch milliseconds
+ * @param remainingUses   uses left, or -1 if unlimited
+ */
+public record PromoRule(
+        String code,
+        int bonusPercentage,
+        long validFromMs,
+        long validUntilMs,
+        long remainingUses
+) {
+
+    private static final long DAY_MS = 86_400_000L;
+
+    /**
+     * Parses a rule from a catalog entry.
+     *
+     * @param json the catalog entry
+     * @return the parsed rule
+     * @throws IllegalArgumentException if a required field is missing or invalid
+     */
+    public static PromoRule fromJson(JsonObject json) {
+
+        String code = json.getString("code");
+        Integer bonusPercentage = json.getInteger("bonusPercentage");
+        String validUntil = json.getString("validUntil");
+
+        if (code == null || code.isBlank()) {
+            throw new IllegalArgumentException("Promo rule code is required");
+        }
+
+        if (bonusPercentage == null || bonusPercentage < 0) {
+            throw new IllegalArgumentException("Invalid bonus percentage for promo " + code);
+        }
+
+        if (validUntil == null) {
+            throw new IllegalArgumentException("Promo rule validUntil is required for promo " + code);
+        }
+
+        try {
+            String validFrom = json.getString("validFrom");
+
+            return new PromoRule(
+                    code.trim().toUpperCase(Locale.ROOT),
+                    bonusPercentage,
+                    validFrom == null ? Long.MIN_VALUE : Instant.parse(validFrom).toEpochMilli(),
+                    Instant.parse(validUntil).toEpochMilli(),
+                    json.getLong("remainingUses", -1L)
+            );
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid validity window for promo " + code);
+        }
+    }
+
+    /**
+     * Returns the terms of this promotion at the given time, in the form
+     * the Promotion Service would return them.
+     *
+     * - Not yet started or no uses left → {@link PromoTerms#NONE}
+     * - Otherwise expiresInDays counts the started days left in the
+     *   validity window (≤ 0 once it has ended)
+     *
+     * @param nowMs current time in epoch milliseconds
+     * @return the promo terms
+     */
+    public PromoTerms termsAt(long nowMs) {
+
+        if (nowMs < validFromMs || remainingUses == 0) {
+            return PromoTerms.NONE;
+        }
+
+        long remainingMs = validUntilMs - nowMs;
+        long expiresInDays = remainingMs > 0
+                ? (remainingMs + DAY_MS - 1) / DAY_MS
+                : remainingMs / DAY_MS;
+
+        return new PromoTerms(bonusPercentage,
+                (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, expiresInDays)));
+    }
+}
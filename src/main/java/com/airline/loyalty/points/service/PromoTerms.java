@@ -0,0 +1,24 @@
+package com.airline.loyalty.points.service;
+
+/**
+ * Represents the terms of a promotion as returned by the
+ * Promotion Service, before they are applied to a booking.
+ *
+ * Terms are independent of the fare, which allows them to be
+ * retrieved in parallel with the FX rate and shared between
+ * quotes using the same promo code. The bonus itself is computed
+ * by {@link PointsEngine#computeTotal} from
+ * {@link PromoClient#effectivePercentage(PromoTerms)} once the
+ * base points are known.
+ *
+ * @param bonusPercentage percentage of base points awarded as bonus
+ * @param expiresInDays   days until the promotion expires (≤ 0 means expired)
+ */
+public record PromoTerms(int bonusPercentage, int expiresInDays) {
+
+    /**
+     * Terms used when no promo code is supplied or the code
+     * is not recognised. No bonus and no warnings are applied.
+     */
+    public static final PromoTerms NONE = new PromoTerms(0, Integer.MAX_VALUE);
+}
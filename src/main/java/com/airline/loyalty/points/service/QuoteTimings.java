@@ -0,0 +1,76 @@
+package com.airline.loyalty.points.service;
+
+/**
+ * Per-request timings filled in by {@link PointsCalculator} while it
+ * waits for the FX rate and promo terms of a quote and computes it.
+ *
+ * A lookup counts as cached when its result was already available in
+ * memory (cache, snapshot, catalog or filter) when it was requested.
+ *
+ * Callers only create one when they will report it (for example while
+ * a flight recording is running or for a sampled Server-Timing header),
+ * so quotes pay nothing otherwise.
+ */
+public final class QuoteTimings {
+
+    private volatile long fxNanos = -1;
+    private volatile long promoNanos = -1;
+    private volatile long computeNanos = -1;
+    private volatile boolean fxCached;
+    private volatile boolean promoCached;
+
+    void lookupsStarted(boolean fxCached, boolean promoCached) {
+        this.fxCached = fxCached;
+        this.promoCached = promoCached;
+    }
+
+    void fxCompleted(long startNanos) {
+        fxNanos = System.nanoTime() - startNanos;
+    }
+
+    void promoCompleted(long startNanos) {
+        promoNanos = System.nanoTime() - startNanos;
+    }
+
+    void computed(long startNanos) {
+        computeNanos = System.nanoTime() - startNanos;
+    }
+
+    /**
+     * @return time until the FX rate was available in nanoseconds,
+     *         or -1 if it was not looked up
+     */
+    public long fxNanos() {
+        return fxNanos;
+    }
+
+    /**
+     * @return time until the promo terms were available in nanoseconds,
+     *         or -1 if they were not looked up
+     */
+    public long promoNanos() {
+        return promoNanos;
+    }
+
+    /**
+     * @return time spent computing the quote from the FX rate and promo
+     *         terms in nanoseconds, or -1 if it was not computed
+     */
+    public long computeNanos() {
+        return computeNanos;
+    }
+
+    /**
+     * @return true if the FX rate was served from memory
+     */
+    public boolean fxCached() {
+        return fxCached;
+    }
+
+    /**
+     * @return true if the promo terms were served from memory
+     */
+    public boolean promoCached() {
+        return promoCached;
+    }
+}
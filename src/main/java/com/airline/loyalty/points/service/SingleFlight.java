@@ -0,0 +1,146 @@
+package com.airline.loyalty.points.service;
+
+import io.vertx.core.Context;
+import io.vertx.core.Future;
+import io.vertx.core.Promise;
+import io.vertx.core.Vertx;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent asynchronous calls for the same key.
+ *
+ * The first caller for a key performs the downstream call. Every caller
+ * arriving while that call is still in flight shares its result instead
+ * of issuing a call of its own. Once the call completes, the key is
+ * released and the next caller starts a new call.
+ *
+ * Callers that join an in-flight call from a different Vert.x context
+ * are notified on their own context, so results never hop event loops.
+ *
+ * Each flight tracks the latest {@link Deadline} of its callers, so the
+ * call can stop work, such as retries, that no caller waits for any more.
+ *
+ * This class is thread-safe.
+ *
+ * @param <K> key type (e.g. currency or promo code)
+ * @param <V> result type
+ */
+public class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, Flight<V>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Executes the call for the given key, or joins the call already
+     * in flight for it.
+     *
+     * @param key the coalescing key
+     * @param call supplier starting the downstream call
+     * @return a Future completed with the shared result
+     */
+    public Future<V> execute(K key, Supplier<Future<V>> call) {
+        return execute(key, Deadline.NONE, waiters -> call.get());
+    }
+
+    /**
+     * Executes the call for the given key, or joins the call already
+     * in flight for it, on behalf of a caller waiting until a deadline.
+     *
+     * The call receives the latest deadline of the callers sharing it,
+     * which grows as callers with later deadlines join; once it has
+     * passed, no caller waits for the result any more.
+     *
+     * @param key the coalescing key
+     * @param deadline time until which this caller waits for the result
+     * @param call function starting the downstream call from the
+     *             supplier of the callers' latest deadline
+     * @return a Future completed with the shared result
+     */
+    public Future<V> execute(K key, Deadline deadline, Function<Supplier<Deadline>, Future<V>> call) {
+
+        Flight<V> flight = new Flight<>(deadline);
+        Flight<V> existing = inFlight.putIfAbsent(key, flight);
+
+        if (existing != null) {
+            coalesced.increment();
+            existing.latest.accumulateAndGet(deadline, Deadline::latest);
+            return onCallerContext(existing.promise.future());
+        }
+
+        calls.increment();
+
+        try {
+            call.apply(flight.latest::get).onComplete(ar -> {
+                inFlight.remove(key, flight);
+                flight.promise.handle(ar);
+            });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, flight);
+            flight.promise.fail(e);
+        }
+
+        return flight.promise.future();
+    }
+
+    /**
+     * @return number of downstream calls actually issued
+     */
+    public long calls() {
+        return calls.sum();
+    }
+
+    /**
+     * @return number of callers that joined an in-flight call
+     */
+    public long coalesced() {
+        return coalesced.sum();
+    }
+
+    /**
+     * A call in flight and the latest deadline of its callers.
+     */
+    private static final class Flight<V> {
+
+        final Promise<V> promise = Promise.promise();
+        final AtomicReference<Deadline> latest;
+
+        Flight(Deadline deadline) {
+            this.latest = new AtomicReference<>(deadline);
+        }
+    }
+
+    /**
+     * Re-dispatches completion of a shared Future onto the caller's context.
+     *
+     * @param shared the in-flight Future being joined
+     * @return a Future completed on the caller's context
+     */
+    private Future<V> onCallerContext(Future<V> shared) {
+
+        Context context = Vertx.currentContext();
+
+        if (context == null) {
+            return shared;
+        }
+
+        Promise<V> promise = Promise.promise();
+
+        shared.onComplete(ar -> {
+            if (Vertx.currentContext() == context) {
+                promise.handle(ar);
+            } else {
+                context.runOnContext(v -> promise.handle(ar));
+            }
+        });
+
+        return promise.future();
+    }
+}
@@ -0,0 +1,267 @@
+package com.airline.loyalty.points.service;
+
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Persists the FX rate cache and the hottest promo cache entries to a
+ * local file, so a restarted instance starts with warm caches instead
+ * of stampeding the FX and Promotion services.
+ *
+ * This snapshot:
+ * - Is written periodically on a worker thread, to a temporary file
+ *   that is then atomically renamed over the previous snapshot
+ * - Is loaded once at startup, on a worker thread, before the HTTP
+ *   server starts listening
+ * - Is written one last time when the services are closed
+ * - Keeps every entry's original retrieval or expiry time, so restored
+ *   entries expire exactly when they would have in the old process
+ *
+ * File layout (big-endian, strings as modified UTF-8):
+ * - int magic ("LWSS"), short format (1), long writtenAt (epoch milliseconds)
+ * - int FX entry count, then per entry:
+ *   string currency, double rate, long fetchedAt
+ * - int promo entry count, then per entry:
+ *   string code, int bonusPercentage, int expiresInDays, long expiresAt
+ *
+ * Read from the "warmStart" configuration block:
+ * {
+ *   "path": "/var/lib/loyalty/warm-start.bin",
+ *   "intervalMs": 60000,
+ *   "maxPromoEntries": 1000
+ * }
+ *
+ * Without a path nothing is persisted or loaded.
+ */
+public class WarmStartSnapshot {
+
+    private static final Logger logger = LoggerFactory.getLogger(WarmStartSnapshot.class);
+
+    private static final int MAGIC = 0x4c575353;
+    private static final short FORMAT = 1;
+
+    // Smallest encoded entry: empty string (2-byte length), then the fixed-size fields
+    private static final int MIN_FX_ENTRY_BYTES = 2 + Double.BYTES + Long.BYTES;
+    private static final int MIN_PROMO_ENTRY_BYTES = 2 + Integer.BYTES + Integer.BYTES + Long.BYTES;
+
+    private final Path path;
+    private final FxRateClient fxClient;
+    private final PromoClient promoClient;
+    private final int maxPromoEntries;
+
+    private volatile long timerId = -1;
+
+    /**
+     * A cached FX rate as stored in the snapshot.
+     *
+     * @param currency    ISO currency code
+     * @param rate        FX rate
+     * @param fetchedAtMs time the rate was retrieved, in epoch milliseconds
+     */
+    public record FxEntry(String currency, double rate, long fetchedAtMs) {
+    }
+
+    /**
+     * Cached promo terms as stored in the snapshot.
+     *
+     * @param code            normalized promo code
+     * @param bonusPercentage percentage of base points awarded as bonus
+     * @param expiresInDays   days until the promotion expires, as retrieved
+     * @param expiresAtMs     time the cache entry expires, in epoch milliseconds
+     */
+    public record PromoEntry(String code, int bonusPercentage, int expiresInDays, long expiresAtMs) {
+    }
+
+    /**
+     * @param path snapshot file
+     * @param fxClient FX client whose cache is persisted, or null if FX
+     *                 rates do not come from the FX service
+     * @param promoClient promo client whose cache is persisted
+     * @param maxPromoEntries maximum number of promo entries persisted
+     */
+    public WarmStartSnapshot(Path path, FxRateClient fxClient, PromoClient promoClient, int maxPromoEntries) {
+        this.path = path;
+        this.fxClient = fxClient;
+        this.promoClient = promoClient;
+        this.maxPromoEntries = maxPromoEntries;
+    }
+
+    /**
+     * Loads the snapshot configured in the "warmStart" block into the
+     * caches and schedules periodic persistence.
+     *
+     * Loading happens on the calling thread, so the caches are warm
+     * before the caller continues with startup.
+     * Blocking; must not be called on an event loop.
+     *
+     * @param vertx the Vert.x instance used for the persistence timer
+     * @param fxClient FX client whose cache is persisted (may be null)
+     * @param promoClient promo client whose cache is persisted
+     * @param warmStartConfig the "warmStart" configuration object (may be null)
+     * @return the started snapshot, or null if no path is configured
+     */
+    public static WarmStartSnapshot start(Vertx vertx, FxRateClient fxClient, PromoClient promoClient,
+                                          JsonObject warmStartConfig) {
+        JsonObject config = warmStartConfig == null ? new JsonObject() : warmStartConfig;
+
+        String file = config.getString("path");
+
+        if (file == null || file.isBlank()) {
+            return null;
+        }
+
+        WarmStartSnapshot snapshot = new WarmStartSnapshot(Path.of(file), fxClient, promoClient,
+                config.getInteger("maxPromoEntries", 1_000));
+
+        snapshot.load();
+
+        long intervalMs = config.getLong("intervalMs", 60_000L);
+
+        if (intervalMs > 0) {
+            snapshot.timerId = vertx.setPeriodic(intervalMs, id ->
+                    vertx.executeBlocking(() -> snapshot.persist(), false));
+        }
+
+        return snapshot;
+    }
+
+    /**
+     * Cancels periodic persistence and writes the snapshot one last time.
+     * Blocking; must not be called on an event loop.
+     *
+     * @param vertx the Vert.x instance the persistence timer runs on
+     */
+    public void close(Vertx vertx) {
+
+        long id = timerId;
+
+        if (id >= 0) {
+            vertx.cancelTimer(id);
+            timerId = -1;
+        }
+
+        persist();
+    }
+
+    /**
+     * Writes the current cache contents to the snapshot file.
+     * Blocking; must not be called on an event loop.
+     *
+     * @return true if the snapshot was written
+     */
+    public boolean persist() {
+
+        List<FxEntry> fx = fxClient == null ? List.of() : fxClient.exportCache();
+        List<PromoEntry> promos = promoClient.exportCache(maxPromoEntries);
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream(64 + (fx.size() + promos.size()) * 32);
+
+            try (DataOutputStream out = new DataOutputStream(bytes)) {
+                out.writeInt(MAGIC);
+                out.writeShort(FORMAT);
+                out.writeLong(System.currentTimeMillis());
+
+                out.writeInt(fx.size());
+                for (FxEntry entry : fx) {
+                    out.writeUTF(entry.currency());
+                    out.writeDouble(entry.rate());
+                    out.writeLong(entry.fetchedAtMs());
+                }
+
+                out.writeInt(promos.size());
+                for (PromoEntry entry : promos) {
+                    out.writeUTF(entry.code());
+                    out.writeInt(entry.bonusPercentage());
+                    out.writeInt(entry.expiresInDays());
+                    out.writeLong(entry.expiresAtMs());
+                }
+            }
+
+            Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+            Files.write(temp, bytes.toByteArray());
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            logger.debug("Warm-start snapshot written | fxRates={} | promos={}", fx.size(), promos.size());
+            return true;
+
+        } catch (IOException e) {
+            logger.warn("Warm-start snapshot write failed: {}", e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Reads the snapshot file and seeds the caches from it.
+     * A missing, unreadable or corrupt file leaves the caches empty.
+     */
+    public void load() {
+
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(path)))) {
+
+            if (in.readInt() != MAGIC || in.readShort() != FORMAT) {
+                throw new IOException("Not a warm-start snapshot");
+            }
+
+            long writtenAtMs = in.readLong();
+
+            int fxCount = readCount(in, MIN_FX_ENTRY_BYTES);
+            List<FxEntry> fx = new ArrayList<>(fxCount);
+            for (int i = 0; i < fxCount; i++) {
+                fx.add(new FxEntry(in.readUTF(), in.readDouble(), in.readLong()));
+            }
+
+            int promoCount = readCount(in, MIN_PROMO_ENTRY_BYTES);
+            List<PromoEntry> promos = new ArrayList<>(promoCount);
+            for (int i = 0; i < promoCount; i++) {
+                promos.add(new PromoEntry(in.readUTF(), in.readInt(), in.readInt(), in.readLong()));
+            }
+
+            int fxRestored = fxClient == null ? 0 : fxClient.importCache(fx);
+            int promosRestored = promoClient.importCache(promos);
+
+            logger.info("Warm-start snapshot loaded | ageMs={} | fxRates={}/{} | promos={}/{}",
+                    System.currentTimeMillis() - writtenAtMs, fxRestored, fxCount, promosRestored, promoCount);
+
+        } catch (NoSuchFileException e) {
+            logger.info("No warm-start snapshot at {}, starting with empty caches", path);
+
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Warm-start snapshot ignored: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Reads an entry count, rejecting counts the rest of the file cannot
+     * hold, so a corrupt count never sizes a huge list.
+     *
+     * @param in the snapshot being read
+     * @param minEntryBytes smallest encoded size of one entry
+     * @return the entry count
+     * @throws IOException if the count is negative or exceeds the remaining bytes
+     */
+    private static int readCount(DataInputStream in, int minEntryBytes) throws IOException {
+
+        int count = in.readInt();
+
+        if (count < 0 || count > in.available() / minEntryBytes) {
+            throw new IOException("Invalid entry count " + count);
+        }
+
+        return count;
+    }
+}
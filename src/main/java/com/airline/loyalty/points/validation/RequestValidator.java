@@ -11,57 +11,160 @@ import java.util.Set;
  * that business rules are satisfied before the request is processed.
  *
  * Validation includes:
- * - Fare amount must be greater than zero
+ * - Errors the decoder recorded in {@link QuoteRequest#decodeErrors()}
+ * - Fare amount must be a number greater than zero
  * - Fare amount must not exceed the maximum allowed limit
  * - Currency must be supported and follow ISO format
- * - Cabin class and customer tier must not be null
+ * - Cabin class and customer tier must be present and known
  * - Promo code must not exceed the allowed length
  *
- * Throws IllegalArgumentException if validation fails.
+ * Every rule is checked in one pass and the violations are returned as
+ * a bitmask of {@link ValidationError} bits, so validating a request,
+ * valid or not, never throws and never allocates. The currency is
+ * checked character by character against a precomputed table of
+ * supported codes instead of a regular expression.
+ *
+ * A validator is immutable; a change of the supported currencies
+ * creates a new one.
  */
 public class RequestValidator {
 
-    private static final Set<String> SUPPORTED_CURRENCIES =
+    /**
+     * Currencies accepted when none are configured.
+     */
+    public static final Set<String> DEFAULT_CURRENCIES =
             Set.of("USD", "EUR", "GBP");
 
+    private static final int MAX_PROMO_CODE_LENGTH = 50;
+
+    private final Set<String> supportedCurrencies;
+
+    // Supported code (null if unsupported) per three-letter code, indexed by its base-26 value
+    private final String[] supported = new String[26 * 26 * 26];
+
+    /**
+     * @param supportedCurrencies currencies accepted in quote requests
+     * @throws IllegalArgumentException if the set is empty or a code is
+     *         not three upper case letters
+     */
+    public RequestValidator(Set<String> supportedCurrencies) {
+
+        if (supportedCurrencies.isEmpty()) {
+            throw new IllegalArgumentException("At least one supported currency is required");
+        }
+
+        for (String currency : supportedCurrencies) {
+            if (currency == null || !isCurrencyFormat(currency)) {
+                throw new IllegalArgumentException("Invalid supported currency: " + currency);
+            }
+            supported[currencyIndex(currency)] = currency;
+        }
+
+        this.supportedCurrencies = Set.copyOf(supportedCurrencies);
+    }
+
     /**
-     * Validates the provided QuoteRequest.
+     * @return currencies accepted in quote requests
+     */
+    public Set<String> supportedCurrencies() {
+        return supportedCurrencies;
+    }
+
+    /**
+     * Looks up a currency code in a character buffer, without creating
+     * a String, so decoders can reuse one instance per supported code.
      *
-     * @param req the request to validate
-     * @throws IllegalArgumentException if any validation rule is violated
+     * @param chars buffer holding the code
+     * @param offset index of the first character
+     * @param length number of characters
+     * @return the shared instance of the code, or null if it is not a
+     *         supported currency
      */
-    public static void validate(QuoteRequest req) {
+    public String supportedCurrency(char[] chars, int offset, int length) {
 
-        if (req.fareAmount() <= 0) {
-            throw new IllegalArgumentException("Fare amount must be greater than zero");
+        if (length != 3) {
+            return null;
         }
 
-        if (req.fareAmount() > 1_000_000) {
-            throw new IllegalArgumentException("Fare amount exceeds maximum allowed");
+        int index = 0;
+
+        for (int i = 0; i < 3; i++) {
+            char c = chars[offset + i];
+            if (c < 'A' || c > 'Z') {
+                return null;
+            }
+            index = index * 26 + (c - 'A');
         }
 
-        if (req.currency() == null || req.currency().isBlank()) {
-            throw new IllegalArgumentException("Currency is required");
+        return supported[index];
+    }
+
+    /**
+     * Checks the provided QuoteRequest against every rule.
+     *
+     * @param req the request to validate
+     * @return 0 if the request is valid, otherwise the bits of every
+     *         violated {@link ValidationError}
+     */
+    public int check(QuoteRequest req) {
+
+        int violations = req.decodeErrors();
+
+        if (Double.isNaN(req.fareAmount())) {
+            violations |= ValidationError.FARE_INVALID.bit();
+        } else if (req.fareAmount() <= 0) {
+            violations |= ValidationError.FARE_NOT_POSITIVE.bit();
         }
 
-        if (!req.currency().matches("^[A-Z]{3}$")) {
-            throw new IllegalArgumentException("Invalid currency format");
+        if (req.fareAmount() > 1_000_000) {
+            violations |= ValidationError.FARE_TOO_LARGE.bit();
         }
 
-        if (!SUPPORTED_CURRENCIES.contains(req.currency())) {
-            throw new IllegalArgumentException("Unsupported currency");
+        String currency = req.currency();
+
+        if (currency == null || currency.isBlank()) {
+            violations |= ValidationError.CURRENCY_REQUIRED.bit();
+        } else if (!isCurrencyFormat(currency)) {
+            violations |= ValidationError.CURRENCY_FORMAT.bit();
+        } else if (supported[currencyIndex(currency)] == null) {
+            violations |= ValidationError.CURRENCY_UNSUPPORTED.bit();
         }
 
         if (req.cabinClass() == null) {
-            throw new IllegalArgumentException("Invalid cabin class");
+            violations |= ValidationError.CABIN_CLASS_INVALID.bit();
         }
 
         if (req.customerTier() == null) {
-            throw new IllegalArgumentException("Invalid customer tier");
+            violations |= ValidationError.CUSTOMER_TIER_INVALID.bit();
+        }
+
+        if (req.promoCode() != null && req.promoCode().length() > MAX_PROMO_CODE_LENGTH) {
+            violations |= ValidationError.PROMO_CODE_TOO_LONG.bit();
         }
 
-        if (req.promoCode() != null && req.promoCode().length() > 50) {
-            throw new IllegalArgumentException("Promo code too long");
+        return violations;
+    }
+
+    /**
+     * @return true if the value is exactly three upper case ASCII letters
+     */
+    private static boolean isCurrencyFormat(String currency) {
+
+        if (currency.length() != 3) {
+            return false;
         }
+
+        for (int i = 0; i < 3; i++) {
+            char c = currency.charAt(i);
+            if (c < 'A' || c > 'Z') {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private static int currencyIndex(String currency) {
+        return ((currency.charAt(0) - 'A') * 26 + (currency.charAt(1) - 'A')) * 26 + (currency.charAt(2) - 'A');
     }
-}
\ No newline at end of file
+}
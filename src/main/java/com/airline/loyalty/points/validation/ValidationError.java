@@ -0,0 +1,83 @@
+package com.airline.loyalty.points.validation;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Rules a QuoteRequest can violate, in the order they are reported.
+ *
+ * {@link RequestValidator#check} returns the violations of a request as
+ * a bitmask of {@link #bit()} values, so validating never allocates;
+ * {@link #first(int)} picks the violation reported as the error, and
+ * {@link #messages(int)} lists every violation for the client.
+ */
+public enum ValidationError {
+
+    FARE_INVALID("Invalid fare amount"),
+    FARE_NOT_POSITIVE("Fare amount must be greater than zero"),
+    FARE_TOO_LARGE("Fare amount exceeds maximum allowed"),
+    CURRENCY_REQUIRED("Currency is required"),
+    CURRENCY_FORMAT("Invalid currency format"),
+    CURRENCY_UNSUPPORTED("Unsupported currency"),
+    CABIN_CLASS_INVALID("Invalid cabin class"),
+    CUSTOMER_TIER_INVALID("Invalid customer tier"),
+    PROMO_CODE_TOO_LONG("Promo code too long"),
+    UNRECOGNIZED_FIELD("Unrecognized field");
+
+    private static final ValidationError[] VALUES = values();
+
+    private final String message;
+
+    ValidationError(String message) {
+        this.message = message;
+    }
+
+    /**
+     * @return the error message returned to the client
+     */
+    public String message() {
+        return message;
+    }
+
+    /**
+     * @return the bit representing this error in a violation mask
+     */
+    public int bit() {
+        return 1 << ordinal();
+    }
+
+    /**
+     * @param violations violation mask returned by {@link RequestValidator#check}
+     * @return true if this error is part of the mask
+     */
+    public boolean isIn(int violations) {
+        return (violations & bit()) != 0;
+    }
+
+    /**
+     * Returns the violation reported when a request breaks several rules.
+     *
+     * @param violations a non-zero violation mask
+     * @return the first error of the mask in declaration order
+     */
+    public static ValidationError first(int violations) {
+        return VALUES[Integer.numberOfTrailingZeros(violations)];
+    }
+
+    /**
+     * Lists the messages of every violation of a rejected request.
+     *
+     * @param violations a violation mask
+     * @return the messages of the errors of the mask in declaration order
+     */
+    public static List<String> messages(int violations) {
+
+        List<String> messages = new ArrayList<>(Integer.bitCount(violations));
+
+        for (int remaining = violations; remaining != 0; remaining &= remaining - 1) {
+            messages.add(first(remaining).message);
+        }
+
+        return messages;
+    }
+}
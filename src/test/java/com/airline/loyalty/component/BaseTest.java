@@ -8,13 +8,28 @@ import io.vertx.core.Vertx;
 import io.vertx.core.json.JsonObject;
 import org.junit.jupiter.api.extension.*;
 
+import java.io.IOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
 /**
  * Base JUnit 5 test extension used for component-level API testing.
  *
  * This class:
  * - Starts a Vert.x instance
- * - Boots the PointsQuoteVerticle with test configuration
+ * - Boots two PointsQuoteVerticle instances sharing one random port
  * - Spins up a WireMock server to simulate external FX and Promo services
+ * - Loads a local promo catalog from data/PromoCatalog.json
+ *   and a promo code filter from data/PromoCodes.txt
+ * - Lets FIRST earn twice the base points of the other cabins
+ * - Adds the Server-Timing header to every quote response
+ * - Writes the configuration to a temporary file watched for changes
+ * - Waits for the short warm-up to finish, as a readiness probe would
  * - Injects the dynamically allocated HTTP server port into test classes
  *
  * It ensures:
@@ -28,6 +43,8 @@ public class BaseTest implements BeforeAllCallback, AfterAllCallback, ParameterR
     private WireMockServer wireMock;
     private int serverPort;
 
+    private static Path configPath;
+
     /**
      * Initializes the test environment before all test cases:
      * - Starts Vert.x
@@ -37,7 +54,7 @@ public class BaseTest implements BeforeAllCallback, AfterAllCallback, ParameterR
      * - Captures the dynamically assigned HTTP server port
      */
     @Override
-    public void beforeAll(ExtensionContext context) {
+    public void beforeAll(ExtensionContext context) throws URISyntaxException, IOException {
 
         vertx = Vertx.vertx();
 
@@ -48,10 +65,14 @@ public class BaseTest implements BeforeAllCallback, AfterAllCallback, ParameterR
 
         // Stub external services
         ExternalServiceStubs.stubFxUsd(wireMock);
+        ExternalServiceStubs.stubFxGbpOutOfRange(wireMock);
         ExternalServiceStubs.stubPromoSummer25(wireMock);
 
 
         JsonObject config = new JsonObject()
+                .put("http", new JsonObject()
+                        .put("port", -1)
+                )
                 .put("fx", new JsonObject()
                         .put("baseUrl", "http://localhost:" + wireMock.port())
                         .put("maxRetries", 2)
@@ -60,11 +81,42 @@ public class BaseTest implements BeforeAllCallback, AfterAllCallback, ParameterR
                         .put("baseUrl", "http://localhost:" + wireMock.port())
                         .put("timeoutMs", 500)
                         .put("expiryWarningDays", 3)
+                        .put("catalog", new JsonObject()
+                                .put("path", resourcePath("/data/PromoCatalog.json"))
+                        )
+                        .put("filter", new JsonObject()
+                                .put("path", resourcePath("/data/PromoCodes.txt"))
+                        )
+                )
+                .put("earning", new JsonObject()
+                        .put("cabinRates", new JsonObject()
+                                .put("FIRST", 2.0)
+                        )
+                )
+                .put("serverTiming", new JsonObject()
+                        .put("sampleRate", 1.0)
+                )
+                .put("warmUp", new JsonObject()
+                        .put("iterations", 500)
+                        .put("maxDurationMs", 5000)
+                        .put("connections", 1)
+                        .put("fxHealthPath", "/health")
+                        .put("promoHealthPath", "/health")
                 );
 
+        configPath = Files.createTempFile("loyalty-config", ".json");
+        configPath.toFile().deleteOnExit();
+
+        config.put("reload", new JsonObject()
+                .put("path", configPath.toString())
+                .put("intervalMs", 100)
+        );
+
+        Files.writeString(configPath, config.encodePrettily());
+
         vertx.deployVerticle(
-                new PointsQuoteVerticle(),
-                new DeploymentOptions().setConfig(config)
+                PointsQuoteVerticle::new,
+                new DeploymentOptions().setConfig(config).setInstances(2)
         ).toCompletionStage().toCompletableFuture().join();
 
         var map = vertx.sharedData().getLocalMap("test-data");
@@ -85,6 +137,36 @@ public class BaseTest implements BeforeAllCallback, AfterAllCallback, ParameterR
         if (serverPort <= 0) {
             throw new IllegalStateException("HTTP server port was not initialised");
         }
+
+        awaitReady(deadline + 5000);
+    }
+
+    private void awaitReady(long deadline) throws IOException {
+
+        HttpClient client = HttpClient.newHttpClient();
+        HttpRequest health = HttpRequest.newBuilder(URI.create("http://localhost:" + serverPort + "/health")).build();
+
+        try {
+            while (client.send(health, HttpResponse.BodyHandlers.discarding()).statusCode() != 200) {
+                if (System.currentTimeMillis() > deadline) {
+                    throw new IllegalStateException("Timed out waiting for warm-up");
+                }
+                Thread.sleep(50);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * @return the configuration file watched by the deployed service
+     */
+    public static Path configPath() {
+        return configPath;
+    }
+
+    private static String resourcePath(String resource) throws URISyntaxException {
+        return Path.of(BaseTest.class.getResource(resource).toURI()).toString();
     }
 
     /**
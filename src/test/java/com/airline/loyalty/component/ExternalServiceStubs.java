@@ -61,6 +61,25 @@ public class ExternalServiceStubs {
                 .willReturn(okJson("{\"bonusPercentage\":25,\"expiresInDays\":2}")));
     }
 
+    /**
+     * Stubs the FX service endpoint for GBP with a rate so large that
+     * the points of a maximum fare do not fit in the quote response.
+     *
+     * When the application calls:
+     *   GET /fx?currency=GBP
+     *
+     * The stub returns:
+     *   {
+     *     "rate": 10000
+     *   }
+     *
+     * @param wm the active WireMock server instance
+     */
+    public static void stubFxGbpOutOfRange(WireMockServer wm) {
+        wm.stubFor(get(urlPathEqualTo("/fx"))
+                .withQueryParam("currency", equalTo("GBP"))
+                .willReturn(okJson("{\"rate\":10000}")));
+    }
 
     /**
      * Simulates an FX service failure by returning HTTP 500 for the /fx endpoint.
@@ -0,0 +1,92 @@
+package com.airline.loyalty.component.benchmark;
+
+import com.airline.loyalty.points.api.QuoteCodec;
+import com.airline.loyalty.points.model.QuoteRequest;
+import com.airline.loyalty.points.model.QuoteResponse;
+import com.airline.loyalty.points.validation.RequestValidator;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.Json;
+import io.vertx.core.json.JsonObject;
+
+import java.util.List;
+
+/**
+ * Micro-benchmark comparing the quote hot path JSON handling:
+ * - Generic: Buffer → JsonObject → mapTo(QuoteRequest), Json.encode(QuoteResponse)
+ * - Codec:   QuoteCodec.decodeRequest / QuoteCodec.encodeResponse
+ *
+ * Not part of the test suite. Run the main method manually
+ * (from the IDE, or with java on the test classpath after mvn test-compile).
+ *
+ * Reports average nanoseconds per round trip (decode + encode) and
+ * allocated bytes per round trip where the JVM exposes thread allocation.
+ */
+public class QuoteCodecBenchmark {
+
+    private static final int WARMUP_ITERATIONS = 200_000;
+    private static final int MEASURED_ITERATIONS = 1_000_000;
+
+    private static final Buffer REQUEST = Buffer.buffer(new JsonObject()
+            .put("fareAmount", 1234.50)
+            .put("currency", "USD")
+            .put("cabinClass", "ECONOMY")
+            .put("customerTier", "SILVER")
+            .put("promoCode", "SUMMER25")
+            .encode());
+
+    private static final RequestValidator VALIDATOR = new RequestValidator(RequestValidator.DEFAULT_CURRENCIES);
+
+    private static final QuoteResponse RESPONSE =
+            new QuoteResponse(1234, 185, 308, 1727, 3.67, List.of("PROMO_EXPIRES_SOON"));
+
+    private static long sink;
+
+    public static void main(String[] args) {
+
+        if (!Json.encode(RESPONSE).equals(QuoteCodec.encodeResponse(RESPONSE).toString())) {
+            throw new IllegalStateException("Codec output differs from Json.encode");
+        }
+
+        for (int round = 0; round < 3; round++) {
+            run("generic", QuoteCodecBenchmark::generic, WARMUP_ITERATIONS, false);
+            run("codec", QuoteCodecBenchmark::codec, WARMUP_ITERATIONS, false);
+        }
+
+        run("generic", QuoteCodecBenchmark::generic, MEASURED_ITERATIONS, true);
+        run("codec", QuoteCodecBenchmark::codec, MEASURED_ITERATIONS, true);
+
+        System.out.println("(sink " + sink + ")");
+    }
+
+    private static int generic() {
+        QuoteRequest req = new JsonObject(REQUEST).mapTo(QuoteRequest.class);
+        return req.currency().length() + Json.encode(RESPONSE).length();
+    }
+
+    private static int codec() {
+        QuoteRequest req = QuoteCodec.decodeRequest(REQUEST, VALIDATOR);
+        return req.currency().length() + QuoteCodec.encodeResponse(RESPONSE).length();
+    }
+
+    private static void run(String name, java.util.function.IntSupplier op, int iterations, boolean report) {
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) java.lang.management.ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().threadId();
+
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+
+        for (int i = 0; i < iterations; i++) {
+            sink += op.getAsInt();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        if (report) {
+            System.out.printf("%-8s %8.1f ns/op %8d B/op%n",
+                    name, (double) elapsed / iterations, allocated / iterations);
+        }
+    }
+}
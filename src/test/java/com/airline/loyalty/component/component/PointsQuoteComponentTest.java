@@ -4,6 +4,7 @@ import com.airline.loyalty.component.BaseTest;
 import com.airline.loyalty.component.models.QuoteTestDTO;
 import com.airline.loyalty.component.util.QuoteTestDataLoader;
 import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonArray;
 import io.vertx.core.json.JsonObject;
 import io.vertx.ext.web.client.WebClient;
 import io.vertx.junit5.VertxExtension;
@@ -13,6 +14,9 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.MethodSource;
 
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.AssertionsForClassTypes.assertThat;
@@ -140,6 +144,41 @@ class PointsQuoteComponentTest {
                 });
     }
 
+    /**
+     * Verifies that the metrics endpoint exposes the pipeline stage
+     * histograms in the Prometheus text format.
+     */
+    @Test
+    void metrics_endpoint_should_expose_stage_latencies(
+            Vertx vertx,
+            Integer serverPort,
+            VertxTestContext ctx) {
+
+        WebClient client = WebClient.create(vertx);
+
+        client.get(serverPort, "localhost", "/metrics")
+                .send(ar -> {
+
+                    if (ar.failed()) {
+                        ctx.failNow(ar.cause());
+                        return;
+                    }
+
+                    assertThat(ar.result().statusCode()).isEqualTo(200);
+                    assertThat(ar.result().getHeader("Content-Type")).startsWith("text/plain");
+
+                    String body = ar.result().bodyAsString();
+                    assertThat(body).contains("# TYPE loyalty_quote_stage_latency_seconds summary");
+                    assertThat(body).contains("loyalty_quote_stage_latency_seconds_count{stage=\"total\"}");
+                    assertThat(body).contains("loyalty_fx_cache_hits_total");
+                    assertThat(body).contains("loyalty_fx_circuit_closed_total");
+                    assertThat(body).contains("loyalty_warmup_iterations_total");
+                    assertThat(body).contains("loyalty_config_reload_failures_total");
+
+                    ctx.completeNow();
+                });
+    }
+
     /**
      * Ensures the API returns HTTP 404 when
      * an unknown endpoint is requested.
@@ -229,6 +268,439 @@ class PointsQuoteComponentTest {
                 });
     }
 
+    /**
+     * Ensures the API returns HTTP 413 when the request body
+     * exceeds the configured maximum body size.
+     */
+    @Test
+    void api_should_reject_oversized_request_body(
+            Vertx vertx,
+            Integer serverPort,
+            VertxTestContext ctx) {
+
+        WebClient client = WebClient.create(vertx);
+
+        JsonObject body = new JsonObject()
+                .put("fareAmount", 1000)
+                .put("currency", "USD")
+                .put("cabinClass", "ECONOMY")
+                .put("customerTier", "SILVER")
+                .put("promoCode", "X".repeat(32_768));
+
+        client.post(serverPort, "localhost", "/v1/points/quote")
+                .putHeader("Content-Type", "application/json")
+                .sendBuffer(io.vertx.core.buffer.Buffer.buffer(body.encode()), ar -> {
+
+                    if (ar.failed()) {
+                        ctx.failNow(ar.cause());
+                        return;
+                    }
+
+                    assertThat(ar.result().statusCode()).isEqualTo(413);
+
+                    ctx.completeNow();
+                });
+    }
+
+    /**
+     * Verifies that promo codes known to the local catalog are applied
+     * without the Promotion Service, including the expiry rules.
+     */
+    @Test
+    void catalog_promo_should_be_applied_locally(
+            Vertx vertx,
+            Integer serverPort,
+            VertxTestContext ctx) {
+
+        WebClient client = WebClient.create(vertx);
+
+        JsonObject body = new JsonObject()
+                .put("fareAmount", 100)
+                .put("currency", "USD")
+                .put("cabinClass", "ECONOMY")
+                .put("customerTier", "NONE")
+                .put("promoCode", "catalog10");
+
+        client.post(serverPort, "localhost", "/v1/points/quote")
+                .putHeader("Content-Type", "application/json")
+                .sendJsonObject(body)
+                .compose(active -> {
+                    assertThat(active.statusCode()).isEqualTo(200);
+                    assertThat(active.bodyAsJsonObject().getInteger("promoBonus")).isEqualTo(36);
+
+                    return client.post(serverPort, "localhost", "/v1/points/quote")
+                            .putHeader("Content-Type", "application/json")
+                            .sendJsonObject(body.copy().put("promoCode", "ENDED50"));
+                })
+                .onComplete(ctx.succeeding(ended -> ctx.verify(() -> {
+                    assertThat(ended.statusCode()).isEqualTo(200);
+                    assertThat(ended.bodyAsJsonObject().getInteger("promoBonus")).isEqualTo(0);
+                    assertThat(ended.bodyAsJsonObject().getJsonArray("warnings").getList())
+                            .isEqualTo(List.of("PROMO_EXPIRED"));
+                    ctx.completeNow();
+                })));
+    }
+
+    /**
+     * Verifies that base points follow the configured cabin earning rate
+     * and that the tier bonus is applied on top of them.
+     */
+    @Test
+    void first_cabin_should_earn_at_its_configured_rate(
+            Vertx vertx,
+            Integer serverPort,
+            VertxTestContext ctx) {
+
+        WebClient client = WebClient.create(vertx);
+
+        JsonObject body = new JsonObject()
+                .put("fareAmount", 100)
+                .put("currency", "USD")
+                .put("cabinClass", "FIRST")
+                .put("customerTier", "GOLD");
+
+        client.post(serverPort, "localhost", "/v1/points/quote")
+                .putHeader("Content-Type", "application/json")
+                .sendJsonObject(body)
+                .onComplete(ctx.succeeding(res -> ctx.verify(() -> {
+                    assertThat(res.statusCode()).isEqualTo(200);
+                    assertThat(res.bodyAsJsonObject().getInteger("basePoints")).isEqualTo(734);
+                    assertThat(res.bodyAsJsonObject().getInteger("tierBonus")).isEqualTo(220);
+                    ctx.completeNow();
+                })));
+    }
+
+    /**
+     * Verifies that sampled quote responses carry a Server-Timing header
+     * with the duration of every stage.
+     */
+    @Test
+    void quote_should_carry_server_timing_header(
+            Vertx vertx,
+            Integer serverPort,
+            VertxTestContext ctx) {
+
+        WebClient client = WebClient.create(vertx);
+
+        JsonObject body = new JsonObject()
+                .put("fareAmount", 100)
+                .put("currency", "USD")
+                .put("cabinClass", "ECONOMY")
+                .put("customerTier", "NONE")
+                .put("promoCode", "CATALOG10");
+
+        client.post(serverPort, "localhost", "/v1/points/quote")
+                .putHeader("Content-Type", "application/json")
+                .sendJsonObject(body)
+                .onComplete(ctx.succeeding(res -> ctx.verify(() -> {
+                    assertThat(res.statusCode()).isEqualTo(200);
+                    assertThat(res.getHeader("Server-Timing"))
+                            .matches("validate;dur=\\d+\\.\\d{3}, "
+                                    + "fx;desc=\"(hit|miss)\";dur=\\d+\\.\\d{3}, "
+                                    + "promo;desc=\"hit\";dur=\\d+\\.\\d{3}, "
+                                    + "calc;dur=\\d+\\.\\d{3}, "
+                                    + "encode;dur=\\d+\\.\\d{3}");
+                    ctx.completeNow();
+                })));
+    }
+
+    /**
+     * Verifies that a currency added to the configuration file is
+     * accepted without a restart: its requests stop failing validation
+     * and reach the FX lookup, which has no stub for it.
+     */
+    @Test
+    void reloaded_configuration_should_accept_new_currency(
+            Vertx vertx,
+            Integer serverPort,
+            VertxTestContext ctx) throws Exception {
+
+        WebClient client = WebClient.create(vertx);
+
+        JsonObject body = new JsonObject()
+                .put("fareAmount", 100)
+                .put("currency", "JPY")
+                .put("cabinClass", "ECONOMY")
+                .put("customerTier", "NONE");
+
+        JsonObject config = new JsonObject(Files.readString(BaseTest.configPath()))
+                .put("currencies", new JsonArray().add("USD").add("EUR").add("GBP").add("JPY"));
+
+        client.post(serverPort, "localhost", "/v1/points/quote")
+                .putHeader("Content-Type", "application/json")
+                .sendJsonObject(body)
+                .onComplete(ctx.succeeding(rejected -> ctx.verify(() -> {
+                    assertThat(rejected.statusCode()).isEqualTo(400);
+
+                    Files.writeString(BaseTest.configPath(), config.encodePrettily());
+                    Files.setLastModifiedTime(BaseTest.configPath(),
+                            FileTime.fromMillis(System.currentTimeMillis() + 1_000));
+
+                    awaitAccepted(vertx, client, serverPort, body, 50, ctx);
+                })));
+    }
+
+    private void awaitAccepted(Vertx vertx, WebClient client, int serverPort, JsonObject body,
+                               int attemptsLeft, VertxTestContext ctx) {
+
+        client.post(serverPort, "localhost", "/v1/points/quote")
+                .putHeader("Content-Type", "application/json")
+                .sendJsonObject(body)
+                .onComplete(ctx.succeeding(res -> ctx.verify(() -> {
+                    if (res.statusCode() != 400) {
+                        assertThat(res.statusCode()).isEqualTo(503);
+                        ctx.completeNow();
+                    } else if (attemptsLeft == 0) {
+                        ctx.failNow("Reloaded currency was never accepted");
+                    } else {
+                        vertx.setTimer(100, id -> awaitAccepted(vertx, client, serverPort, body,
+                                attemptsLeft - 1, ctx));
+                    }
+                })));
+    }
+
+    /**
+     * Ensures the API returns HTTP 504 when the caller's deadline
+     * has already passed, and HTTP 400 for a malformed deadline header.
+     */
+    @Test
+    void api_should_reject_request_past_its_deadline(
+            Vertx vertx,
+            Integer serverPort,
+            VertxTestContext ctx) {
+
+        WebClient client = WebClient.create(vertx);
+
+        JsonObject body = new JsonObject()
+                .put("fareAmount", 1000)
+                .put("currency", "USD")
+                .put("cabinClass", "ECONOMY")
+                .put("customerTier", "SILVER");
+
+        client.post(serverPort, "localhost", "/v1/points/quote")
+                .putHeader("Content-Type", "application/json")
+                .putHeader("X-Request-Deadline", String.valueOf(System.currentTimeMillis() - 1))
+                .sendJsonObject(body)
+                .compose(expired -> {
+                    assertThat(expired.statusCode()).isEqualTo(504);
+                    assertThat(expired.bodyAsJsonObject().getString("error"))
+                            .isEqualTo("Request deadline exceeded");
+
+                    return client.post(serverPort, "localhost", "/v1/points/quote")
+                            .putHeader("Content-Type", "application/json")
+                            .putHeader("X-Request-Timeout-Ms", "soon")
+                            .sendJsonObject(body);
+                })
+                .onComplete(ctx.succeeding(invalid -> ctx.verify(() -> {
+                    assertThat(invalid.statusCode()).isEqualTo(400);
+                    assertThat(invalid.bodyAsJsonObject().getString("error"))
+                            .isEqualTo("Invalid X-Request-Timeout-Ms header");
+                    ctx.completeNow();
+                })));
+    }
+
+    /**
+     * Verifies that the batch endpoint returns one result per item,
+     * in request order, with per-item errors for invalid requests.
+     */
+    @Test
+    void batch_endpoint_should_return_results_in_request_order(
+            Vertx vertx,
+            Integer serverPort,
+            VertxTestContext ctx) {
+
+        WebClient client = WebClient.create(vertx);
+
+        JsonArray body = new JsonArray()
+                .add(new JsonObject()
+                        .put("fareAmount", 100)
+                        .put("currency", "USD")
+                        .put("cabinClass", "ECONOMY")
+                        .put("customerTier", "SILVER")
+                        .put("promoCode", "SUMMER25"))
+                .add(new JsonObject()
+                        .put("fareAmount", -1)
+                        .put("currency", "USD")
+                        .put("cabinClass", "ECONOMY")
+                        .put("customerTier", "SILVER"))
+                .add(new JsonObject()
+                        .put("fareAmount", 200)
+                        .put("currency", "USD")
+                        .put("cabinClass", "BUSINESS")
+                        .put("customerTier", "GOLD"));
+
+        client.post(serverPort, "localhost", "/v1/points/quote:batch")
+                .putHeader("Content-Type", "application/json")
+                .sendBuffer(io.vertx.core.buffer.Buffer.buffer(body.encode()), ar -> {
+
+                    if (ar.failed()) {
+                        ctx.failNow(ar.cause());
+                        return;
+                    }
+
+                    assertThat(ar.result().statusCode()).isEqualTo(200);
+
+                    JsonArray results = ar.result().bodyAsJsonObject().getJsonArray("results");
+
+                    assertThat(results.size()).isEqualTo(3);
+                    assertThat(results.getJsonObject(0).getInteger("status")).isEqualTo(200);
+                    assertThat(results.getJsonObject(0).getJsonObject("quote").getInteger("basePoints"))
+                            .isEqualTo(367);
+                    assertThat(results.getJsonObject(1).getInteger("status")).isEqualTo(400);
+                    assertThat(results.getJsonObject(1).getString("error"))
+                            .isEqualTo("Fare amount must be greater than zero");
+                    assertThat(results.getJsonObject(1).getJsonArray("errors"))
+                            .isEqualTo(new JsonArray().add("Fare amount must be greater than zero"));
+                    assertThat(results.getJsonObject(2).getInteger("status")).isEqualTo(200);
+                    assertThat(results.getJsonObject(2).getJsonObject("quote").getInteger("basePoints"))
+                            .isEqualTo(734);
+
+                    ctx.completeNow();
+                });
+    }
+
+    /**
+     * Verifies that an item whose points overflow fails on its own
+     * with 422, while the other items of the batch are still quoted.
+     */
+    @Test
+    void batch_endpoint_should_fail_only_the_out_of_range_item(
+            Vertx vertx,
+            Integer serverPort,
+            VertxTestContext ctx) {
+
+        WebClient client = WebClient.create(vertx);
+
+        JsonArray body = new JsonArray()
+                .add(new JsonObject()
+                        .put("fareAmount", 100)
+                        .put("currency", "USD")
+                        .put("cabinClass", "ECONOMY")
+                        .put("customerTier", "SILVER"))
+                .add(new JsonObject()
+                        .put("fareAmount", 1_000_000)
+                        .put("currency", "GBP")
+                        .put("cabinClass", "ECONOMY")
+                        .put("customerTier", "SILVER"))
+                .add(new JsonObject()
+                        .put("fareAmount", 200)
+                        .put("currency", "USD")
+                        .put("cabinClass", "BUSINESS")
+                        .put("customerTier", "GOLD"));
+
+        client.post(serverPort, "localhost", "/v1/points/quote:batch")
+                .putHeader("Content-Type", "application/json")
+                .sendBuffer(io.vertx.core.buffer.Buffer.buffer(body.encode()), ar -> {
+
+                    if (ar.failed()) {
+                        ctx.failNow(ar.cause());
+                        return;
+                    }
+
+                    assertThat(ar.result().statusCode()).isEqualTo(200);
+
+                    JsonArray results = ar.result().bodyAsJsonObject().getJsonArray("results");
+
+                    assertThat(results.size()).isEqualTo(3);
+                    assertThat(results.getJsonObject(0).getInteger("status")).isEqualTo(200);
+                    assertThat(results.getJsonObject(0).getJsonObject("quote").getInteger("basePoints"))
+                            .isEqualTo(367);
+                    assertThat(results.getJsonObject(1).getInteger("status")).isEqualTo(422);
+                    assertThat(results.getJsonObject(1).getString("error"))
+                            .isEqualTo("Quote exceeds the supported points range");
+                    assertThat(results.getJsonObject(2).getInteger("status")).isEqualTo(200);
+                    assertThat(results.getJsonObject(2).getJsonObject("quote").getInteger("basePoints"))
+                            .isEqualTo(734);
+
+                    ctx.completeNow();
+                });
+    }
+
+    /**
+     * Verifies that a request breaking several rules gets all of them
+     * in "errors", and the first one in "error".
+     */
+    @Test
+    void validation_error_should_list_every_violation(
+            Vertx vertx,
+            Integer serverPort,
+            VertxTestContext ctx) {
+
+        WebClient client = WebClient.create(vertx);
+
+        JsonObject request = new JsonObject()
+                .put("fareAmount", -1)
+                .put("currency", "XXX")
+                .put("cabinClass", "ECONOMY")
+                .put("customerTier", "SILVER");
+
+        client.post(serverPort, "localhost", "/v1/points/quote")
+                .putHeader("Content-Type", "application/json")
+                .sendJsonObject(request, ar -> {
+
+                    if (ar.failed()) {
+                        ctx.failNow(ar.cause());
+                        return;
+                    }
+
+                    JsonObject body = ar.result().bodyAsJsonObject();
+
+                    assertThat(ar.result().statusCode()).isEqualTo(400);
+                    assertThat(body.getString("error")).isEqualTo("Fare amount must be greater than zero");
+                    assertThat(body.getJsonArray("errors")).isEqualTo(new JsonArray()
+                            .add("Fare amount must be greater than zero")
+                            .add("Unsupported currency"));
+
+                    ctx.completeNow();
+                });
+    }
+
+    /**
+     * Verifies that the streaming endpoint answers every NDJSON line
+     * with one NDJSON line, in input order.
+     */
+    @Test
+    void stream_endpoint_should_return_one_line_per_request(
+            Vertx vertx,
+            Integer serverPort,
+            VertxTestContext ctx) {
+
+        WebClient client = WebClient.create(vertx);
+
+        String body = new JsonObject()
+                .put("fareAmount", 100)
+                .put("currency", "USD")
+                .put("cabinClass", "ECONOMY")
+                .put("customerTier", "SILVER").encode() + "\n"
+                + "{not json}\n"
+                + new JsonObject()
+                .put("fareAmount", 200)
+                .put("currency", "USD")
+                .put("cabinClass", "BUSINESS")
+                .put("customerTier", "GOLD").encode() + "\n";
+
+        client.post(serverPort, "localhost", "/v1/points/quote:stream")
+                .putHeader("Content-Type", "application/x-ndjson")
+                .sendBuffer(io.vertx.core.buffer.Buffer.buffer(body), ar -> {
+
+                    if (ar.failed()) {
+                        ctx.failNow(ar.cause());
+                        return;
+                    }
+
+                    assertThat(ar.result().statusCode()).isEqualTo(200);
+
+                    String[] lines = ar.result().bodyAsString().split("\n");
+
+                    assertThat(lines.length).isEqualTo(3);
+                    assertThat(new JsonObject(lines[0]).getInteger("basePoints")).isEqualTo(367);
+                    assertThat(new JsonObject(lines[1]).getInteger("status")).isEqualTo(400);
+                    assertThat(new JsonObject(lines[2]).getInteger("basePoints")).isEqualTo(734);
+
+                    ctx.completeNow();
+                });
+    }
+
     static Stream<QuoteTestDTO> testCases() {
         return QuoteTestDataLoader.loadQuoteTestCases();
     }
@@ -0,0 +1,94 @@
+package com.airline.loyalty.points.accesslog;
+
+import com.airline.loyalty.points.model.CabinClass;
+import com.airline.loyalty.points.model.QuoteRequest;
+import com.airline.loyalty.points.model.Tier;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of the lines written by {@link AccessLog}.
+ */
+class AccessLogTest {
+
+    @TempDir
+    Path dir;
+
+    /**
+     * A currency carrying a newline and fake fields stays inside its
+     * own field on a single line.
+     */
+    @Test
+    void client_supplied_currency_should_not_forge_lines_or_fields() throws Exception {
+
+        Path file = dir.resolve("access.log");
+        AccessLog log = new AccessLog(file, 16, 10, 1.0, 250);
+        log.start();
+
+        log.record(400, 1_000_000, new QuoteRequest(100, "USD\nts=forged status=200", CabinClass.ECONOMY,
+                Tier.GOLD, null));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while ((!Files.exists(file) || Files.size(file) == 0) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        List<String> lines = Files.readAllLines(file);
+
+        assertThat(lines).hasSize(1);
+        assertThat(lines.get(0))
+                .contains(" status=400 ")
+                .contains(" currency=USD\\u000ats=forged\\u0020status=200 cabin=ECONOMY ")
+                .doesNotContain(" status=200");
+
+        log.close();
+    }
+
+    /**
+     * Closing writes the records published so far, stops the writer
+     * thread and drops later records.
+     */
+    @Test
+    void close_should_write_pending_records_and_stop_the_writer() throws Exception {
+
+        Path file = dir.resolve("access.log");
+        AccessLog log = new AccessLog(file, 16, 60_000, 1.0, 250);
+        log.start();
+
+        log.record(500, 1_000_000, null);
+        log.record(503, 1_000_000, null);
+        log.close();
+
+        assertThat(Files.readAllLines(file)).hasSize(2);
+        assertThat(log.written()).isEqualTo(2);
+        assertThat(Thread.getAllStackTraces().keySet())
+                .noneMatch(thread -> thread.getName().equals("access-log-writer"));
+
+        log.record(500, 1_000_000, null);
+
+        assertThat(log.dropped()).isEqualTo(1);
+    }
+
+    /**
+     * Printable values are written unchanged, missing ones as "-".
+     */
+    @Test
+    void escaping_should_keep_plain_values() {
+
+        StringBuilder line = new StringBuilder();
+
+        AccessLog.appendEscaped(line, "EUR");
+        line.append(' ');
+        AccessLog.appendEscaped(line, null);
+        line.append(' ');
+        AccessLog.appendEscaped(line, "a\\b");
+
+        assertThat(line).hasToString("EUR - a\\u005cb");
+    }
+}
@@ -0,0 +1,106 @@
+package com.airline.loyalty.points.api;
+
+import com.airline.loyalty.points.model.QuoteRequest;
+import com.airline.loyalty.points.validation.RequestValidator;
+import com.airline.loyalty.points.validation.ValidationError;
+import io.vertx.core.buffer.Buffer;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of how {@link QuoteCodec} decodes the currency and the invalid
+ * values of a request.
+ */
+class QuoteCodecTest {
+
+    /**
+     * A supported currency is decoded as the validator's own instance,
+     * including currencies added by a configuration reload.
+     */
+    @Test
+    void supported_currency_should_be_the_shared_instance_of_the_current_validator() {
+
+        String jpy = new String("JPY".toCharArray());
+        RequestValidator reloaded = new RequestValidator(Set.of("USD", jpy));
+
+        QuoteRequest request = QuoteCodec.decodeRequest(body("JPY"), reloaded);
+
+        assertThat(request.currency()).isSameAs(jpy);
+    }
+
+    /**
+     * Unsupported and malformed currencies are decoded as sent, so
+     * validation can report them.
+     */
+    @Test
+    void unsupported_currency_should_be_decoded_as_sent() {
+
+        RequestValidator validator = new RequestValidator(RequestValidator.DEFAULT_CURRENCIES);
+
+        assertThat(QuoteCodec.decodeRequest(body("JPY"), validator).currency()).isEqualTo("JPY");
+        assertThat(QuoteCodec.decodeRequest(body("usd"), validator).currency()).isEqualTo("usd");
+        assertThat(QuoteCodec.decodeRequest(body("US"), validator).currency()).isEqualTo("US");
+    }
+
+    /**
+     * Unknown enum values, a non-numeric fare and unknown fields decode
+     * without throwing, and validation reports them with every other
+     * violation of the request.
+     */
+    @Test
+    void invalid_values_should_be_reported_by_validation_together() {
+
+        RequestValidator validator = new RequestValidator(RequestValidator.DEFAULT_CURRENCIES);
+
+        Buffer body = new JsonObject()
+                .put("fareAmount", "ten")
+                .put("currency", "JPY")
+                .put("cabinClass", "SPACE")
+                .put("customerTier", "DIAMOND")
+                .put("seat", new JsonObject().put("row", 12))
+                .toBuffer();
+
+        QuoteRequest request = QuoteCodec.decodeRequest(body, validator);
+
+        assertThat(request.fareAmount()).isNaN();
+        assertThat(request.cabinClass()).isNull();
+        assertThat(request.customerTier()).isNull();
+        assertThat(ValidationError.messages(validator.check(request))).containsExactly(
+                "Invalid fare amount",
+                "Unsupported currency",
+                "Invalid cabin class",
+                "Invalid customer tier",
+                "Unrecognized field");
+    }
+
+    /**
+     * Numeric strings are still accepted as fare amounts.
+     */
+    @Test
+    void numeric_string_fare_should_be_decoded() {
+
+        RequestValidator validator = new RequestValidator(RequestValidator.DEFAULT_CURRENCIES);
+
+        Buffer body = body("USD").toJsonObject().put("fareAmount", " 150.50 ").toBuffer();
+
+        QuoteRequest request = QuoteCodec.decodeRequest(body, validator);
+
+        assertThat(request.fareAmount()).isEqualTo(150.50);
+        assertThat(validator.check(request)).isZero();
+        assertThat(QuoteCodec.decodeRequest(body("USD").toJsonObject().put("fareAmount", "1e").toBuffer(),
+                validator).fareAmount()).isNaN();
+    }
+
+    private static Buffer body(String currency) {
+        return new JsonObject()
+                .put("fareAmount", 100)
+                .put("currency", currency)
+                .put("cabinClass", "ECONOMY")
+                .put("customerTier", "GOLD")
+                .toBuffer();
+    }
+}
@@ -0,0 +1,76 @@
+package com.airline.loyalty.points.config;
+
+import io.vertx.core.Vertx;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of {@link ConfigWatcher}: changes are handed to the listener
+ * until the watcher is closed.
+ */
+class ConfigWatcherTest {
+
+    private Vertx vertx;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void tearDown() {
+        vertx.close();
+    }
+
+    /**
+     * A changed file is applied while the watcher runs; once closed,
+     * later changes are no longer checked.
+     */
+    @Test
+    void close_should_stop_watching() throws Exception {
+
+        Path file = dir.resolve("config.json");
+        Files.writeString(file, "{\"currencies\":[\"USD\"]}");
+
+        AtomicInteger applied = new AtomicInteger();
+        ConfigWatcher watcher = new ConfigWatcher(file, config -> applied.incrementAndGet());
+        watcher.start(vertx, 20);
+
+        change(file, "{\"currencies\":[\"USD\",\"EUR\"]}");
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (applied.get() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+
+        assertThat(applied).hasValue(1);
+
+        watcher.close(vertx);
+        Thread.sleep(50);
+
+        change(file, "{\"currencies\":[\"GBP\"]}");
+        Thread.sleep(200);
+
+        assertThat(applied).hasValue(1);
+        assertThat(watcher.reloads()).isEqualTo(1);
+    }
+
+    // Moves the modification time on, whatever the file system's timestamp resolution
+    private static void change(Path file, String content) throws Exception {
+        long previous = Files.getLastModifiedTime(file).toMillis();
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(previous + 1_000));
+    }
+}
@@ -0,0 +1,51 @@
+package com.airline.loyalty.points.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of how {@link AdaptiveConcurrencyLimiter} adjusts its limit.
+ */
+class AdaptiveConcurrencyLimiterTest {
+
+    private static final long SLOW_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+
+    /**
+     * A failed or slow request decreases the limit.
+     */
+    @Test
+    void failures_should_decrease_the_limit() {
+
+        AdaptiveConcurrencyLimiter limiter = limiter();
+
+        assertThat(limiter.tryAcquire()).isTrue();
+        limiter.release(SLOW_NANOS, true);
+
+        assertThat(limiter.limit()).isEqualTo(9);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    /**
+     * Ignored outcomes free the slot but leave the limit unchanged.
+     */
+    @Test
+    void ignored_outcomes_should_not_change_the_limit() {
+
+        AdaptiveConcurrencyLimiter limiter = limiter();
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(limiter.tryAcquire()).isTrue();
+            limiter.releaseIgnored();
+        }
+
+        assertThat(limiter.limit()).isEqualTo(10);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter() {
+        return new AdaptiveConcurrencyLimiter(true, 10, 1, 100, 250, 0.9, 1);
+    }
+}
@@ -0,0 +1,71 @@
+package com.airline.loyalty.points.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests of the jittered delays of {@link BackoffPolicy}.
+ */
+class BackoffPolicyTest {
+
+    /**
+     * Every delay lies in [0, min(maxDelayMs, baseDelayMs × 2^retry)].
+     */
+    @Test
+    void delays_should_stay_within_the_jitter_bounds() {
+
+        BackoffPolicy policy = new BackoffPolicy(10, 50, 1_000, 2_000);
+
+        for (int retry = 0; retry < 10; retry++) {
+            long cap = Math.min(1_000, 50L << retry);
+
+            for (int i = 0; i < 1_000; i++) {
+                assertThat(policy.delayMs(retry)).isBetween(0L, cap);
+            }
+        }
+    }
+
+    /**
+     * Delays are spread over the whole range rather than fixed.
+     */
+    @Test
+    void delays_should_be_jittered() {
+
+        BackoffPolicy policy = new BackoffPolicy(2, 100, 100, 2_000);
+
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+
+        for (int i = 0; i < 1_000; i++) {
+            long delay = policy.delayMs(0);
+            min = Math.min(min, delay);
+            max = Math.max(max, delay);
+        }
+
+        assertThat(min).isLessThan(25);
+        assertThat(max).isGreaterThan(75);
+    }
+
+    /**
+     * Very large retry numbers do not overflow the exponential cap.
+     */
+    @Test
+    void large_retry_numbers_should_stay_capped() {
+
+        BackoffPolicy policy = new BackoffPolicy(100, 50, 1_000, 2_000);
+
+        assertThat(policy.delayMs(63)).isBetween(0L, 1_000L);
+        assertThat(policy.delayMs(Integer.MAX_VALUE)).isBetween(0L, 1_000L);
+    }
+
+    /**
+     * A base delay above the maximum delay is rejected.
+     */
+    @Test
+    void invalid_settings_should_be_rejected() {
+        assertThatThrownBy(() -> new BackoffPolicy(2, 100, 50, 2_000))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
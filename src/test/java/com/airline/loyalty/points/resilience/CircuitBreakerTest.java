@@ -0,0 +1,82 @@
+package com.airline.loyalty.points.resilience;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of the {@link CircuitBreaker} state machine.
+ */
+class CircuitBreakerTest {
+
+    private static final long OPEN_DURATION_MS = 50;
+
+    /**
+     * The circuit opens after the failure threshold, rejects calls while
+     * open, lets one trial call through once the open duration elapsed,
+     * and closes again when that trial succeeds.
+     */
+    @Test
+    void should_go_from_closed_to_open_to_half_open_and_back_to_closed() throws InterruptedException {
+
+        CircuitBreaker breaker = new CircuitBreaker("fx", 2, OPEN_DURATION_MS, 1);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        assertThat(breaker.tryAcquire()).isFalse();
+        assertThat(breaker.rejectedCount()).isEqualTo(1);
+
+        Thread.sleep(OPEN_DURATION_MS + 20);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isFalse();
+
+        breaker.onSuccess();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.openedCount()).isEqualTo(1);
+        assertThat(breaker.halfOpenedCount()).isEqualTo(1);
+        assertThat(breaker.closedCount()).isEqualTo(1);
+    }
+
+    /**
+     * A failed trial call opens the circuit again.
+     */
+    @Test
+    void failed_trial_call_should_reopen_the_circuit() throws InterruptedException {
+
+        CircuitBreaker breaker = new CircuitBreaker("fx", 1, OPEN_DURATION_MS, 1);
+
+        breaker.onFailure();
+        Thread.sleep(OPEN_DURATION_MS + 20);
+
+        assertThat(breaker.tryAcquire()).isTrue();
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.openedCount()).isEqualTo(2);
+        assertThat(breaker.tryAcquire()).isFalse();
+    }
+
+    /**
+     * Only consecutive failures count: a success in between resets them.
+     */
+    @Test
+    void success_should_reset_consecutive_failures() {
+
+        CircuitBreaker breaker = new CircuitBreaker("fx", 2, OPEN_DURATION_MS, 1);
+
+        breaker.onFailure();
+        breaker.onSuccess();
+        breaker.onFailure();
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+}
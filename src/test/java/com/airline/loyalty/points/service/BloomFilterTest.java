@@ -0,0 +1,66 @@
+package com.airline.loyalty.points.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests of {@link BloomFilter}: no false negatives, and false positives
+ * close to the rate the filter was sized for.
+ */
+class BloomFilterTest {
+
+    /**
+     * Every value added is reported as possibly present.
+     */
+    @Test
+    void added_values_should_always_be_found() {
+
+        List<String> codes = codes("PROMO", 10_000);
+        BloomFilter filter = BloomFilter.of(codes, 0.01);
+
+        assertThat(codes).allMatch(filter::mightContain);
+        assertThat(filter.size()).isEqualTo(10_000);
+    }
+
+    /**
+     * Values never added are mostly rejected: the observed false
+     * positive rate stays close to the target, and the filter uses
+     * about 1.2 bytes per value at 1%.
+     */
+    @Test
+    void false_positive_rate_should_stay_near_the_target() {
+
+        BloomFilter filter = BloomFilter.of(codes("PROMO", 10_000), 0.01);
+
+        long falsePositives = codes("OTHER", 100_000).stream().filter(filter::mightContain).count();
+
+        assertThat(falsePositives / 100_000d).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveRate()).isBetween(0.005, 0.015);
+        assertThat(filter.memoryBytes()).isBetween(11_000L, 13_000L);
+    }
+
+    /**
+     * The target rate must be a probability strictly between 0 and 1.
+     */
+    @Test
+    void invalid_false_positive_rate_should_be_rejected() {
+
+        assertThatThrownBy(() -> BloomFilter.of(List.of("A"), 0))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> BloomFilter.of(List.of("A"), 1))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static List<String> codes(String prefix, int count) {
+        List<String> codes = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            codes.add(prefix + i);
+        }
+        return codes;
+    }
+}
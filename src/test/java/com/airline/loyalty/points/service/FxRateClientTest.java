@@ -0,0 +1,279 @@
+package com.airline.loyalty.points.service;
+
+import com.airline.loyalty.points.resilience.BackoffPolicy;
+import com.airline.loyalty.points.resilience.CircuitBreaker;
+import com.airline.loyalty.points.resilience.CircuitOpenException;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.client.WebClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.List;
+
+import static com.airline.loyalty.points.service.ServiceClientExtension.await;
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests of {@link FxRateClient} against a WireMock FX service:
+ * its cache windows, and how caller deadlines and FX failures feed
+ * its circuit breaker.
+ */
+@ExtendWith(ServiceClientExtension.class)
+class FxRateClientTest {
+
+    // Fresh for 1 s, then stale-while-revalidate for 1 s, served on failure up to 5 s
+    private static final FxCachePolicy CACHE = new FxCachePolicy(1_000, 1_000, 5_000);
+
+    private Vertx vertx;
+    private WireMockServer wireMock;
+    private WebClient webClient;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp(Vertx vertx, WireMockServer wireMock, WebClient webClient) {
+        this.vertx = vertx;
+        this.wireMock = wireMock;
+        this.webClient = webClient;
+        breaker = new CircuitBreaker("fx", 2, 60_000, 1);
+    }
+
+    /**
+     * Callers whose own deadline is shorter than the FX latency get
+     * DeadlineExceededException, and the breaker stays closed however
+     * many of them there are.
+     */
+    @Test
+    void short_caller_deadlines_should_not_open_the_circuit() {
+
+        wireMock.stubFor(get(urlPathEqualTo("/fx"))
+                .withQueryParam("currency", equalTo("USD"))
+                .willReturn(okJson("{\"rate\":3.67}").withFixedDelay(300)));
+
+        FxRateClient client = client(new FxCachePolicy(0, 0, 0));
+
+        for (int i = 0; i < 5; i++) {
+            Future<Double> rate = client.getFxRate("USD", Deadline.after(20));
+
+            assertThatThrownBy(() -> await(rate))
+                    .hasCauseInstanceOf(DeadlineExceededException.class);
+        }
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.openedCount()).isZero();
+        assertThat(await(client.getFxRate("USD", Deadline.NONE))).isEqualTo(3.67);
+    }
+
+    /**
+     * A caller joining an in-flight lookup keeps its own deadline: the
+     * short caller gives up, the caller without a deadline still gets
+     * the rate from the same shared call.
+     */
+    @Test
+    void coalesced_callers_should_each_wait_until_their_own_deadline() {
+
+        wireMock.stubFor(get(urlPathEqualTo("/fx"))
+                .withQueryParam("currency", equalTo("USD"))
+                .willReturn(okJson("{\"rate\":3.67}").withFixedDelay(200)));
+
+        FxRateClient client = client(new FxCachePolicy(0, 0, 0));
+
+        Future<Double> shortCaller = client.getFxRate("USD", Deadline.after(20));
+        Future<Double> longCaller = client.getFxRate("USD", Deadline.NONE);
+
+        assertThatThrownBy(() -> await(shortCaller))
+                .hasCauseInstanceOf(DeadlineExceededException.class);
+        assertThat(await(longCaller)).isEqualTo(3.67);
+        wireMock.verify(1, getRequestedFor(urlPathEqualTo("/fx")));
+    }
+
+    /**
+     * A failed attempt is not retried once every caller sharing the
+     * lookup has passed its deadline, while a caller still waiting keeps
+     * the retries going.
+     */
+    @Test
+    void retries_should_stop_once_no_caller_waits() throws InterruptedException {
+
+        wireMock.stubFor(get(urlPathEqualTo("/fx"))
+                .willReturn(aResponse().withStatus(503).withFixedDelay(100)));
+
+        FxRateClient client = client(new FxCachePolicy(0, 0, 0));
+
+        assertThatThrownBy(() -> await(client.getFxRate("USD", Deadline.after(20))))
+                .hasCauseInstanceOf(DeadlineExceededException.class);
+
+        // Leave time for a retry (at most 20 ms later) to reach the service
+        awaitRequests(1);
+        Thread.sleep(300);
+
+        wireMock.verify(1, getRequestedFor(urlPathEqualTo("/fx")));
+        assertThat(client.retryCount()).isZero();
+
+        Future<Double> shortCaller = client.getFxRate("USD", Deadline.after(20));
+        Future<Double> longCaller = client.getFxRate("USD", Deadline.NONE);
+
+        assertThatThrownBy(() -> await(shortCaller))
+                .hasCauseInstanceOf(DeadlineExceededException.class);
+        assertThatThrownBy(() -> await(longCaller))
+                .hasCauseInstanceOf(FxServiceException.class);
+
+        wireMock.verify(4, getRequestedFor(urlPathEqualTo("/fx")));
+        assertThat(client.retryCount()).isEqualTo(2);
+    }
+
+    /**
+     * Unknown currencies are answered with 404: the lookup fails at once,
+     * without retries, and the breaker stays closed.
+     */
+    @Test
+    void not_found_should_not_be_retried_or_open_the_circuit() {
+
+        wireMock.stubFor(get(urlPathEqualTo("/fx"))
+                .willReturn(aResponse().withStatus(404)));
+
+        FxRateClient client = client(new FxCachePolicy(0, 0, 0));
+
+        for (int i = 0; i < 5; i++) {
+            assertThatThrownBy(() -> await(client.getFxRate("XYZ", Deadline.NONE)))
+                    .hasCauseInstanceOf(FxServiceException.class);
+        }
+
+        wireMock.verify(5, getRequestedFor(urlPathEqualTo("/fx")));
+        assertThat(client.retryCount()).isZero();
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    /**
+     * Server errors are retried, but a lookup counts once against the
+     * breaker whatever its number of attempts: the first failed lookup
+     * leaves the circuit closed, the second one opens it.
+     */
+    @Test
+    void server_errors_should_count_once_per_lookup() {
+
+        wireMock.stubFor(get(urlPathEqualTo("/fx"))
+                .willReturn(aResponse().withStatus(503)));
+
+        FxRateClient client = client(new FxCachePolicy(0, 0, 0));
+
+        assertThatThrownBy(() -> await(client.getFxRate("USD", Deadline.NONE)))
+                .hasCauseInstanceOf(FxServiceException.class);
+
+        wireMock.verify(3, getRequestedFor(urlPathEqualTo("/fx")));
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        assertThatThrownBy(() -> await(client.getFxRate("USD", Deadline.NONE)))
+                .hasCauseInstanceOf(FxServiceException.class);
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(() -> await(client.getFxRate("USD", Deadline.NONE)))
+                .hasCauseInstanceOf(CircuitOpenException.class);
+        wireMock.verify(6, getRequestedFor(urlPathEqualTo("/fx")));
+    }
+
+    /**
+     * A rate younger than ttlMs is served from the cache without any
+     * FX call.
+     */
+    @Test
+    void fresh_rate_should_be_served_without_a_call() {
+
+        FxRateClient client = client(CACHE);
+        client.importCache(List.of(new WarmStartSnapshot.FxEntry("USD", 3.60, System.currentTimeMillis())));
+
+        assertThat(await(client.getFxRate("USD", Deadline.NONE))).isEqualTo(3.60);
+
+        wireMock.verify(0, getRequestedFor(urlPathEqualTo("/fx")));
+        assertThat(client.cacheHits()).isEqualTo(1);
+        assertThat(client.cacheMisses()).isZero();
+    }
+
+    /**
+     * A rate past ttlMs but within the stale-while-revalidate window is
+     * served as is to every caller, while exactly one background call
+     * refreshes it.
+     */
+    @Test
+    void stale_rate_should_be_served_while_one_refresh_runs() throws InterruptedException {
+
+        wireMock.stubFor(get(urlPathEqualTo("/fx"))
+                .withQueryParam("currency", equalTo("USD"))
+                .willReturn(okJson("{\"rate\":3.67}").withFixedDelay(200)));
+
+        FxRateClient client = client(CACHE);
+        client.importCache(List.of(new WarmStartSnapshot.FxEntry("USD", 3.60, System.currentTimeMillis() - 1_500)));
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(await(client.getFxRate("USD", Deadline.NONE))).isEqualTo(3.60);
+        }
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        while (!Double.valueOf(3.67).equals(await(client.getFxRate("USD", Deadline.NONE)))
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+
+        assertThat(await(client.getFxRate("USD", Deadline.NONE))).isEqualTo(3.67);
+        wireMock.verify(1, getRequestedFor(urlPathEqualTo("/fx")));
+        assertThat(client.cacheMisses()).isZero();
+    }
+
+    /**
+     * Past the stale-while-revalidate window, an FX failure falls back
+     * to the cached rate as long as it is younger than maxStaleMs.
+     */
+    @Test
+    void failure_should_fall_back_to_a_rate_within_max_stale() {
+
+        wireMock.stubFor(get(urlPathEqualTo("/fx"))
+                .willReturn(aResponse().withStatus(503)));
+
+        FxRateClient client = client(CACHE);
+        client.importCache(List.of(new WarmStartSnapshot.FxEntry("USD", 3.60, System.currentTimeMillis() - 3_000)));
+
+        assertThat(await(client.getFxRate("USD", Deadline.NONE))).isEqualTo(3.60);
+        assertThat(client.cacheMisses()).isEqualTo(1);
+    }
+
+    /**
+     * Once a rate is older than maxStaleMs, an FX failure fails the
+     * lookup instead of serving it.
+     */
+    @Test
+    void failure_should_not_fall_back_to_a_rate_past_max_stale() throws InterruptedException {
+
+        wireMock.stubFor(get(urlPathEqualTo("/fx"))
+                .willReturn(aResponse().withStatus(503)));
+
+        FxRateClient client = client(CACHE);
+        client.importCache(List.of(new WarmStartSnapshot.FxEntry("USD", 3.60, System.currentTimeMillis() - 4_900)));
+
+        Thread.sleep(200);
+
+        assertThatThrownBy(() -> await(client.getFxRate("USD", Deadline.NONE)))
+                .hasCauseInstanceOf(FxServiceException.class);
+    }
+
+    private void awaitRequests(int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5_000;
+
+        while (wireMock.getAllServeEvents().size() < count && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private FxRateClient client(FxCachePolicy cachePolicy) {
+        return new FxRateClient(vertx, webClient, "/fx", 1_000,
+                new BackoffPolicy(2, 10, 20, 2_000), breaker, cachePolicy);
+    }
+}
@@ -0,0 +1,186 @@
+package com.airline.loyalty.points.service;
+
+import com.airline.loyalty.points.resilience.BackoffPolicy;
+import com.airline.loyalty.points.resilience.CircuitBreaker;
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.client.WebClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static com.airline.loyalty.points.service.ServiceClientExtension.await;
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of {@link FxRateSnapshotRefresher} refreshing from a WireMock
+ * FX service through a real {@link FxRateClient}.
+ */
+@ExtendWith(ServiceClientExtension.class)
+class FxRateSnapshotRefresherTest {
+
+    private Vertx vertx;
+    private WireMockServer wireMock;
+    private FxRateClient client;
+
+    @BeforeEach
+    void setUp(Vertx vertx, WireMockServer wireMock, WebClient webClient) {
+        this.vertx = vertx;
+        this.wireMock = wireMock;
+
+        client = new FxRateClient(vertx, webClient, "/fx", 1_000,
+                new BackoffPolicy(0, 0, 0, 1_000), new CircuitBreaker("fx", 1_000, 60_000, 1),
+                new FxCachePolicy(0, 0, 0));
+    }
+
+    /**
+     * A refresh in which every currency succeeds publishes all rates,
+     * and lookups are then served from the snapshot.
+     */
+    @Test
+    void successful_refresh_should_publish_every_rate() {
+
+        stubRate("USD", 3.67);
+        stubRate("EUR", 4.01);
+
+        FxRateSnapshotRefresher refresher = refresher(60_000);
+        refresher.start();
+
+        awaitUntil(() -> refresher.refreshes() > 0);
+
+        assertThat(rate(refresher, "USD")).isEqualTo(3.67);
+        assertThat(rate(refresher, "EUR")).isEqualTo(4.01);
+        assertThat(refresher.snapshotHits()).isEqualTo(2);
+        assertThat(refresher.refreshFailures()).isZero();
+        assertThat(refresher.snapshotAgeMs()).isBetween(0L, 60_000L);
+    }
+
+    /**
+     * A failing currency does not hold back the others, and keeps its
+     * last rate when it fails after a successful refresh.
+     */
+    @Test
+    void partial_failure_should_publish_successful_rates_over_the_previous_snapshot() {
+
+        stubRate("USD", 3.67);
+        stubUnavailable("EUR");
+
+        FxRateSnapshotRefresher refresher = refresher(60_000);
+        refresher.start();
+
+        awaitUntil(() -> refresher.refreshes() > 0);
+
+        assertThat(refresher.refreshFailures()).isPositive();
+        assertThat(rate(refresher, "USD")).isEqualTo(3.67);
+        assertThat(refresher.snapshotHits()).isEqualTo(1);
+
+        stubUnavailable("USD");
+        stubRate("EUR", 4.01);
+
+        long refreshes = refresher.refreshes();
+        awaitUntil(() -> refresher.refreshes() > refreshes + 1);
+
+        long hits = refresher.snapshotHits();
+
+        assertThat(rate(refresher, "USD")).isEqualTo(3.67);
+        assertThat(rate(refresher, "EUR")).isEqualTo(4.01);
+        assertThat(refresher.snapshotHits()).isEqualTo(hits + 2);
+    }
+
+    /**
+     * A rate whose refresh keeps failing is served until it is older
+     * than maxAgeMs, then looked up through the FX client again.
+     */
+    @Test
+    void stale_rate_should_expire_per_currency() {
+
+        stubRate("USD", 3.67);
+        stubRate("EUR", 4.01);
+
+        FxRateSnapshotRefresher refresher = refresher(300);
+        refresher.start();
+
+        awaitUntil(() -> refresher.refreshes() > 0);
+
+        stubUnavailable("USD");
+        long hits = refresher.snapshotHits();
+
+        awaitUntil(() -> {
+            Future<Double> usd = refresher.getFxRate("USD", Deadline.NONE);
+            return await(usd.otherwiseEmpty()) == null;
+        });
+
+        assertThat(rate(refresher, "EUR")).isEqualTo(4.01);
+        assertThat(refresher.snapshotHits()).isGreaterThan(hits);
+    }
+
+    /**
+     * Once closed, the refresher stops calling the FX service but keeps
+     * serving its last snapshot.
+     */
+    @Test
+    void close_should_stop_refreshing() throws InterruptedException {
+
+        stubRate("USD", 3.67);
+        stubRate("EUR", 4.01);
+
+        FxRateSnapshotRefresher refresher = refresher(60_000);
+        refresher.start();
+
+        awaitUntil(() -> refresher.refreshes() > 1);
+
+        refresher.close();
+        Thread.sleep(100);
+
+        int calls = wireMock.getAllServeEvents().size();
+        Thread.sleep(300);
+
+        assertThat(wireMock.getAllServeEvents()).hasSize(calls);
+        assertThat(rate(refresher, "USD")).isEqualTo(3.67);
+    }
+
+    private FxRateSnapshotRefresher refresher(long maxAgeMs) {
+        return new FxRateSnapshotRefresher(vertx, client, Set.of("USD", "EUR"), 50, 0, maxAgeMs);
+    }
+
+    private void stubRate(String currency, double rate) {
+        wireMock.stubFor(get(urlPathEqualTo("/fx"))
+                .withQueryParam("currency", equalTo(currency))
+                .willReturn(okJson("{\"rate\":" + rate + "}")));
+    }
+
+    private void stubUnavailable(String currency) {
+        wireMock.stubFor(get(urlPathEqualTo("/fx"))
+                .withQueryParam("currency", equalTo(currency))
+                .willReturn(aResponse().withStatus(503)));
+    }
+
+    private static Double rate(FxRateSource source, String currency) {
+        return await(source.getFxRate(currency, Deadline.NONE).otherwiseEmpty());
+    }
+
+    private static void awaitUntil(BooleanSupplier condition) {
+        long deadline = System.currentTimeMillis() + 5_000;
+
+        while (!condition.getAsBoolean()) {
+            if (System.currentTimeMillis() > deadline) {
+                throw new AssertionError("Condition not met within 5 s");
+            }
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
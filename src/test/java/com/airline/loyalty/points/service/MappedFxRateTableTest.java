@@ -0,0 +1,122 @@
+package com.airline.loyalty.points.service;
+
+import io.vertx.core.Future;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of {@link MappedFxRateTable}: files written by
+ * {@link MappedFxRateTable#write} are mapped, served and replaced by
+ * newer versions, and stale tables are not served.
+ */
+class MappedFxRateTableTest {
+
+    private static final long HOUR_MS = 3_600_000L;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * A written table is mapped and serves its rates; a newer version
+     * written over it replaces them on the next reload.
+     */
+    @Test
+    void reload_should_map_a_written_table_and_replace_it_with_a_newer_version() throws IOException {
+
+        Path file = dir.resolve("fx-rates.bin");
+        long now = System.currentTimeMillis();
+
+        MappedFxRateTable.write(file, 1, now, Map.of("USD", 3.67, "EUR", 4.02));
+
+        MappedFxRateTable table = new MappedFxRateTable(file, HOUR_MS);
+
+        assertThat(table.reload()).isTrue();
+        assertThat(table.version()).isEqualTo(1);
+        assertThat(table.publishedAtMs()).isEqualTo(now);
+        assertThat(table.getFxRate("USD", Deadline.NONE).result()).isEqualTo(3.67);
+        assertThat(table.getFxRate("EUR", Deadline.NONE).result()).isEqualTo(4.02);
+        assertThat(table.getFxRate("GBP", Deadline.NONE).failed()).isTrue();
+        assertThat(table.reload()).isFalse();
+
+        MappedFxRateTable.write(file, 2, now, Map.of("USD", 3.70, "GBP", 4.65));
+        touch(file);
+
+        assertThat(table.reload()).isTrue();
+        assertThat(table.version()).isEqualTo(2);
+        assertThat(table.getFxRate("USD", Deadline.NONE).result()).isEqualTo(3.70);
+        assertThat(table.getFxRate("GBP", Deadline.NONE).result()).isEqualTo(4.65);
+        assertThat(table.getFxRate("EUR", Deadline.NONE).failed()).isTrue();
+        assertThat(table.reloads()).isEqualTo(2);
+    }
+
+    /**
+     * A file holding an older version than the mapped one is rejected
+     * and the mapped table keeps being served.
+     */
+    @Test
+    void reload_should_keep_the_table_when_the_file_holds_an_older_version() throws IOException {
+
+        Path file = dir.resolve("fx-rates.bin");
+        long now = System.currentTimeMillis();
+
+        MappedFxRateTable.write(file, 5, now, Map.of("USD", 3.67));
+
+        MappedFxRateTable table = new MappedFxRateTable(file, HOUR_MS);
+        table.reload();
+
+        MappedFxRateTable.write(file, 4, now, Map.of("USD", 9.99));
+        touch(file);
+
+        assertThat(table.reload()).isFalse();
+        assertThat(table.reloadFailures()).isEqualTo(1);
+        assertThat(table.version()).isEqualTo(5);
+        assertThat(table.getFxRate("USD", Deadline.NONE).result()).isEqualTo(3.67);
+    }
+
+    /**
+     * A table published longer ago than maxAgeMs is mapped but its
+     * rates are refused until a fresh version arrives; a maxAgeMs of 0
+     * serves it regardless.
+     */
+    @Test
+    void stale_table_should_not_be_served() throws IOException {
+
+        Path file = dir.resolve("fx-rates.bin");
+        long now = System.currentTimeMillis();
+
+        MappedFxRateTable.write(file, 1, now - 2 * HOUR_MS, Map.of("USD", 3.67));
+
+        MappedFxRateTable table = new MappedFxRateTable(file, HOUR_MS);
+
+        assertThat(table.reload()).isTrue();
+        assertThat(table.ageMs()).isGreaterThanOrEqualTo(2 * HOUR_MS);
+
+        Future<Double> stale = table.getFxRate("USD", Deadline.NONE);
+        assertThat(stale.failed()).isTrue();
+        assertThat(stale.cause()).hasMessageContaining("stale");
+
+        MappedFxRateTable unbounded = new MappedFxRateTable(file, 0);
+        unbounded.reload();
+        assertThat(unbounded.getFxRate("USD", Deadline.NONE).result()).isEqualTo(3.67);
+
+        MappedFxRateTable.write(file, 2, now, Map.of("USD", 3.68));
+        touch(file);
+
+        assertThat(table.reload()).isTrue();
+        assertThat(table.getFxRate("USD", Deadline.NONE).result()).isEqualTo(3.68);
+    }
+
+    // Two writes within the file system's timestamp resolution would look unchanged
+    private static void touch(Path file) throws IOException {
+        long previous = Files.getLastModifiedTime(file).toMillis();
+        Files.setLastModifiedTime(file, FileTime.fromMillis(previous + 1_000));
+    }
+}
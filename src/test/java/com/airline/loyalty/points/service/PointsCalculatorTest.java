@@ -0,0 +1,88 @@
+package com.airline.loyalty.points.service;
+
+import com.airline.loyalty.points.model.CabinClass;
+import com.airline.loyalty.points.model.QuoteRequest;
+import com.airline.loyalty.points.model.QuoteResponse;
+import com.airline.loyalty.points.model.Tier;
+import io.vertx.core.Future;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests of {@link PointsCalculator#compute}, the synchronous part of a quote.
+ */
+class PointsCalculatorTest {
+
+    private final PromoClient promoClient = new PromoClient(null, null, 500, 3, null, null,
+            PromoCachePolicy.fromJson(null));
+
+    /**
+     * Base, tier and promo points add up to the total.
+     */
+    @Test
+    void should_add_tier_and_promo_bonus_to_base_points() {
+
+        QuoteResponse quote = calculator(EarningTable.DEFAULT)
+                .compute(request(1_000, Tier.GOLD), 3.67, new PromoTerms(10, 30));
+
+        assertThat(quote.basePoints()).isEqualTo(3_670);
+        assertThat(quote.tierBonus()).isEqualTo(1_101);
+        assertThat(quote.promoBonus()).isEqualTo(367);
+        assertThat(quote.totalPoints()).isEqualTo(5_138);
+        assertThat(quote.warnings()).isEmpty();
+    }
+
+    /**
+     * Expired promotions give no bonus and a PROMO_EXPIRED warning.
+     */
+    @Test
+    void expired_promo_should_give_no_bonus() {
+
+        QuoteResponse quote = calculator(EarningTable.DEFAULT)
+                .compute(request(1_000, Tier.NONE), 1.0, new PromoTerms(10, 0));
+
+        assertThat(quote.promoBonus()).isZero();
+        assertThat(quote.totalPoints()).isEqualTo(1_000);
+        assertThat(quote.warnings()).containsExactly("PROMO_EXPIRED");
+    }
+
+    /**
+     * A total one point below, at and above the cap.
+     */
+    @Test
+    void total_should_be_capped() {
+
+        PointsCalculator calculator = calculator(EarningTable.fromJson(new JsonObject().put("cap", 1_000)));
+
+        assertThat(calculator.compute(request(999, Tier.NONE), 1.0, PromoTerms.NONE).totalPoints())
+                .isEqualTo(999);
+        assertThat(calculator.compute(request(1_000, Tier.NONE), 1.0, PromoTerms.NONE).totalPoints())
+                .isEqualTo(1_000);
+        assertThat(calculator.compute(request(1_001, Tier.NONE), 1.0, PromoTerms.NONE).totalPoints())
+                .isEqualTo(1_000);
+    }
+
+    /**
+     * Points that do not fit in the int fields of the response fail
+     * instead of wrapping around.
+     */
+    @Test
+    void points_beyond_int_range_should_fail() {
+
+        QuoteRequest request = request(1_000_000, Tier.NONE);
+
+        assertThatThrownBy(() -> calculator(EarningTable.DEFAULT).compute(request, 10_000, PromoTerms.NONE))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    private PointsCalculator calculator(EarningTable table) {
+        return new PointsCalculator((currency, deadline) -> Future.succeededFuture(1.0), promoClient, table);
+    }
+
+    private static QuoteRequest request(double fareAmount, Tier tier) {
+        return new QuoteRequest(fareAmount, "USD", CabinClass.ECONOMY, tier, null);
+    }
+}
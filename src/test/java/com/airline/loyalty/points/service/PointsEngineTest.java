@@ -0,0 +1,104 @@
+package com.airline.loyalty.points.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.RoundingMode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Tests of the fixed-point arithmetic of {@link PointsEngine}.
+ */
+class PointsEngineTest {
+
+    /**
+     * 0.1 + 0.2 is 0.30000000000000004 as a double; in minor units it is
+     * exactly 30, and 10× that fare earns exactly 3 points.
+     */
+    @Test
+    void fare_rounding_should_absorb_binary_floating_point_error() {
+
+        long fareMinor = PointsEngine.toMinorUnits(0.1 + 0.2);
+
+        assertThat(fareMinor).isEqualTo(30);
+        assertThat(PointsEngine.basePoints(fareMinor, PointsEngine.toMicros(10), PointsEngine.MICROS))
+                .isEqualTo(3);
+    }
+
+    /**
+     * 0.29 × 100 is 28.999999999999996 as a double, which a double
+     * computation floors to 28; the fixed-point result is exactly 29.
+     */
+    @Test
+    void base_points_should_be_exact_where_double_arithmetic_is_not() {
+
+        assertThat((long) Math.floor(0.29 * 100)).isEqualTo(28);
+        assertThat(PointsEngine.basePoints(PointsEngine.toMinorUnits(0.29),
+                PointsEngine.toMicros(100), PointsEngine.MICROS)).isEqualTo(29);
+    }
+
+    /**
+     * Base points round down, bonuses truncate.
+     */
+    @Test
+    void base_points_and_bonuses_should_round_down() {
+
+        assertThat(PointsEngine.basePoints(999, PointsEngine.toMicros(3.67), PointsEngine.toMicros(1.25)))
+                .isEqualTo(45);
+        assertThat(PointsEngine.tierBonus(45, PointsEngine.toMicros(0.15))).isEqualTo(6);
+        assertThat(PointsEngine.promoBonus(45, 25)).isEqualTo(11);
+    }
+
+    /**
+     * Totals up to the cap are kept, totals above it are capped.
+     */
+    @Test
+    void total_should_be_capped_at_the_boundary() {
+
+        assertThat(PointsEngine.cappedTotal(49_000, 900, 99, 50_000)).isEqualTo(49_999);
+        assertThat(PointsEngine.cappedTotal(49_000, 900, 100, 50_000)).isEqualTo(50_000);
+        assertThat(PointsEngine.cappedTotal(49_000, 900, 101, 50_000)).isEqualTo(50_000);
+    }
+
+    /**
+     * Products that overflow a long fail instead of wrapping around.
+     */
+    @Test
+    void overflowing_products_should_fail() {
+        assertThatThrownBy(() -> PointsEngine.basePoints(Long.MAX_VALUE / 2, PointsEngine.MICROS, PointsEngine.MICROS))
+                .isInstanceOf(ArithmeticException.class);
+    }
+
+    /**
+     * Division matches BigDecimal rounding for negative and positive quotients.
+     */
+    @Test
+    void divide_should_round_like_big_decimal() {
+
+        assertThat(PointsEngine.divide(-7, 2, RoundingMode.FLOOR)).isEqualTo(-4);
+        assertThat(PointsEngine.divide(-7, 2, RoundingMode.DOWN)).isEqualTo(-3);
+        assertThat(PointsEngine.divide(5, 2, RoundingMode.HALF_EVEN)).isEqualTo(2);
+        assertThat(PointsEngine.divide(7, 2, RoundingMode.HALF_EVEN)).isEqualTo(4);
+        assertThat(PointsEngine.divide(5, 2, RoundingMode.HALF_UP)).isEqualTo(3);
+    }
+
+    /**
+     * The core fills every component and returns their capped sum;
+     * without a components array it only returns the total.
+     */
+    @Test
+    void compute_total_should_fill_components_and_cap_the_sum() {
+
+        long[] points = new long[3];
+
+        // 420.50 × 3.67 = 1543.235 → 1543 base, 30% tier → 462, 10% promo → 154
+        long total = PointsEngine.computeTotal(42_050, 3_670_000, PointsEngine.MICROS,
+                300_000, 10, PointsEngine.DEFAULT_CAP, points);
+
+        assertThat(points).containsExactly(1_543, 462, 154);
+        assertThat(total).isEqualTo(2_159);
+        assertThat(PointsEngine.computeTotal(42_050, 3_670_000, PointsEngine.MICROS,
+                300_000, 10, 2_000, null)).isEqualTo(2_000);
+    }
+}
@@ -0,0 +1,151 @@
+package com.airline.loyalty.points.service;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.client.WebClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static com.airline.loyalty.points.service.ServiceClientExtension.await;
+import static com.github.tomakehurst.wiremock.client.WireMock.aResponse;
+import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.okJson;
+import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of {@link PromoClient} against a WireMock Promotion Service:
+ * which code is sent and which outcomes are cached.
+ */
+@ExtendWith(ServiceClientExtension.class)
+class PromoClientTest {
+
+    private Vertx vertx;
+    private WireMockServer wireMock;
+    private WebClient webClient;
+    private PromoClient client;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp(Vertx vertx, WireMockServer wireMock, WebClient webClient) {
+        this.vertx = vertx;
+        this.wireMock = wireMock;
+        this.webClient = webClient;
+
+        client = new PromoClient(vertx, webClient, 1_000, 3,
+                PromoCatalog.fromJson(vertx, null), PromoCodeFilter.fromJson(vertx, null),
+                PromoCachePolicy.fromJson(null));
+    }
+
+    /**
+     * The service receives the normalized code, which is also the cache
+     * key, so spellings of the same code share one lookup.
+     */
+    @Test
+    void should_send_and_cache_the_normalized_code() {
+
+        wireMock.stubFor(get(urlPathEqualTo("/promo"))
+                .willReturn(okJson("{\"bonusPercentage\":25,\"expiresInDays\":30}")));
+
+        assertThat(await(client.getPromoTerms("summer25"))).isEqualTo(new PromoTerms(25, 30));
+        assertThat(await(client.getPromoTerms(" SUMMER25 "))).isEqualTo(new PromoTerms(25, 30));
+
+        wireMock.verify(1, getRequestedFor(urlPathEqualTo("/promo"))
+                .withQueryParam("code", equalTo("SUMMER25")));
+        wireMock.verify(1, getRequestedFor(urlPathEqualTo("/promo")));
+    }
+
+    /**
+     * Unknown codes are cached for the negative TTL.
+     */
+    @Test
+    void not_found_should_be_cached() {
+
+        wireMock.stubFor(get(urlPathEqualTo("/promo"))
+                .willReturn(aResponse().withStatus(404)));
+
+        assertThat(await(client.getPromoTerms("NOPE"))).isEqualTo(PromoTerms.NONE);
+        assertThat(await(client.getPromoTerms("NOPE"))).isEqualTo(PromoTerms.NONE);
+
+        wireMock.verify(1, getRequestedFor(urlPathEqualTo("/promo")));
+    }
+
+    /**
+     * Server errors are not cached: once the service recovers, the
+     * next lookup gets the real terms.
+     */
+    @Test
+    void server_errors_should_not_be_cached() {
+
+        wireMock.stubFor(get(urlPathEqualTo("/promo"))
+                .willReturn(aResponse().withStatus(503)));
+
+        assertThat(await(client.getPromoTerms("SUMMER25"))).isEqualTo(PromoTerms.NONE);
+
+        wireMock.stubFor(get(urlPathEqualTo("/promo"))
+                .willReturn(okJson("{\"bonusPercentage\":25,\"expiresInDays\":30}")));
+
+        assertThat(await(client.getPromoTerms("SUMMER25"))).isEqualTo(new PromoTerms(25, 30));
+        wireMock.verify(2, getRequestedFor(urlPathEqualTo("/promo")));
+    }
+
+    /**
+     * Timeouts are not cached either.
+     */
+    @Test
+    void timeouts_should_not_be_cached() {
+
+        wireMock.stubFor(get(urlPathEqualTo("/promo"))
+                .willReturn(okJson("{\"bonusPercentage\":25,\"expiresInDays\":30}").withFixedDelay(1_500)));
+
+        assertThat(await(client.getPromoTerms("SUMMER25"))).isEqualTo(PromoTerms.NONE);
+
+        wireMock.stubFor(get(urlPathEqualTo("/promo"))
+                .willReturn(okJson("{\"bonusPercentage\":25,\"expiresInDays\":30}")));
+
+        assertThat(await(client.getPromoTerms("SUMMER25"))).isEqualTo(new PromoTerms(25, 30));
+    }
+
+    /**
+     * With a code list loaded, a code that is not on it is answered
+     * NONE without calling the Promotion Service; a listed code the
+     * service does not know is counted as a false positive.
+     */
+    @Test
+    void code_filter_should_reject_unlisted_codes_without_a_remote_call() throws IOException {
+
+        Path codes = dir.resolve("codes.txt");
+        Files.writeString(codes, "SUMMER25\nwinter10\n");
+
+        PromoCodeFilter filter = new PromoCodeFilter(codes, 0.01);
+        filter.reload();
+
+        PromoClient filtered = new PromoClient(vertx, webClient, 1_000, 3,
+                PromoCatalog.fromJson(vertx, null), filter, PromoCachePolicy.fromJson(null));
+
+        wireMock.stubFor(get(urlPathEqualTo("/promo"))
+                .willReturn(aResponse().withStatus(404)));
+
+        assertThat(await(filtered.getPromoTerms("NOT-A-CODE"))).isEqualTo(PromoTerms.NONE);
+
+        wireMock.verify(0, getRequestedFor(urlPathEqualTo("/promo")));
+        assertThat(filter.rejected()).isEqualTo(1);
+        assertThat(filter.memoryBytes()).isPositive();
+
+        assertThat(await(filtered.getPromoTerms("winter10"))).isEqualTo(PromoTerms.NONE);
+
+        wireMock.verify(1, getRequestedFor(urlPathEqualTo("/promo")));
+        assertThat(filter.passed()).isEqualTo(1);
+        assertThat(filter.falsePositives()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,93 @@
+package com.airline.loyalty.points.service;
+
+import com.github.tomakehurst.wiremock.WireMockServer;
+import com.github.tomakehurst.wiremock.core.WireMockConfiguration;
+import io.vertx.core.Future;
+import io.vertx.core.Vertx;
+import io.vertx.ext.web.client.WebClient;
+import io.vertx.ext.web.client.WebClientOptions;
+import org.junit.jupiter.api.extension.AfterEachCallback;
+import org.junit.jupiter.api.extension.BeforeEachCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.jupiter.api.extension.ParameterContext;
+import org.junit.jupiter.api.extension.ParameterResolver;
+
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JUnit 5 extension for tests of the FX and promo clients against a
+ * WireMock downstream service.
+ *
+ * For every test it:
+ * - Starts a Vert.x instance and a WireMock server on a dynamic port
+ * - Creates a WebClient whose default host and port are the WireMock server
+ * - Injects the Vert.x instance, the WireMock server and the WebClient
+ *   into @BeforeEach and test method parameters
+ * - Stops WireMock and closes Vert.x afterwards
+ *
+ * {@link #await(Future)} waits for a client result, so tests can assert
+ * on it directly.
+ */
+class ServiceClientExtension implements BeforeEachCallback, AfterEachCallback, ParameterResolver {
+
+    private static final ExtensionContext.Namespace NAMESPACE =
+            ExtensionContext.Namespace.create(ServiceClientExtension.class);
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+
+        Vertx vertx = Vertx.vertx();
+        WireMockServer wireMock = new WireMockServer(WireMockConfiguration.wireMockConfig().dynamicPort());
+        wireMock.start();
+
+        WebClient webClient = WebClient.create(vertx, new WebClientOptions()
+                .setDefaultHost("localhost")
+                .setDefaultPort(wireMock.port()));
+
+        ExtensionContext.Store store = context.getStore(NAMESPACE);
+        store.put(Vertx.class, vertx);
+        store.put(WireMockServer.class, wireMock);
+        store.put(WebClient.class, webClient);
+    }
+
+    @Override
+    public void afterEach(ExtensionContext context) throws Exception {
+
+        ExtensionContext.Store store = context.getStore(NAMESPACE);
+
+        store.get(WireMockServer.class, WireMockServer.class).stop();
+        store.get(Vertx.class, Vertx.class).close()
+                .toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        Class<?> type = parameterContext.getParameter().getType();
+        return type == Vertx.class || type == WireMockServer.class || type == WebClient.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        return extensionContext.getStore(NAMESPACE).get(parameterContext.getParameter().getType());
+    }
+
+    /**
+     * Waits up to 5 seconds for a Future.
+     *
+     * @param future the Future to wait for
+     * @param <T> result type
+     * @return the result
+     * @throws CompletionException with the Future's failure as its cause
+     */
+    static <T> T await(Future<T> future) {
+        try {
+            return future.toCompletionStage().toCompletableFuture().get(5, TimeUnit.SECONDS);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.airline.loyalty.points.service;
+
+import com.airline.loyalty.points.resilience.BackoffPolicy;
+import com.airline.loyalty.points.resilience.CircuitBreaker;
+import io.vertx.core.Vertx;
+import io.vertx.core.json.JsonObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Tests of {@link WarmStartSnapshot}: caches persisted by one process
+ * are restored by the next one with their original retrieval and
+ * expiry times.
+ */
+class WarmStartSnapshotTest {
+
+    private Vertx vertx;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        vertx = Vertx.vertx();
+    }
+
+    @AfterEach
+    void tearDown() {
+        vertx.close();
+    }
+
+    /**
+     * A snapshot persisted from one set of clients and loaded into new,
+     * empty ones restores every entry unchanged, so restored rates and
+     * promo terms expire exactly when the originals would have.
+     */
+    @Test
+    void restored_entries_should_keep_their_original_expiry() {
+
+        Path file = dir.resolve("warm-start.bin");
+        long now = System.currentTimeMillis();
+
+        WarmStartSnapshot.FxEntry rate = new WarmStartSnapshot.FxEntry("USD", 3.67, now - 10_000);
+        WarmStartSnapshot.PromoEntry promo = new WarmStartSnapshot.PromoEntry("SUMMER25", 25, 30, now + 120_000);
+
+        FxRateClient fxClient = fxClient();
+        PromoClient promoClient = promoClient();
+        fxClient.importCache(List.of(rate));
+        promoClient.importCache(List.of(promo));
+
+        assertThat(new WarmStartSnapshot(file, fxClient, promoClient, 1_000).persist()).isTrue();
+
+        // Restart: new, empty clients
+        FxRateClient restartedFx = fxClient();
+        PromoClient restartedPromo = promoClient();
+
+        new WarmStartSnapshot(file, restartedFx, restartedPromo, 1_000).load();
+
+        assertThat(restartedFx.exportCache()).containsExactly(rate);
+        assertThat(restartedPromo.exportCache(1_000)).containsExactly(promo);
+    }
+
+    /**
+     * Starting from the "warmStart" block loads the snapshot right away,
+     * and closing writes it once more with the entries cached since.
+     */
+    @Test
+    void start_should_load_the_snapshot_and_close_should_persist_it() {
+
+        Path file = dir.resolve("warm-start.bin");
+        long now = System.currentTimeMillis();
+
+        WarmStartSnapshot.PromoEntry first = new WarmStartSnapshot.PromoEntry("SUMMER25", 25, 30, now + 120_000);
+        WarmStartSnapshot.PromoEntry second = new WarmStartSnapshot.PromoEntry("WINTER10", 10, 60, now + 240_000);
+
+        PromoClient promoClient = promoClient();
+        promoClient.importCache(List.of(first));
+        new WarmStartSnapshot(file, null, promoClient, 1_000).persist();
+
+        PromoClient restarted = promoClient();
+        WarmStartSnapshot snapshot = WarmStartSnapshot.start(vertx, null, restarted,
+                new JsonObject().put("path", file.toString()).put("intervalMs", 60_000));
+
+        assertThat(snapshot).isNotNull();
+        assertThat(restarted.exportCache(1_000)).containsExactly(first);
+
+        restarted.importCache(List.of(second));
+        snapshot.close(vertx);
+
+        PromoClient next = promoClient();
+        new WarmStartSnapshot(file, null, next, 1_000).load();
+
+        assertThat(next.exportCache(1_000)).containsExactlyInAnyOrder(first, second);
+    }
+
+    /**
+     * A snapshot whose entry count is corrupt is ignored without sizing
+     * a list from the count, leaving the caches empty.
+     */
+    @Test
+    void corrupt_entry_count_should_leave_the_caches_empty() throws IOException {
+
+        Path file = dir.resolve("warm-start.bin");
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(0x4c575353);
+            out.writeShort(1);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(0);
+            out.writeInt(Integer.MAX_VALUE);
+        }
+        Files.write(file, bytes.toByteArray());
+
+        PromoClient promoClient = promoClient();
+        new WarmStartSnapshot(file, fxClient(), promoClient, 1_000).load();
+
+        assertThat(promoClient.exportCache(1_000)).isEmpty();
+    }
+
+    private FxRateClient fxClient() {
+        return new FxRateClient(vertx, null, "/fx", 1_000, new BackoffPolicy(2, 10, 20, 2_000),
+                new CircuitBreaker("fx", 2, 60_000, 1), new FxCachePolicy(60_000, 30_000, 300_000));
+    }
+
+    private PromoClient promoClient() {
+        return new PromoClient(vertx, null, 1_000, 3,
+                PromoCatalog.fromJson(vertx, null), PromoCodeFilter.fromJson(vertx, null),
+                PromoCachePolicy.fromJson(null));
+    }
+}